@@ -0,0 +1,85 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.eastvantage.appointment.AppointmentApplication;
+import com.eastvantage.appointment.report.AppointmentDailySummaryRefresher;
+
+/**
+ * This is the shared set up of the benchmarks. It starts the application
+ * without the web server against a private in-memory database and seeds the
+ * appointment table with the requested number of rows.
+ */
+public final class BenchmarkContext {
+
+	public static final String MEMORY_DATASOURCE_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+
+	public static final LocalDateTime SEED_START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	private static final long SEED_SPAN_SECONDS = 365L * 24 * 60 * 60;
+
+	private static final int SEED_BATCH_SIZE = 10000;
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * This method is used to start the application with the benchmark defaults
+	 * and the given extra properties, which replace the defaults of the same name
+	 *
+	 * @return This will return the started application context
+	 */
+	public static ConfigurableApplicationContext start(String... properties) {
+		Map<String, String> values = new LinkedHashMap<>();
+		values.put("spring.datasource.url", MEMORY_DATASOURCE_URL);
+		values.put("spring.jpa.show-sql", "false");
+		values.put("spring.h2.console.enabled", "false");
+		values.put("logging.level.root", "warn");
+		values.put("logging.level.org.springframework", "warn");
+		values.put("logging.file.name", "target/benchmark.log");
+		for (String property : properties) {
+			int separator = property.indexOf('=');
+			values.put(property.substring(0, separator), property.substring(separator + 1));
+		}
+		// passed as command line arguments, since default properties would lose to
+		// application.properties
+		List<String> args = new ArrayList<>();
+		values.forEach((name, value) -> args.add("--" + name + "=" + value));
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(AppointmentApplication.class).web(WebApplicationType.NONE)
+				.run(args.toArray(new String[0]));
+	}
+
+	/**
+	 * This method is used to seed the appointment table. The appointments are
+	 * spread evenly over one year from the seed start and every tenth one is
+	 * soft deleted.
+	 */
+	public static void seed(ConfigurableApplicationContext context, int rows) {
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		long step = Math.max(1, SEED_SPAN_SECONDS / rows);
+		List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+		for (int i = 1; i <= rows; i++) {
+			batch.add(new Object[] { i, Timestamp.valueOf(SEED_START.plusSeconds(i * step)), "appointment " + i,
+					30 * 60 * 1000L, i % 10 == 0 });
+			if (batch.size() == SEED_BATCH_SIZE || i == rows) {
+				jdbcTemplate.batchUpdate("insert into appointment (appointment_id, appointment_date_time,"
+						+ " appointment_name, appointment_duration, is_delete, version) values (?, ?, ?, ?, ?, 0)", batch);
+				batch.clear();
+			}
+		}
+		// the pooled optimizer hands out the 50 ids up to the value it reads
+		jdbcTemplate.execute("alter sequence appointment_sequence restart with " + (rows + 50));
+		context.getBean(AppointmentDailySummaryRefresher.class).rebuild();
+	}
+}
@@ -0,0 +1,122 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.response.AppointmentBulkItemResponse;
+import com.eastvantage.appointment.response.AppointmentBulkResponse;
+import com.eastvantage.appointment.service.AppointmentService;
+
+/**
+ * This benchmark measures the create, find, update and delete of the service
+ * with 8 threads under each datasource setting of the prod profile on its own,
+ * against the defaults of application.properties, and under the whole prod
+ * profile in memory and on file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+public class DatasourceSettingsBenchmark {
+
+	private static final String POSTGRESQL_MODE = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;QUERY_CACHE_SIZE=64";
+
+	private static final File FILE_DATABASE_DIRECTORY = new File("target/benchmark-db");
+
+	private static final Map<String, String[]> SETTINGS = Map.of(
+			"default", new String[0],
+			"show-sql", new String[] { "spring.jpa.show-sql=true" },
+			"no-batching", new String[] { "spring.jpa.properties.hibernate.jdbc.batch_size=1" },
+			"pool", new String[] { "spring.datasource.hikari.maximum-pool-size=20",
+					"spring.datasource.hikari.minimum-idle=20" },
+			"statement-cache", new String[] {
+					"spring.datasource.url=" + BenchmarkContext.MEMORY_DATASOURCE_URL + ";QUERY_CACHE_SIZE=64" },
+			"plan-cache", new String[] { "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true",
+					"spring.jpa.properties.hibernate.query.plan_cache_max_size=4096" },
+			"prod", new String[] { "spring.profiles.active=prod",
+					"spring.datasource.url=" + BenchmarkContext.MEMORY_DATASOURCE_URL + POSTGRESQL_MODE },
+			"prod-file", new String[] { "spring.profiles.active=prod", "spring.datasource.url=jdbc:h2:file:"
+					+ FILE_DATABASE_DIRECTORY.getAbsolutePath() + "/appointment" + POSTGRESQL_MODE });
+
+	private static final int BULK_SIZE = 20;
+
+	@Param({ "default", "show-sql", "no-batching", "pool", "statement-cache", "plan-cache", "prod", "prod-file" })
+	private String setting;
+
+	@Param("10000")
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private AppointmentService appointmentService;
+
+	// every appointment gets its own hour after the seeded year, so the writes
+	// never conflict
+	private final AtomicLong slots = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		FileSystemUtils.deleteRecursively(FILE_DATABASE_DIRECTORY);
+		context = BenchmarkContext.start(SETTINGS.get(setting));
+		BenchmarkContext.seed(context, rows);
+		appointmentService = context.getBean(AppointmentService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		FileSystemUtils.deleteRecursively(FILE_DATABASE_DIRECTORY);
+	}
+
+	@Benchmark
+	public Appointment crud() {
+		Appointment appointment = appointmentService.createAppointment(nextAppointment());
+		appointmentService.findAppointmentById(appointment.getAppointmentId());
+		appointmentService.updateAppointment(nextAppointment(), appointment.getAppointmentId(), null);
+		return appointmentService.deleteAppointment(appointment.getAppointmentId(), null);
+	}
+
+	@Benchmark
+	public AppointmentBulkResponse bulkCrud() {
+		List<AppointmentDto> appointmentDtos = new ArrayList<>(BULK_SIZE);
+		for (int i = 0; i < BULK_SIZE; i++) {
+			appointmentDtos.add(nextAppointment());
+		}
+		AppointmentBulkResponse created = appointmentService.createAppointments(appointmentDtos);
+		return appointmentService.deleteAppointments(created.getItems().stream()
+				.map(AppointmentBulkItemResponse::getAppointmentId).collect(Collectors.toList()));
+	}
+
+	private AppointmentDto nextAppointment() {
+		LocalDateTime dateTime = BenchmarkContext.SEED_START.plusYears(2).plusHours(slots.incrementAndGet());
+		return new AppointmentDto(dateTime, "benchmark", "00:30:00", null);
+	}
+}
@@ -0,0 +1,89 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.eastvantage.appointment.common.AppointmentDurationCodec;
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+/**
+ * This benchmark measures the duration conversions of the service: validating
+ * and parsing the HH:mm:ss duration of a create/ update request and formatting
+ * the duration of every appointment returned in a response. The legacy methods
+ * are the regular expression, String.split/ Duration and DurationFormatUtils
+ * path which the duration codec replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurationConversionBenchmark {
+
+	private static final Pattern LEGACY_PATTERN = Pattern
+			.compile("(?:[01]\\d|2[0123]):(?:[012345]\\d):(?:[012345]\\d)");
+
+	private AppointmentMapper appointmentMapper = new AppointmentMapper();
+
+	private String duration = "01:30:45";
+
+	private long durationMillis = 5445000L;
+
+	private AppointmentView appointment = new AppointmentView(1, LocalDateTime.of(2030, 1, 1, 10, 0),
+			"appointment 1", durationMillis, false, 0, null);
+
+	@Benchmark
+	public boolean legacyValidate() {
+		return LEGACY_PATTERN.matcher(duration).matches();
+	}
+
+	@Benchmark
+	public boolean codecValidate() {
+		return AppointmentDurationCodec.isValid(duration);
+	}
+
+	@Benchmark
+	public long legacyParse() {
+		String[] values = duration.split(":");
+		Duration parsed = Duration.ofHours(Integer.parseInt(values[0]));
+		parsed = parsed.plusMinutes(Integer.parseInt(values[1]));
+		parsed = parsed.plusSeconds(Integer.parseInt(values[2]));
+		return parsed.toMillis();
+	}
+
+	@Benchmark
+	public long codecParse() {
+		return AppointmentDurationCodec.parse(duration);
+	}
+
+	@Benchmark
+	public String legacyFormat() {
+		return DurationFormatUtils.formatDuration(durationMillis, "HH:mm:ss", true);
+	}
+
+	@Benchmark
+	public String codecFormat() {
+		return AppointmentDurationCodec.format(durationMillis);
+	}
+
+	@Benchmark
+	public AppointmentResponse mapResponse() {
+		return appointmentMapper.toResponse(appointment);
+	}
+}
@@ -0,0 +1,84 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+
+/**
+ * This benchmark compares the date range filter query loading full entities
+ * against the projection query, with and without the composite index on
+ * (is_delete, appointment_date_time, appointment_id). The range is one hour or
+ * one day out of one year of appointments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterQueryBenchmark {
+
+	@Param("1000000")
+	private int rows;
+
+	@Param({ "true", "false" })
+	private boolean indexed;
+
+	@Param({ "1", "24" })
+	private int rangeHours;
+
+	private ConfigurableApplicationContext context;
+
+	private AppointmentRepository appointmentRepository;
+
+	private LocalDateTime fromDate;
+
+	private LocalDateTime toDate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start();
+		BenchmarkContext.seed(context, rows);
+		if (!indexed) {
+			context.getBean(JdbcTemplate.class).execute("drop index idx_appointment_delete_date_time");
+		}
+		appointmentRepository = context.getBean(AppointmentRepository.class);
+		fromDate = BenchmarkContext.SEED_START.plusDays(180);
+		toDate = fromDate.plusHours(rangeHours);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Appointment> entityQuery() {
+		return appointmentRepository.findByIsDeleteAndAppointmentDateTimeBetween(false, fromDate, toDate);
+	}
+
+	@Benchmark
+	public List<AppointmentView> projectionQuery() {
+		return appointmentRepository.findViewsByDateRange(fromDate, toDate);
+	}
+}
@@ -0,0 +1,73 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.eastvantage.appointment.dto.AppointmentFilterDto;
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.service.AppointmentService;
+
+/**
+ * This benchmark measures the end to end getAllAppointment of the service,
+ * from the query to the list of responses, for the whole table and for a one
+ * week range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GetAllAppointmentBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private AppointmentService appointmentService;
+
+	private AppointmentFilterDto allFilter;
+
+	private AppointmentFilterDto weekFilter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start();
+		BenchmarkContext.seed(context, rows);
+		appointmentService = context.getBean(AppointmentService.class);
+		allFilter = new AppointmentFilterDto();
+		weekFilter = new AppointmentFilterDto(BenchmarkContext.SEED_START.plusDays(180),
+				BenchmarkContext.SEED_START.plusDays(187));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> getAll() {
+		return appointmentService.getAllAppointment(allFilter);
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> getWeek() {
+		return appointmentService.getAllAppointment(weekFilter);
+	}
+}
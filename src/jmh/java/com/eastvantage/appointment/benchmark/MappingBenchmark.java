@@ -0,0 +1,80 @@
+package com.eastvantage.appointment.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+/**
+ * This benchmark compares the reflective BeanUtils.copyProperties copies which
+ * the service used between the appointment dto, entity and response against
+ * the appointment mapper. The mapper also converts the duration, which the
+ * service did separately after each copy. Run it with -prof gc to compare the
+ * allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	private AppointmentMapper appointmentMapper = new AppointmentMapper();
+
+	private AppointmentDto appointmentDto = new AppointmentDto(LocalDateTime.of(2030, 1, 1, 10, 0), "appointment 1",
+			"01:30:45", null);
+
+	private Appointment appointment = new Appointment(1, LocalDateTime.of(2030, 1, 1, 10, 0), "appointment 1",
+			5445000L, false, 0, null);
+
+	@Benchmark
+	public Appointment beanUtilsDtoToEntity() {
+		Appointment copy = new Appointment();
+		BeanUtils.copyProperties(appointmentDto, copy);
+		return copy;
+	}
+
+	@Benchmark
+	public Appointment beanUtilsDtoToExistingEntity() {
+		BeanUtils.copyProperties(appointmentDto, appointment, "appointmentId");
+		return appointment;
+	}
+
+	@Benchmark
+	public AppointmentResponse beanUtilsEntityToResponse() {
+		AppointmentResponse response = new AppointmentResponse();
+		BeanUtils.copyProperties(appointment, response);
+		return response;
+	}
+
+	@Benchmark
+	public Appointment mapperDtoToEntity() {
+		return appointmentMapper.toEntity(appointmentDto);
+	}
+
+	@Benchmark
+	public Appointment mapperDtoToExistingEntity() {
+		appointmentMapper.updateEntity(appointmentDto, appointment);
+		return appointment;
+	}
+
+	@Benchmark
+	public AppointmentResponse mapperEntityToResponse() {
+		return appointmentMapper.toResponse(appointment);
+	}
+}
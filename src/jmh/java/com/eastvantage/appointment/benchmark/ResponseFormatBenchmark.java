@@ -0,0 +1,109 @@
+package com.eastvantage.appointment.benchmark;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.GET_SUCCESS_MESSAGE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.eastvantage.appointment.config.AppointmentFormatConfig;
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.eastvantage.appointment.serializer.AppointmentResponseSerializer;
+import com.eastvantage.appointment.serializer.SuccessResponseSerializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This benchmark compares the response formats of the date range filter: JSON,
+ * Smile and CBOR, each as it is and compressed with gzip as the server does.
+ * The write benchmark encodes a list response of the given size the way the
+ * server does, the read benchmark decodes it to a tree the way a client
+ * without the response classes does. The size of every format is printed
+ * when the trial starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+	@Param({ "json", "json-gzip", "smile", "smile-gzip", "cbor", "cbor-gzip" })
+	private String format;
+
+	@Param({ "100", "1000", "10000" })
+	private int size;
+
+	private ObjectMapper mapper;
+
+	private boolean gzip;
+
+	private SuccessResponse response;
+
+	private byte[] encoded;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+	@Setup
+	public void setUp() throws IOException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+				.serializers(new SuccessResponseSerializer(), new AppointmentResponseSerializer());
+		if (format.startsWith("smile")) {
+			builder.factory(AppointmentFormatConfig.smileFactory());
+		} else if (format.startsWith("cbor")) {
+			builder.factory(AppointmentFormatConfig.cborFactory());
+		}
+		mapper = builder.build();
+		gzip = format.endsWith("-gzip");
+
+		List<AppointmentResponse> appointments = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+		for (int i = 1; i <= size; i++) {
+			appointments.add(new AppointmentResponse(i, start.plusMinutes(90L * i), "appointment " + i, "01:30:45",
+					false, 0, null, null));
+		}
+		response = new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointments);
+		encoded = write();
+		System.out.println(format + " " + size + " appointments: " + encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException {
+		buffer.reset();
+		try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer) {
+			mapper.writeValue(out, response);
+		}
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public JsonNode read() throws IOException {
+		try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(encoded))
+				: new ByteArrayInputStream(encoded)) {
+			return mapper.readTree(in);
+		}
+	}
+}
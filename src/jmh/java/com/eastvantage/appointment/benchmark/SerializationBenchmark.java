@@ -0,0 +1,85 @@
+package com.eastvantage.appointment.benchmark;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.GET_SUCCESS_MESSAGE;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.eastvantage.appointment.serializer.AppointmentResponseSerializer;
+import com.eastvantage.appointment.serializer.SuccessResponseSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This benchmark compares the reflective bean serializer of Jackson against
+ * the serializers of the success response and the appointment response, by
+ * writing a list response of the given size to a stream which discards it.
+ * Run it with -prof gc to compare the allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	@Param({ "1", "100", "1000" })
+	private int size;
+
+	private ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+			.serializers(new SuccessResponseSerializer(), new AppointmentResponseSerializer()).build();
+
+	private SuccessResponse response;
+
+	@Setup
+	public void setUp() {
+		List<AppointmentResponse> appointments = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+		for (int i = 1; i <= size; i++) {
+			appointments.add(new AppointmentResponse(i, start.plusMinutes(90L * i), "appointment " + i, "01:30:45",
+					false, 0, null, null));
+		}
+		response = new SuccessResponse(false, GET_SUCCESS_MESSAGE, size == 1 ? appointments.get(0) : appointments);
+	}
+
+	@Benchmark
+	public void beanSerializer() throws IOException {
+		beanMapper.writeValue(DISCARD, response);
+	}
+
+	@Benchmark
+	public void responseSerializers() throws IOException {
+		mapper.writeValue(DISCARD, response);
+	}
+}
@@ -0,0 +1,282 @@
+package com.eastvantage.appointment.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.eastvantage.appointment.AppointmentApplication;
+import com.eastvantage.appointment.index.AppointmentIntervalIndex;
+import com.eastvantage.appointment.report.AppointmentDailySummaryRefresher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * This is the load test of the request execution modes. For each mode it starts
+ * the application on a random port against a private in-memory database, seeds
+ * the appointment table and drives a closed loop of concurrent clients against
+ * the REST API, then reports the throughput and the latency percentiles.
+ * 
+ * The request mix is 70% find by id, 20% filter page of one day and 10% create
+ * of a new appointment. The arguments are given as key=value pairs, see
+ * {@link #DEFAULTS}.
+ */
+public final class ExecutionModeLoadTest {
+
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+	static {
+		DEFAULTS.put("modes", "sync,async,virtual");
+		DEFAULTS.put("concurrency", "400");
+		DEFAULTS.put("warmupSeconds", "10");
+		DEFAULTS.put("durationSeconds", "30");
+		DEFAULTS.put("rows", "100000");
+		DEFAULTS.put("tomcatThreads", "200");
+		DEFAULTS.put("result", "target/loadtest-result.json");
+	}
+
+	private static final LocalDateTime SEED_START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	private static final LocalDateTime CREATE_START = LocalDateTime.of(2035, 1, 1, 0, 0);
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm:ss");
+
+	private static final AtomicLong CREATED = new AtomicLong();
+
+	private ExecutionModeLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (index < 0 || !DEFAULTS.containsKey(arg.substring(0, index))) {
+				throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+			}
+			options.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+		System.out.println("Load test " + options);
+		System.setProperty("spring.devtools.restart.enabled", "false");
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (String mode : options.get("modes").split(",")) {
+			if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+				System.out.println("Skipping the virtual mode, it needs Java 21 or later");
+				continue;
+			}
+			results.add(run(mode, options));
+		}
+
+		System.out.printf("%n%-8s %10s %9s %9s %9s %9s %9s %8s %8s%n", "mode", "req/s", "p50 ms", "p90 ms", "p99 ms",
+				"p99.9 ms", "max ms", "503", "errors");
+		for (Map<String, Object> result : results) {
+			System.out.printf("%-8s %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %8d%n", result.get("mode"),
+					result.get("throughput"), result.get("p50"), result.get("p90"), result.get("p99"), result.get("p999"),
+					result.get("max"), result.get("rejected"), result.get("errors"));
+		}
+		File file = new File(options.get("result"));
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, results);
+		System.out.println("Results written to " + file);
+	}
+
+	/**
+	 * This method is used to run the load against one execution mode
+	 * 
+	 * @return This will return the throughput, latency percentiles and status
+	 *         counts of the mode
+	 */
+	private static Map<String, Object> run(String mode, Map<String, String> options) throws InterruptedException {
+		int rows = Integer.parseInt(options.get("rows"));
+		int concurrency = Integer.parseInt(options.get("concurrency"));
+		long warmupNanos = Duration.ofSeconds(Long.parseLong(options.get("warmupSeconds"))).toNanos();
+		long measureNanos = Duration.ofSeconds(Long.parseLong(options.get("durationSeconds"))).toNanos();
+
+		System.out.println("Starting the " + mode + " mode");
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppointmentApplication.class)
+				.run("--server.port=0", "--appointment.execution.mode=" + mode,
+						"--server.tomcat.threads.max=" + options.get("tomcatThreads"),
+						"--server.tomcat.accept-count=" + concurrency,
+						"--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+						"--appointment.rate-limit.enabled=false", "--spring.jpa.show-sql=false",
+						"--spring.h2.console.enabled=false", "--logging.level.root=warn",
+						"--logging.level.org.springframework=warn", "--logging.file.name=target/loadtest.log")) {
+			seed(context, rows);
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+					+ "/api/v1/appointment";
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(10)).build();
+
+			long start = System.nanoTime();
+			long measureFrom = start + warmupNanos;
+			long measureTo = measureFrom + measureNanos;
+			Client[] clients = new Client[concurrency];
+			Thread[] threads = new Thread[concurrency];
+			for (int i = 0; i < concurrency; i++) {
+				clients[i] = new Client(client, baseUrl, rows, measureFrom, measureTo);
+				threads[i] = new Thread(clients[i], "load-client-" + i);
+				threads[i].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			return summarize(mode, clients, measureNanos);
+		}
+	}
+
+	/**
+	 * This method is used to seed the appointment table with one appointment of
+	 * half an hour every few hours and load them into the interval index
+	 */
+	private static void seed(ConfigurableApplicationContext context, int rows) {
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Object[]> batch = new ArrayList<>();
+		for (int i = 1; i <= rows; i++) {
+			batch.add(new Object[] { i, Timestamp.valueOf(SEED_START.plusHours(i)), "appointment " + i,
+					30 * 60 * 1000L, false });
+			if (batch.size() == 10000 || i == rows) {
+				jdbcTemplate.batchUpdate("insert into appointment (appointment_id, appointment_date_time,"
+						+ " appointment_name, appointment_duration, is_delete, version) values (?, ?, ?, ?, ?, 0)", batch);
+				batch.clear();
+			}
+		}
+		jdbcTemplate.execute("alter sequence appointment_sequence restart with " + (rows + 50));
+		context.getBean(AppointmentIntervalIndex.class).load();
+		context.getBean(AppointmentDailySummaryRefresher.class).rebuild();
+	}
+
+	private static Map<String, Object> summarize(String mode, Client[] clients, long measureNanos) {
+		int count = 0;
+		long rejected = 0;
+		long errors = 0;
+		for (Client client : clients) {
+			count += client.count;
+			rejected += client.rejected;
+			errors += client.errors;
+		}
+		long[] latencies = new long[count];
+		int offset = 0;
+		for (Client client : clients) {
+			System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+			offset += client.count;
+		}
+		Arrays.sort(latencies);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("mode", mode);
+		result.put("requests", count);
+		result.put("throughput", count / (measureNanos / 1e9));
+		result.put("p50", percentile(latencies, 0.50));
+		result.put("p90", percentile(latencies, 0.90));
+		result.put("p99", percentile(latencies, 0.99));
+		result.put("p999", percentile(latencies, 0.999));
+		result.put("max", count == 0 ? 0.0 : latencies[count - 1] / 1e6);
+		result.put("rejected", rejected);
+		result.put("errors", errors);
+		return result;
+	}
+
+	private static double percentile(long[] latencies, double percentile) {
+		if (latencies.length == 0) {
+			return 0;
+		}
+		return latencies[(int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1)] / 1e6;
+	}
+
+	/**
+	 * This is one client of the closed loop. It sends the next request as soon as
+	 * the previous one is answered and records the latency of the requests which
+	 * complete within the measurement window.
+	 */
+	private static final class Client implements Runnable {
+
+		private final HttpClient client;
+		private final String baseUrl;
+		private final int rows;
+		private final long measureFrom;
+		private final long measureTo;
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private long rejected;
+		private long errors;
+
+		Client(HttpClient client, String baseUrl, int rows, long measureFrom, long measureTo) {
+			this.client = client;
+			this.baseUrl = baseUrl;
+			this.rows = rows;
+			this.measureFrom = measureFrom;
+			this.measureTo = measureTo;
+		}
+
+		@Override
+		public void run() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			while (System.nanoTime() < measureTo) {
+				HttpRequest request = nextRequest(random);
+				long start = System.nanoTime();
+				int status;
+				try {
+					status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+				} catch (IOException e) {
+					status = -1;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				long end = System.nanoTime();
+				if (start < measureFrom || end > measureTo) {
+					continue;
+				}
+				if (status == 503) {
+					rejected++;
+				} else if (status < 200 || status >= 300) {
+					errors++;
+				}
+				if (count == latencies.length) {
+					latencies = Arrays.copyOf(latencies, count * 2);
+				}
+				latencies[count++] = end - start;
+			}
+		}
+
+		private HttpRequest nextRequest(ThreadLocalRandom random) {
+			int roll = random.nextInt(100);
+			if (roll < 70) {
+				return HttpRequest.newBuilder(URI.create(baseUrl + "?appointmentId=" + (1 + random.nextInt(rows))))
+						.timeout(Duration.ofSeconds(30)).GET().build();
+			}
+			if (roll < 90) {
+				LocalDateTime from = SEED_START.plusDays(random.nextInt(Math.max(1, rows / 24)));
+				String body = "{\"fromDate\":\"" + FORMATTER.format(from) + "\",\"toDate\":\""
+						+ FORMATTER.format(from.plusDays(1)) + "\"}";
+				return json(HttpRequest.newBuilder(URI.create(baseUrl + "/filter/page?limit=50")), body);
+			}
+			LocalDateTime dateTime = CREATE_START.plusHours(CREATED.incrementAndGet());
+			String body = "{\"appointmentDateTime\":\"" + FORMATTER.format(dateTime)
+					+ "\",\"appointmentName\":\"load test\",\"appointmentDuration\":\"00:30:00\"}";
+			return json(HttpRequest.newBuilder(URI.create(baseUrl)), body);
+		}
+
+		private static HttpRequest json(HttpRequest.Builder builder, String body) {
+			return builder.timeout(Duration.ofSeconds(30)).header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+		}
+	}
+}
@@ -0,0 +1,891 @@
+package com.eastvantage.appointment.loadtest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * This is the load and soak test of the REST API. It starts the application in
+ * a JVM of its own on a free port against a private in-memory H2 database,
+ * seeds it through the bulk API and replays request shapes at a fixed rate
+ * with a fixed number of clients. The shapes come from the Postman collection
+ * of the repository or from a JSON lines file, see {@link Shape}.
+ *
+ * The latency of a request is measured from the time it was due to be sent,
+ * so a server which falls behind the rate is charged for the time the requests
+ * waited, and recorded in HdrHistogram recorders per shape. Every report
+ * interval the throughput, the latency and the heap of the application are
+ * printed. At the end the throughput, the latency percentiles, the status
+ * codes and the error rate of every shape, and the heap and the garbage
+ * collection of the application during the measurement, are written as JSON
+ * along with the interval histograms in the HdrHistogram log format. The heap
+ * and garbage collection figures are read from the actuator of the
+ * application, so they are not mixed with the ones of the load generator.
+ *
+ * Every client draws its shapes and variables from a random seeded by the
+ * seed option, so two runs with the same options replay the same mix of
+ * requests and the result of a build can be compared to the result of another
+ * one given as the baseline. The arguments are given as key=value pairs, see
+ * {@link #DEFAULTS}. The jvmArgs and appArgs are separated by commas.
+ */
+public final class SoakLoadTest {
+
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+	static {
+		DEFAULTS.put("source", "appointment.postman_collection.json");
+		DEFAULTS.put("rate", "200");
+		DEFAULTS.put("concurrency", "64");
+		DEFAULTS.put("warmupSeconds", "10");
+		DEFAULTS.put("durationSeconds", "60");
+		DEFAULTS.put("reportSeconds", "10");
+		DEFAULTS.put("rows", "10000");
+		DEFAULTS.put("seed", "42");
+		DEFAULTS.put("jvmArgs", "-Xms512m,-Xmx512m,-XX:+UseG1GC");
+		DEFAULTS.put("appArgs", "--appointment.rate-limit.enabled=false");
+		DEFAULTS.put("timeoutSeconds", "180");
+		DEFAULTS.put("workDir", "target/soak");
+		DEFAULTS.put("result", "target/soak-result.json");
+		DEFAULTS.put("baseline", "");
+	}
+
+	private static final String MAIN_CLASS = "com.eastvantage.appointment.AppointmentApplication";
+
+	private static final LocalDateTime SEED_START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	private static final LocalDateTime CREATE_START = LocalDateTime.of(2035, 1, 1, 0, 0);
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MM-dd-yyyy HH:mm:ss");
+
+	private static final Pattern VARIABLE = Pattern.compile("\\{\\{(\\w+)\\}\\}");
+
+	private static final Pattern APPOINTMENT_ID = Pattern.compile("\"appointmentId\"\\s*:\\s*(\\d+)");
+
+	private static final int SEED_CHUNK = 5000;
+
+	private static final int MAX_CREATED_IDS = 100000;
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10)).build();
+
+	private SoakLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (index < 0 || !DEFAULTS.containsKey(arg.substring(0, index))) {
+				throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+			}
+			options.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+		System.out.println("Soak load test " + options);
+		List<Shape> shapes = new ArrayList<>();
+		for (String source : options.get("source").split(",")) {
+			shapes.addAll(source.endsWith(".jsonl") ? readShapes(new File(source)) : readCollection(new File(source)));
+		}
+		for (Shape shape : shapes) {
+			System.out.println("  " + shape);
+		}
+
+		File workDir = new File(options.get("workDir")).getAbsoluteFile();
+		FileSystemUtils.deleteRecursively(workDir);
+		workDir.mkdirs();
+		int port = freePort();
+		String baseUrl = "http://localhost:" + port;
+		Process process = start(port, workDir, options);
+		try {
+			awaitStart(process, baseUrl, workDir, Long.parseLong(options.get("timeoutSeconds")));
+			long[] seededIds = seed(baseUrl, Integer.parseInt(options.get("rows")));
+			Map<String, Object> result = run(baseUrl, shapes, seededIds, options);
+			report(result, options);
+		} finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	/**
+	 * This method is used to start the application in a JVM of its own, on the
+	 * class path of the load test, with its log in the work directory
+	 *
+	 * @return This will return the process of the application
+	 */
+	private static Process start(int port, File workDir, Map<String, String> options) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.addAll(split(options.get("jvmArgs")));
+		command.addAll(Arrays.asList("-Dspring.devtools.restart.enabled=false", "-cp",
+				System.getProperty("java.class.path"), MAIN_CLASS, "--server.port=" + port,
+				"--spring.datasource.url=jdbc:h2:mem:soak;DB_CLOSE_DELAY=-1", "--spring.jpa.show-sql=false",
+				"--spring.h2.console.enabled=false", "--logging.level.root=warn",
+				"--logging.level.org.springframework=warn", "--logging.file.name=application.log"));
+		command.addAll(split(options.get("appArgs")));
+		System.out.println("Starting the application on port " + port);
+		return new ProcessBuilder(command).directory(workDir).redirectErrorStream(true)
+				.redirectOutput(new File(workDir, "console.log")).start();
+	}
+
+	private static void awaitStart(Process process, String baseUrl, File workDir, long timeoutSeconds)
+			throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+				.timeout(Duration.ofSeconds(10)).GET().build();
+		while (true) {
+			try {
+				if (CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (ConnectException e) {
+				// not listening yet
+			}
+			if (!process.isAlive() || System.nanoTime() > deadline) {
+				throw new IllegalStateException("The application did not start, see " + workDir);
+			}
+			Thread.sleep(100);
+		}
+	}
+
+	/**
+	 * This method is used to seed the application through the bulk create API
+	 * with one appointment of half an hour every hour from the seed start
+	 *
+	 * @return This will return the ids of the seeded appointments
+	 */
+	private static long[] seed(String baseUrl, int rows) throws Exception {
+		System.out.println("Seeding " + rows + " appointments");
+		long[] ids = new long[rows];
+		int seeded = 0;
+		for (int from = 0; from < rows; from += SEED_CHUNK) {
+			ArrayNode chunk = MAPPER.createArrayNode();
+			for (int i = from; i < Math.min(rows, from + SEED_CHUNK); i++) {
+				chunk.addObject().put("appointmentDateTime", FORMATTER.format(SEED_START.plusHours(i)))
+						.put("appointmentName", "soak " + i).put("appointmentDuration", "00:30:00");
+			}
+			HttpResponse<String> response = CLIENT.send(HttpRequest
+					.newBuilder(URI.create(baseUrl + "/api/v1/appointment/bulk")).timeout(Duration.ofMinutes(5))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(chunk))).build(),
+					HttpResponse.BodyHandlers.ofString());
+			for (JsonNode item : MAPPER.readTree(response.body()).path("data").path("items")) {
+				if (!item.path("error").asBoolean()) {
+					ids[seeded++] = item.path("appointmentId").asLong();
+				}
+			}
+		}
+		if (seeded == 0) {
+			throw new IllegalStateException("No appointment could be seeded");
+		}
+		return Arrays.copyOf(ids, seeded);
+	}
+
+	/**
+	 * This method is used to drive the load, first through the warm up and then
+	 * through the measurement, which is reported every report interval
+	 *
+	 * @return This will return the result of the measurement
+	 */
+	private static Map<String, Object> run(String baseUrl, List<Shape> shapes, long[] seededIds,
+			Map<String, String> options) throws Exception {
+		long rate = Long.parseLong(options.get("rate"));
+		int concurrency = Integer.parseInt(options.get("concurrency"));
+		long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmupSeconds")));
+		long measureNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("durationSeconds")));
+		long reportNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("reportSeconds")));
+		long seed = Long.parseLong(options.get("seed"));
+
+		Load load = new Load(baseUrl, shapes, seededIds, rate);
+		Thread[] threads = new Thread[concurrency];
+		for (int i = 0; i < concurrency; i++) {
+			Worker worker = new Worker(load, new Random(seed + i));
+			threads[i] = new Thread(worker, "soak-client-" + i);
+			threads[i].start();
+		}
+		System.out.println("Warming up for " + options.get("warmupSeconds") + " s with " + concurrency
+				+ " clients at " + (rate > 0 ? rate + " req/s" : "full speed"));
+		Thread.sleep(TimeUnit.NANOSECONDS.toMillis(warmupNanos));
+
+		Map<String, Double> gcBefore = gcStats(baseUrl);
+		load.measuring = true;
+		load.total.reset();
+		shapes.forEach(shape -> shape.recorder.reset());
+		Histogram total = new Histogram(3);
+		List<Histogram> intervals = new ArrayList<>();
+		List<Map<String, Object>> samples = new ArrayList<>();
+		double heapMax = 0;
+		double heapSum = 0;
+		double pauseMax = 0;
+		long measureStart = System.nanoTime();
+		long measureEnd = measureStart + measureNanos;
+		load.end = measureEnd;
+		System.out.printf("%n%8s %10s %9s %9s %9s %8s %10s%n", "second", "req/s", "p50 ms", "p99 ms", "max ms",
+				"errors", "heap MB");
+		for (long next = measureStart + reportNanos; next - reportNanos < measureEnd; next += reportNanos) {
+			LockSupport.parkNanos(Math.min(next, measureEnd) - System.nanoTime());
+			Histogram interval = load.total.getIntervalHistogram();
+			for (Shape shape : shapes) {
+				shape.histogram.add(shape.recorder.getIntervalHistogram());
+			}
+			total.add(interval);
+			intervals.add(interval);
+			double heapUsed = metric(baseUrl, "jvm.memory.used?tag=area:heap", "VALUE") / (1024 * 1024);
+			heapMax = Math.max(heapMax, heapUsed);
+			heapSum += heapUsed;
+			pauseMax = Math.max(pauseMax, metric(baseUrl, "jvm.gc.pause", "MAX") * 1000);
+			double seconds = (interval.getEndTimeStamp() - interval.getStartTimeStamp()) / 1000.0;
+			long errors = load.errors.sumThenReset();
+			Map<String, Object> sample = new LinkedHashMap<>();
+			sample.put("second", Math.round((System.nanoTime() - measureStart) / 1e9));
+			sample.put("throughput", interval.getTotalCount() / Math.max(seconds, 1e-3));
+			sample.put("p50", millis(interval.getValueAtPercentile(50)));
+			sample.put("p99", millis(interval.getValueAtPercentile(99)));
+			sample.put("max", millis(interval.getMaxValue()));
+			sample.put("errors", errors);
+			sample.put("heapUsedMB", heapUsed);
+			samples.add(sample);
+			System.out.printf("%8d %10.0f %9.2f %9.2f %9.2f %8d %10.1f%n", sample.get("second"),
+					sample.get("throughput"), sample.get("p50"), sample.get("p99"), sample.get("max"), errors,
+					heapUsed);
+		}
+		double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+		load.measuring = false;
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Map<String, Double> gcAfter = gcStats(baseUrl);
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("revision", revision());
+		result.put("startedAt", Instant.now().minusNanos(System.nanoTime() - measureStart).toString());
+		result.put("java", Runtime.version().toString());
+		result.put("processors", Runtime.getRuntime().availableProcessors());
+		result.put("options", options);
+		Map<String, Object> summary = summarize(total, measuredSeconds, load.statuses, load.failures.sum());
+		result.put("total", summary);
+		Map<String, Object> shapeSummaries = new LinkedHashMap<>();
+		for (Shape shape : shapes) {
+			shapeSummaries.put(shape.name,
+					summarize(shape.histogram, measuredSeconds, shape.statuses, shape.failures.sum()));
+		}
+		result.put("shapes", shapeSummaries);
+		Map<String, Object> jvm = new LinkedHashMap<>();
+		jvm.put("heapUsedAvgMB", samples.isEmpty() ? 0 : heapSum / samples.size());
+		jvm.put("heapUsedMaxMB", heapMax);
+		jvm.put("heapMaxMB", metric(baseUrl, "jvm.memory.max?tag=area:heap", "VALUE") / (1024 * 1024));
+		jvm.put("gcCount", gcAfter.get("count") - gcBefore.get("count"));
+		jvm.put("gcPauseTotalMs", (gcAfter.get("total") - gcBefore.get("total")) * 1000);
+		jvm.put("gcPauseMaxMs", pauseMax);
+		jvm.put("allocatedMB", (gcAfter.get("allocated") - gcBefore.get("allocated")) / (1024 * 1024));
+		jvm.put("threads", metric(baseUrl, "jvm.threads.live", "VALUE"));
+		result.put("jvm", jvm);
+		result.put("intervals", samples);
+		result.put("histograms", intervals);
+		return result;
+	}
+
+	/**
+	 * This method is used to print the result, write it as JSON and as an
+	 * HdrHistogram log, and compare it to the baseline when one is given
+	 */
+	@SuppressWarnings("unchecked")
+	private static void report(Map<String, Object> result, Map<String, String> options) throws IOException {
+		List<Histogram> intervals = (List<Histogram>) result.remove("histograms");
+		Map<String, Object> total = (Map<String, Object>) result.get("total");
+		Map<String, Object> shapes = (Map<String, Object>) result.get("shapes");
+
+		System.out.printf("%n%-40s %9s %10s %9s %9s %9s %9s %9s %8s%n", "shape", "requests", "req/s", "p50 ms",
+				"p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+		for (Map.Entry<String, Object> shape : shapes.entrySet()) {
+			printSummary(shape.getKey(), (Map<String, Object>) shape.getValue());
+		}
+		printSummary("total", total);
+		Map<String, Object> jvm = castMap(result.get("jvm"));
+		System.out.printf("%nheap used avg %.1f MB, max %.1f MB of %.1f MB, %.0f MB allocated, %.0f gc pauses"
+				+ " of %.1f ms in total and %.1f ms at most%n", jvm.get("heapUsedAvgMB"), jvm.get("heapUsedMaxMB"),
+				jvm.get("heapMaxMB"), jvm.get("allocatedMB"), jvm.get("gcCount"), jvm.get("gcPauseTotalMs"),
+				jvm.get("gcPauseMaxMs"));
+
+		File file = new File(options.get("result"));
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		MAPPER.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+		File log = new File(file.getPath().replaceFirst("\\.json$", "") + ".hlog");
+		try (PrintStream out = new PrintStream(new FileOutputStream(log), false, StandardCharsets.UTF_8)) {
+			HistogramLogWriter writer = new HistogramLogWriter(out);
+			long baseTime = intervals.isEmpty() ? 0 : intervals.get(0).getStartTimeStamp();
+			writer.outputLogFormatVersion();
+			writer.outputStartTime(baseTime);
+			writer.setBaseTime(baseTime);
+			writer.outputLegend();
+			// the values are recorded in microseconds and written in milliseconds
+			for (Histogram interval : intervals) {
+				writer.outputIntervalHistogram((interval.getStartTimeStamp() - baseTime) / 1000.0,
+						(interval.getEndTimeStamp() - baseTime) / 1000.0, interval, 1000.0);
+			}
+		}
+		System.out.println("Results written to " + file + " and " + log);
+
+		if (!options.get("baseline").isEmpty()) {
+			compare(result, MAPPER.readTree(new File(options.get("baseline"))));
+		}
+	}
+
+	private static void printSummary(String name, Map<String, Object> summary) {
+		Map<String, Object> latency = castMap(summary.get("latency"));
+		System.out.printf("%-40s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n", name, summary.get("requests"),
+				summary.get("throughput"), latency.get("p50"), latency.get("p90"), latency.get("p99"),
+				latency.get("p999"), latency.get("max"), (double) summary.get("errorRate") * 100);
+	}
+
+	/**
+	 * This method is used to print the change of the throughput, the p99 latency
+	 * and the error rate of the total and of every shape against the baseline
+	 */
+	private static void compare(Map<String, Object> result, JsonNode baseline) {
+		System.out.printf("%nCompared to %s%n%-40s %18s %18s %18s%n", baseline.path("revision").asText(), "shape",
+				"req/s", "p99 ms", "errors %");
+		JsonNode current = MAPPER.valueToTree(result);
+		Map<String, JsonNode> rows = new LinkedHashMap<>();
+		current.path("shapes").fields().forEachRemaining(shape -> rows.put(shape.getKey(), shape.getValue()));
+		rows.put("total", current.path("total"));
+		for (Map.Entry<String, JsonNode> row : rows.entrySet()) {
+			JsonNode before = "total".equals(row.getKey()) ? baseline.path("total")
+					: baseline.path("shapes").path(row.getKey());
+			if (before.isMissingNode()) {
+				continue;
+			}
+			System.out.printf("%-40s %18s %18s %18s%n", row.getKey(),
+					change(before.path("throughput"), row.getValue().path("throughput"), 1),
+					change(before.path("latency").path("p99"), row.getValue().path("latency").path("p99"), 1),
+					change(before.path("errorRate"), row.getValue().path("errorRate"), 100));
+		}
+	}
+
+	private static String change(JsonNode before, JsonNode after, double scale) {
+		double from = before.asDouble() * scale;
+		double to = after.asDouble() * scale;
+		String percent = from == 0 ? "" : String.format(" (%+.1f%%)", (to - from) / from * 100);
+		return String.format("%.2f%s", to, percent);
+	}
+
+	private static Map<String, Object> summarize(Histogram histogram, double seconds,
+			Map<Integer, LongAdder> statuses, long failures) {
+		long requests = histogram.getTotalCount();
+		long errors = failures;
+		Map<String, Long> statusCounts = new TreeMap<>();
+		for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+			statusCounts.put(String.valueOf(status.getKey()), status.getValue().sum());
+			if (status.getKey() < 200 || status.getKey() >= 300) {
+				errors += status.getValue().sum();
+			}
+		}
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("mean", histogram.getTotalCount() == 0 ? 0.0 : histogram.getMean() / 1000);
+		latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+		latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+		latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+		latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+		latency.put("max", millis(histogram.getMaxValue()));
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("requests", requests);
+		summary.put("throughput", requests / seconds);
+		summary.put("errorRate", requests == 0 ? 0.0 : (double) errors / requests);
+		summary.put("failures", failures);
+		summary.put("statuses", statusCounts);
+		summary.put("latency", latency);
+		return summary;
+	}
+
+	/**
+	 * This method is used to read the garbage collection counters of the
+	 * application
+	 *
+	 * @return This will return the number of pauses, their total seconds and the
+	 *         allocated bytes
+	 */
+	private static Map<String, Double> gcStats(String baseUrl) {
+		Map<String, Double> stats = new LinkedHashMap<>();
+		stats.put("count", metric(baseUrl, "jvm.gc.pause", "COUNT"));
+		stats.put("total", metric(baseUrl, "jvm.gc.pause", "TOTAL_TIME"));
+		stats.put("allocated", metric(baseUrl, "jvm.gc.memory.allocated", "COUNT"));
+		return stats;
+	}
+
+	/**
+	 * This method is used to read a statistic of a metric from the actuator of
+	 * the application
+	 *
+	 * @return This will return the statistic, or 0 when the metric has not been
+	 *         recorded yet
+	 */
+	private static double metric(String baseUrl, String metric, String statistic) {
+		try {
+			HttpResponse<String> response = CLIENT.send(
+					HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric))
+							.timeout(Duration.ofSeconds(10)).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				return 0;
+			}
+			for (JsonNode measurement : MAPPER.readTree(response.body()).path("measurements")) {
+				if (statistic.equals(measurement.path("statistic").asText())) {
+					return measurement.path("value").asDouble();
+				}
+			}
+			return 0;
+		} catch (IOException e) {
+			return 0;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 0;
+		}
+	}
+
+	/**
+	 * This method is used to read the request shapes of a Postman collection.
+	 * The fixed ids and date times of its requests are replaced by variables, so
+	 * each replay reads a seeded appointment, creates one in a free slot, and
+	 * updates or deletes one created by the load test.
+	 *
+	 * @return This will return one shape of weight 1 for every request
+	 */
+	private static List<Shape> readCollection(File file) throws IOException {
+		List<Shape> shapes = new ArrayList<>();
+		readItems(MAPPER.readTree(file).path("item"), shapes);
+		return shapes;
+	}
+
+	private static void readItems(JsonNode items, List<Shape> shapes) throws IOException {
+		for (JsonNode item : items) {
+			if (item.has("item")) {
+				readItems(item.path("item"), shapes);
+				continue;
+			}
+			JsonNode request = item.path("request");
+			String method = request.path("method").asText("GET");
+			StringBuilder path = new StringBuilder();
+			request.path("url").path("path").forEach(segment -> path.append('/').append(segment.asText()));
+			String separator = "?";
+			for (JsonNode query : request.path("url").path("query")) {
+				String value = query.path("value").asText();
+				if ("appointmentId".equals(query.path("key").asText())) {
+					value = "GET".equals(method) ? "{{id}}" : "DELETE".equals(method) ? "{{takeCreatedId}}"
+							: "{{createdId}}";
+				}
+				path.append(separator).append(query.path("key").asText()).append('=').append(value);
+				separator = "&";
+			}
+			Map<String, String> headers = new LinkedHashMap<>();
+			for (JsonNode header : request.path("header")) {
+				if (!header.path("disabled").asBoolean()) {
+					headers.put(header.path("key").asText(), header.path("value").asText());
+				}
+			}
+			String body = null;
+			String raw = request.path("body").path("raw").asText(null);
+			if (raw != null && !raw.isBlank()) {
+				JsonNode json = MAPPER.readTree(raw);
+				if (json instanceof ObjectNode) {
+					ObjectNode object = (ObjectNode) json;
+					replace(object, "appointmentDateTime", "{{newDateTime}}");
+					replace(object, "fromDate", "{{date}}");
+					replace(object, "toDate", "{{nextDate}}");
+				}
+				body = MAPPER.writeValueAsString(json);
+				headers.putIfAbsent("Content-Type", "application/json");
+			}
+			boolean captureId = "POST".equals(method) && "/api/v1/appointment".equals(path.toString());
+			shapes.add(new Shape(item.path("name").asText(), 1, method, path.toString(), headers, body, captureId));
+		}
+	}
+
+	private static void replace(ObjectNode object, String field, String variable) {
+		if (object.has(field)) {
+			object.put(field, variable);
+		}
+	}
+
+	/**
+	 * This method is used to read the request shapes of a JSON lines file, one
+	 * shape per line, see {@link Shape}
+	 *
+	 * @return This will return the shapes of the file
+	 */
+	private static List<Shape> readShapes(File file) throws IOException {
+		List<Shape> shapes = new ArrayList<>();
+		for (String line : Files.readAllLines(file.toPath())) {
+			if (line.isBlank() || line.startsWith("#")) {
+				continue;
+			}
+			JsonNode json = MAPPER.readTree(line);
+			Map<String, String> headers = new LinkedHashMap<>();
+			json.path("headers").fields().forEachRemaining(header -> headers.put(header.getKey(),
+					header.getValue().asText()));
+			String body = null;
+			if (json.hasNonNull("body")) {
+				body = json.path("body").isTextual() ? json.path("body").asText()
+						: MAPPER.writeValueAsString(json.path("body"));
+				headers.putIfAbsent("Content-Type", "application/json");
+			}
+			shapes.add(new Shape(json.path("name").asText(), json.path("weight").asInt(1),
+					json.path("method").asText("GET"), json.path("path").asText(), headers, body,
+					json.path("captureId").asBoolean()));
+		}
+		return shapes;
+	}
+
+	private static List<String> split(String arguments) {
+		List<String> split = new ArrayList<>();
+		for (String argument : arguments.split(",")) {
+			if (!argument.isBlank()) {
+				split.add(argument.trim());
+			}
+		}
+		return split;
+	}
+
+	/**
+	 * This method is used to read the git revision of the tree under test, with
+	 * a -dirty suffix when it has uncommitted changes
+	 *
+	 * @return This will return the revision, or unknown outside of a git tree
+	 */
+	private static String revision() {
+		try {
+			Process head = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+			String revision = new String(head.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+			Process status = new ProcessBuilder("git", "status", "--porcelain", "--untracked-files=no").start();
+			boolean dirty = status.getInputStream().readAllBytes().length > 0;
+			return head.waitFor() == 0 && !revision.isEmpty() ? revision + (dirty ? "-dirty" : "") : "unknown";
+		} catch (IOException e) {
+			return "unknown";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "unknown";
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> castMap(Object map) {
+		return (Map<String, Object>) map;
+	}
+
+	/**
+	 * This is a request shape. In a JSON lines file a shape is written as
+	 * {"name": "find by id", "weight": 70, "method": "GET", "path":
+	 * "/api/v1/appointment?appointmentId={{id}}", "headers": {}, "body": {...},
+	 * "captureId": false}. The path, the header values and the body may use the
+	 * variables {{id}} (a seeded appointment), {{createdId}} (an appointment
+	 * created by the load test, which no other client uses until the response),
+	 * {{takeCreatedId}} (the same, which is not handed out again, for deletes),
+	 * {{newDateTime}} (a free slot), {{date}}
+	 * and {{nextDate}} (a seeded day and the day after it) and {{uuid}}. The ids
+	 * of the appointments created by a shape with captureId are read from its
+	 * responses.
+	 */
+	private static final class Shape {
+
+		private final String name;
+		private final int weight;
+		private final String method;
+		private final String path;
+		private final Map<String, String> headers;
+		private final String body;
+		private final boolean captureId;
+		private final boolean usesCreatedId;
+
+		private final Recorder recorder = new Recorder(3);
+		private final Histogram histogram = new Histogram(3);
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final LongAdder failures = new LongAdder();
+
+		Shape(String name, int weight, String method, String path, Map<String, String> headers, String body,
+				boolean captureId) {
+			this.name = name;
+			this.weight = weight;
+			this.method = method;
+			this.path = path;
+			this.headers = headers;
+			this.body = body;
+			this.captureId = captureId;
+			String template = path + headers + body;
+			this.usesCreatedId = template.contains("{{createdId}}") || template.contains("{{takeCreatedId}}");
+		}
+
+		@Override
+		public String toString() {
+			return name + " (weight " + weight + "): " + method + " " + path + (body == null ? "" : " " + body);
+		}
+	}
+
+	/**
+	 * This is the state shared by the workers: the schedule of the requests, the
+	 * ids the variables are drawn from and the total recorder
+	 */
+	private static final class Load {
+
+		private final String baseUrl;
+		private final Shape[] shapes;
+		private final int[] cumulativeWeights;
+		private final long[] seededIds;
+		private final long intervalNanos;
+		private final long start = System.nanoTime();
+
+		private final AtomicLong tickets = new AtomicLong();
+		private final AtomicLong slots = new AtomicLong();
+		private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+		private final AtomicInteger createdCount = new AtomicInteger();
+
+		private final Recorder total = new Recorder(3);
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+
+		private volatile boolean measuring;
+
+		// the workers run until the end of the measurement, which is set once the
+		// warm up is over
+		private volatile long end = Long.MAX_VALUE;
+
+		Load(String baseUrl, List<Shape> shapes, long[] seededIds, long rate) {
+			this.baseUrl = baseUrl;
+			this.shapes = shapes.toArray(new Shape[0]);
+			this.cumulativeWeights = new int[shapes.size()];
+			int sum = 0;
+			for (int i = 0; i < shapes.size(); i++) {
+				sum += shapes.get(i).weight;
+				cumulativeWeights[i] = sum;
+			}
+			this.seededIds = seededIds;
+			this.intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+		}
+
+		private Shape nextShape(Random random) {
+			for (int attempt = 0; attempt < 100; attempt++) {
+				int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+				int index = Arrays.binarySearch(cumulativeWeights, roll + 1);
+				Shape shape = shapes[index < 0 ? -index - 1 : index];
+				if (!shape.usesCreatedId || createdCount.get() > 0) {
+					return shape;
+				}
+			}
+			throw new IllegalStateException("The shapes use created appointments but none are created");
+		}
+
+		private void created(long appointmentId) {
+			createdIds.addLast(appointmentId);
+			if (createdCount.incrementAndGet() > MAX_CREATED_IDS && createdIds.pollFirst() != null) {
+				createdCount.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * This is one client. With a rate every request takes the next slot of the
+	 * schedule and is sent at its time, otherwise the next request is sent as
+	 * soon as the previous one is answered.
+	 */
+	private static final class Worker implements Runnable {
+
+		private final Load load;
+		private final Random random;
+
+		Worker(Load load, Random random) {
+			this.load = load;
+			this.random = random;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				long due = load.intervalNanos > 0 ? load.start + load.tickets.getAndIncrement() * load.intervalNanos
+						: System.nanoTime();
+				if (due >= load.end) {
+					return;
+				}
+				LockSupport.parkNanos(due - System.nanoTime());
+				Shape shape = load.nextShape(random);
+				Map<String, String> values = new LinkedHashMap<>();
+				HttpRequest request = request(shape, values);
+				if (request == null) {
+					continue;
+				}
+				int status;
+				try {
+					if (shape.captureId) {
+						HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+						status = response.statusCode();
+						Matcher matcher = APPOINTMENT_ID.matcher(response.body());
+						if (status == 200 && matcher.find()) {
+							load.created(Long.parseLong(matcher.group(1)));
+						}
+					} else {
+						status = CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					}
+				} catch (IOException e) {
+					status = -1;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				long latencyMicros = Math.max(1, (System.nanoTime() - due) / 1000);
+				if (values.containsKey("createdId")) {
+					load.created(Long.parseLong(values.get("createdId")));
+				}
+				if (!load.measuring) {
+					continue;
+				}
+				load.total.recordValue(latencyMicros);
+				shape.recorder.recordValue(latencyMicros);
+				if (status == -1) {
+					load.failures.increment();
+					shape.failures.increment();
+					load.errors.increment();
+					continue;
+				}
+				load.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+				shape.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+				if (status < 200 || status >= 300) {
+					load.errors.increment();
+				}
+			}
+		}
+
+		/**
+		 * This method is used to build the request of a shape with its variables
+		 * replaced
+		 *
+		 * @return This will return the request, or null when no created id is
+		 *         left for it
+		 */
+		private HttpRequest request(Shape shape, Map<String, String> values) {
+			String path = expand(shape.path, values, true);
+			if (path == null) {
+				return null;
+			}
+			HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(load.baseUrl + path))
+					.timeout(Duration.ofSeconds(30));
+			for (Map.Entry<String, String> header : shape.headers.entrySet()) {
+				builder.header(header.getKey(), expand(header.getValue(), values, false));
+			}
+			HttpRequest.BodyPublisher body = shape.body == null ? HttpRequest.BodyPublishers.noBody()
+					: HttpRequest.BodyPublishers.ofString(expand(shape.body, values, false));
+			return builder.method(shape.method, body).build();
+		}
+
+		/**
+		 * This method is used to replace the variables of a template, encoded when
+		 * the template is a path. A variable used twice in one request gets the
+		 * same value both times.
+		 *
+		 * @return This will return the expanded template, or null when no created
+		 *         id is left to take
+		 */
+		private String expand(String template, Map<String, String> values, boolean encode) {
+			Matcher matcher = VARIABLE.matcher(template);
+			StringBuilder expanded = new StringBuilder();
+			while (matcher.find()) {
+				String value = values.get(matcher.group(1));
+				if (value == null) {
+					value = value(matcher.group(1), values);
+					if (value == null) {
+						return null;
+					}
+					values.put(matcher.group(1), value);
+				}
+				if (encode) {
+					value = URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+				}
+				matcher.appendReplacement(expanded, Matcher.quoteReplacement(value));
+			}
+			matcher.appendTail(expanded);
+			return expanded.toString();
+		}
+
+		private String value(String variable, Map<String, String> values) {
+			switch (variable) {
+			case "id":
+				return String.valueOf(load.seededIds[random.nextInt(load.seededIds.length)]);
+			case "createdId":
+			case "takeCreatedId":
+				Long taken = load.createdIds.pollFirst();
+				if (taken == null) {
+					return null;
+				}
+				load.createdCount.decrementAndGet();
+				return String.valueOf(taken);
+			case "newDateTime":
+				return FORMATTER.format(CREATE_START.plusHours(load.slots.incrementAndGet()));
+			case "date":
+				return FORMATTER.format(SEED_START.plusDays(random.nextInt(Math.max(1, load.seededIds.length / 24))));
+			case "nextDate":
+				String date = values.get("date");
+				if (date == null) {
+					date = value("date", values);
+					values.put("date", date);
+				}
+				return FORMATTER.format(LocalDateTime.parse(date, FORMATTER).plusDays(1));
+			case "uuid":
+				return new UUID(random.nextLong(), random.nextLong()).toString();
+			default:
+				throw new IllegalArgumentException("Unknown variable {{" + variable + "}}");
+			}
+		}
+	}
+}
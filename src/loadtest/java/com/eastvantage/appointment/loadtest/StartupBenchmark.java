@@ -0,0 +1,253 @@
+package com.eastvantage.appointment.loadtest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * This is the start up benchmark of the packaged application. For each variant
+ * it starts a new JVM a number of times and records the time from the start of
+ * the process to the first answered request, then reports the fastest, median
+ * and slowest run.
+ *
+ * The variants are default (java -jar with application.properties), faststart
+ * (java -jar with the prod and faststart profiles), faststart-exploded (the
+ * same on the exploded class path) and faststart-cds (the exploded class path
+ * with a class data sharing archive recorded by a training run). The jar has
+ * to be built first with mvn package. The arguments are given as key=value
+ * pairs, see {@link #DEFAULTS}.
+ */
+public final class StartupBenchmark {
+
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+	static {
+		DEFAULTS.put("jar", "target/appointment-0.0.1-SNAPSHOT.jar");
+		DEFAULTS.put("variants", "default,faststart,faststart-exploded,faststart-cds");
+		DEFAULTS.put("runs", "5");
+		DEFAULTS.put("timeoutSeconds", "180");
+		DEFAULTS.put("workDir", "target/startup");
+		DEFAULTS.put("result", "target/startup-result.json");
+	}
+
+	private static final String MAIN_CLASS = "com.eastvantage.appointment.AppointmentApplication";
+
+	private static final String FASTSTART_PROFILES = "--spring.profiles.active=prod,faststart";
+
+	private static final HttpClient CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(1)).build();
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (index < 0 || !DEFAULTS.containsKey(arg.substring(0, index))) {
+				throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+			}
+			options.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+		System.out.println("Start up benchmark " + options);
+		File jar = new File(options.get("jar")).getAbsoluteFile();
+		if (!jar.isFile()) {
+			throw new IllegalStateException("Build the application first with mvn package, " + jar + " is missing");
+		}
+		File workDir = new File(options.get("workDir")).getAbsoluteFile();
+		FileSystemUtils.deleteRecursively(workDir);
+		workDir.mkdirs();
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (String variant : options.get("variants").split(",")) {
+			List<String> command = command(variant, jar, workDir, options);
+			System.out.println("Starting the " + variant + " variant " + options.get("runs") + " times");
+			long[] millis = new long[Integer.parseInt(options.get("runs"))];
+			for (int run = 0; run < millis.length; run++) {
+				millis[run] = timeToFirstRequest(command, new File(workDir, variant + "-" + run), options);
+				System.out.println("  run " + run + ": " + millis[run] + " ms");
+			}
+			results.add(summarize(variant, millis));
+		}
+
+		System.out.printf("%n%-20s %10s %10s %10s%n", "variant", "min ms", "median ms", "max ms");
+		for (Map<String, Object> result : results) {
+			System.out.printf("%-20s %10d %10d %10d%n", result.get("variant"), result.get("min"), result.get("median"),
+					result.get("max"));
+		}
+		File file = new File(options.get("result"));
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, results);
+		System.out.println("Results written to " + file);
+	}
+
+	/**
+	 * This method is used to build the command which starts the application in
+	 * the given variant. The cds variant records its archive here with one
+	 * training run.
+	 *
+	 * @return This will return the java command without the port argument
+	 */
+	private static List<String> command(String variant, File jar, File workDir, Map<String, String> options)
+			throws Exception {
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		switch (variant) {
+		case "default":
+			command.addAll(Arrays.asList("-jar", jar.getPath()));
+			break;
+		case "faststart":
+			command.addAll(Arrays.asList("-jar", jar.getPath(), FASTSTART_PROFILES));
+			break;
+		case "faststart-exploded":
+			command.addAll(Arrays.asList("-cp", explode(jar, workDir), MAIN_CLASS, FASTSTART_PROFILES));
+			break;
+		case "faststart-cds":
+			File archive = new File(workDir, "appointment.jsa");
+			String classPath = explode(jar, workDir);
+			List<String> training = new ArrayList<>(command);
+			training.addAll(Arrays.asList("-XX:ArchiveClassesAtExit=" + archive, "-cp", classPath, MAIN_CLASS,
+					FASTSTART_PROFILES));
+			System.out.println("Recording the class data sharing archive");
+			timeToFirstRequest(training, new File(workDir, "cds-training"), options);
+			command.addAll(Arrays.asList("-XX:SharedArchiveFile=" + archive, "-Xshare:auto", "-cp", classPath,
+					MAIN_CLASS, FASTSTART_PROFILES));
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown variant " + variant);
+		}
+		return command;
+	}
+
+	/**
+	 * This method is used to explode the jar once, with the classes of the
+	 * application packed in a jar of their own, since a class data sharing
+	 * archive can only hold the classes of plain jars on the class path
+	 *
+	 * @return This will return the class path of the exploded application
+	 */
+	private static String explode(File jar, File workDir) throws IOException {
+		File exploded = new File(workDir, "exploded");
+		File application = new File(exploded, "application.jar");
+		if (!application.isFile()) {
+			exploded.mkdirs();
+			try (ZipFile zip = new ZipFile(jar);
+					JarOutputStream classes = new JarOutputStream(new FileOutputStream(application))) {
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (entry.isDirectory()) {
+						continue;
+					}
+					if (entry.getName().startsWith("BOOT-INF/classes/")) {
+						classes.putNextEntry(new ZipEntry(entry.getName().substring("BOOT-INF/classes/".length())));
+						copy(zip, entry, classes);
+						classes.closeEntry();
+					} else if (entry.getName().startsWith("BOOT-INF/lib/")) {
+						File library = new File(exploded, entry.getName());
+						library.getParentFile().mkdirs();
+						try (OutputStream out = new FileOutputStream(library)) {
+							copy(zip, entry, out);
+						}
+					}
+				}
+			}
+		}
+		try (Stream<Path> libraries = Files.list(new File(exploded, "BOOT-INF/lib").toPath())) {
+			// the order of the class path has to be the same when the archive is used
+			return Stream.concat(Stream.of(application.getPath()), libraries.map(Path::toString).sorted())
+					.collect(Collectors.joining(File.pathSeparator));
+		}
+	}
+
+	private static void copy(ZipFile zip, ZipEntry entry, OutputStream out) throws IOException {
+		try (InputStream in = zip.getInputStream(entry)) {
+			in.transferTo(out);
+		}
+	}
+
+	/**
+	 * This method is used to start the application in its own directory, so the
+	 * file database and the log of a run start empty, and wait for the first
+	 * answered request. The application is stopped afterwards.
+	 *
+	 * @return This will return the milliseconds from the start of the process to
+	 *         the first response
+	 */
+	private static long timeToFirstRequest(List<String> command, File directory, Map<String, String> options)
+			throws Exception {
+		directory.mkdirs();
+		int port = freePort();
+		List<String> arguments = new ArrayList<>(command);
+		arguments.addAll(Arrays.asList("--server.port=" + port, "--logging.file.name=application.log"));
+		HttpRequest request = HttpRequest
+				.newBuilder(URI.create("http://localhost:" + port + "/api/v1/appointment?appointmentId=1"))
+				.timeout(Duration.ofSeconds(30)).GET().build();
+		long deadline = System.nanoTime() + Duration.ofSeconds(Long.parseLong(options.get("timeoutSeconds"))).toNanos();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(arguments).directory(directory)
+				.redirectErrorStream(true).redirectOutput(new File(directory, "console.log")).start();
+		try {
+			while (true) {
+				try {
+					CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+					return Duration.ofNanos(System.nanoTime() - start).toMillis();
+				} catch (ConnectException e) {
+					if (!process.isAlive() || System.nanoTime() > deadline) {
+						throw new IllegalStateException("The application did not start, see " + directory, e);
+					}
+					Thread.sleep(10);
+				}
+			}
+		} finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static Map<String, Object> summarize(String variant, long[] millis) {
+		long[] sorted = millis.clone();
+		Arrays.sort(sorted);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("variant", variant);
+		result.put("runs", millis);
+		result.put("min", sorted[0]);
+		result.put("median", sorted[sorted.length / 2]);
+		result.put("max", sorted[sorted.length - 1]);
+		return result;
+	}
+}
@@ -0,0 +1,34 @@
+package com.eastvantage.appointment.archive;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * This is the configuration of the appointment archiver, bound from the
+ * appointment.archive properties
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.archive")
+public class AppointmentArchiveProperties {
+
+	private boolean enabled = true;
+
+	// appointments which started longer ago than this are archived, it has to be
+	// longer than a day, which the interval index keeps the appointments for
+	private Duration archiveAfter = Duration.ofDays(30);
+
+	// change events which are older than this are deleted
+	private Duration eventRetention = Duration.ofDays(7);
+
+	// number of rows moved or deleted in one transaction
+	private int batchSize = 500;
+
+	// pause between two batches, which leaves the database to the requests
+	private Duration batchPause = Duration.ofMillis(100);
+
+	// number of batches of one run, the rest is left to the next run
+	private int maxBatches = 200;
+}
@@ -0,0 +1,165 @@
+package com.eastvantage.appointment.archive;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.APPOINTMENT_CACHE;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eastvantage.appointment.calendar.AppointmentCalendar;
+import com.eastvantage.appointment.repository.AppointmentEventRepository;
+import com.eastvantage.appointment.repository.AppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the archiver of the appointments. A delete only marks the
+ * appointment as deleted, so the deleted and the long past appointments are
+ * moved from the appointment table to the appointment archive table in the
+ * background, and the live queries only read the appointments which matter.
+ * 
+ * The rows are moved in batches, each batch in its own transaction which
+ * locks the rows it moves, with a pause between the batches and a bounded
+ * number of batches per run, so the archiver never holds many locks or keeps
+ * the database busy for long. The change events which are past their
+ * retention are deleted the same way.
+ */
+@Component
+@Slf4j
+public class AppointmentArchiver {
+
+	@Autowired
+	private AppointmentArchiveProperties properties;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+	@Autowired
+	private ArchivedAppointmentOccurrenceRepository archivedAppointmentOccurrenceRepository;
+
+	@Autowired
+	private AppointmentEventRepository appointmentEventRepository;
+
+	@Autowired
+	private AppointmentOccurrenceRepository appointmentOccurrenceRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private AppointmentCalendar appointmentCalendar;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	public void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Scheduled(fixedDelayString = "${appointment.archive.interval:PT1H}",
+			initialDelayString = "${appointment.archive.interval:PT1H}")
+	public void run() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		int archived = archiveAppointments(now.minus(properties.getArchiveAfter()));
+		int pruned = pruneEvents(now.minus(properties.getEventRetention()));
+		log.info("Archived {} appointments and deleted {} change events", archived, pruned);
+	}
+
+	/**
+	 * This method is used to move the deleted appointments and the appointments
+	 * which start before the given date time to the archive table. A recurring
+	 * appointment is moved once its last occurrence is before it, along with its
+	 * rule and its stored occurrences.
+	 * 
+	 * @return This will return the number of appointments moved
+	 */
+	public int archiveAppointments(LocalDateTime beforeDateTime) {
+		Cache cache = cacheManager.getCache(APPOINTMENT_CACHE);
+		return inBatches(batchSize -> {
+			List<Long> appointmentIds = appointmentRepository.findArchivableIdsForUpdate(beforeDateTime,
+					PageRequest.of(0, batchSize));
+			if (!appointmentIds.isEmpty()) {
+				archivedAppointmentRepository.copyAppointments(appointmentIds);
+				archivedAppointmentOccurrenceRepository.copyOccurrences(appointmentIds);
+				appointmentOccurrenceRepository.deleteByAppointmentIds(appointmentIds);
+				appointmentRepository.deleteByAppointmentIds(appointmentIds);
+			}
+			return appointmentIds;
+		}, appointmentIds -> {
+			appointmentIds.forEach(cache::evict);
+			appointmentCalendar.removeAppointments(appointmentIds);
+		});
+	}
+
+	/**
+	 * This method is used to delete the change events which were created before
+	 * the given date time. A consumer which has not read them by then continues
+	 * from the oldest event which is kept.
+	 * 
+	 * @return This will return the number of events deleted
+	 */
+	public int pruneEvents(LocalDateTime beforeDateTime) {
+		return inBatches(batchSize -> {
+			List<Long> eventIds = appointmentEventRepository.findEventIdsCreatedBefore(beforeDateTime,
+					PageRequest.of(0, batchSize));
+			if (!eventIds.isEmpty()) {
+				appointmentEventRepository.deleteByEventIds(eventIds);
+			}
+			return eventIds;
+		}, eventIds -> {
+			// the events are not cached
+		});
+	}
+
+	/**
+	 * This is a private method which runs the batch in its own transaction until
+	 * a batch is not full or the number of batches of a run is reached, pausing
+	 * between the batches. The ids of a batch are handed to the after commit
+	 * action once its transaction commits.
+	 * 
+	 * @return This will return the number of rows of all the batches
+	 */
+	private int inBatches(Function<Integer, List<Long>> batch, Consumer<List<Long>> afterCommit) {
+		int batchSize = properties.getBatchSize();
+		int total = 0;
+		for (int run = 0; run < properties.getMaxBatches(); run++) {
+			List<Long> ids = transactionTemplate.execute(status -> batch.apply(batchSize));
+			afterCommit.accept(ids);
+			total += ids.size();
+			if (ids.size() < batchSize) {
+				break;
+			}
+			try {
+				Thread.sleep(properties.getBatchPause().toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return total;
+	}
+}
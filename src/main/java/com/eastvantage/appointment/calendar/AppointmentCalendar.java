@@ -0,0 +1,224 @@
+package com.eastvantage.appointment.calendar;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the in-memory calendar of the appointments, the read model which
+ * serves the date range queries without touching the database. It holds the
+ * appointments which are not deleted from the horizon days before today to
+ * the horizon days after it, in one bucket per day sorted by start.
+ *
+ * A bucket is an array which is never changed: a write builds the new array
+ * of its day and replaces the old one, so the readers take no lock. The
+ * service hands every committed change to the calendar, and a change which
+ * is older than the one the calendar holds, by the version of the
+ * appointment, is ignored. The calendar is local to this instance, so it
+ * only sees the changes made through it.
+ */
+@Component
+@Slf4j
+public class AppointmentCalendar {
+
+	private static final AppointmentView[] EMPTY_BUCKET = new AppointmentView[0];
+
+	private static final Comparator<AppointmentView> BY_START = Comparator
+			.comparing(AppointmentView::getAppointmentDateTime).thenComparingLong(AppointmentView::getAppointmentId);
+
+	private final Map<LocalDate, AppointmentView[]> buckets = new ConcurrentHashMap<>();
+
+	// the latest known state of every appointment of the window, the deleted ones
+	// included, so a late change cannot bring back an older state
+	private final Map<Long, AppointmentView> appointments = new ConcurrentHashMap<>();
+
+	// null while the calendar is disabled or not loaded yet
+	private volatile Window window;
+
+	@Autowired
+	private AppointmentCalendarProperties properties;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@PostConstruct
+	public void load() {
+		if (properties.isEnabled()) {
+			slide(LocalDate.now());
+			log.info("Loaded {} appointments to the calendar", appointments.size());
+		}
+	}
+
+	/**
+	 * This method is used to move the window of the calendar along with the
+	 * current date, so the days which fall out of the horizon are dropped and
+	 * the days which come into it are loaded
+	 */
+	@Scheduled(fixedDelayString = "${appointment.calendar.slide-interval:PT1M}")
+	public void slide() {
+		if (properties.isEnabled()) {
+			slide(LocalDate.now());
+		}
+	}
+
+	/**
+	 * This method is used to find the appointments which start between the from
+	 * date and the to date, both included, in start order
+	 *
+	 * @return This will return the appointments, or null when the range is not
+	 *         held by the calendar and has to be read from the database
+	 */
+	public List<AppointmentView> findByDateRange(LocalDateTime fromDate, LocalDateTime toDate) {
+		Window current = window;
+		if (current == null || fromDate.toLocalDate().isBefore(current.getFirstDay())
+				|| toDate.toLocalDate().isAfter(current.getLastDay())) {
+			return null;
+		}
+		List<AppointmentView> found = new ArrayList<>();
+		for (LocalDate day = fromDate.toLocalDate(); !day.isAfter(toDate.toLocalDate()); day = day.plusDays(1)) {
+			for (AppointmentView appointment : buckets.getOrDefault(day, EMPTY_BUCKET)) {
+				if (!appointment.getAppointmentDateTime().isBefore(fromDate)
+						&& !appointment.getAppointmentDateTime().isAfter(toDate)) {
+					found.add(appointment);
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * This method is used to apply the committed state of an appointment, which
+	 * moves it to the bucket of its new day or removes it when it is deleted
+	 */
+	public synchronized void put(AppointmentView appointment) {
+		Window current = window;
+		if (current == null) {
+			return;
+		}
+		AppointmentView previous = appointments.get(appointment.getAppointmentId());
+		if (previous != null && previous.getVersion() > appointment.getVersion()) {
+			return;
+		}
+		if (previous != null) {
+			removeFromBucket(previous);
+		}
+		if (current.contains(appointment.getAppointmentDateTime().toLocalDate())) {
+			appointments.put(appointment.getAppointmentId(), appointment);
+			if (!appointment.isDelete()) {
+				addToBucket(appointment);
+			}
+		} else {
+			appointments.remove(appointment.getAppointmentId());
+		}
+	}
+
+	/**
+	 * This method is used to remove the appointments which are no longer in the
+	 * appointment table, such as the archived ones
+	 */
+	public synchronized void removeAppointments(Collection<Long> appointmentIds) {
+		for (Long appointmentId : appointmentIds) {
+			AppointmentView previous = appointments.remove(appointmentId);
+			if (previous != null) {
+				removeFromBucket(previous);
+			}
+		}
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	public int size() {
+		return buckets.values().stream().mapToInt(bucket -> bucket.length).sum();
+	}
+
+	/**
+	 * This method is used to move the window to the horizon around the given
+	 * day. The new window is set before the new days are read, so a change which
+	 * commits while they are read waits for the lock and is applied after them,
+	 * and a change applied before the lock was taken is already in the database.
+	 */
+	synchronized void slide(LocalDate today) {
+		Window previous = window;
+		Window next = new Window(today.minusDays(properties.getHorizonDays()),
+				today.plusDays(properties.getHorizonDays()));
+		if (previous != null && previous.getFirstDay().equals(next.getFirstDay())) {
+			return;
+		}
+		LocalDate loadFrom = next.getFirstDay();
+		if (previous != null && previous.contains(next.getFirstDay())) {
+			loadFrom = previous.getLastDay().plusDays(1);
+		} else {
+			buckets.clear();
+			appointments.clear();
+		}
+		buckets.keySet().removeIf(day -> !next.contains(day));
+		appointments.values()
+				.removeIf(appointment -> !next.contains(appointment.getAppointmentDateTime().toLocalDate()));
+		window = next;
+		if (!loadFrom.isAfter(next.getLastDay())) {
+			appointmentRepository.findViewsByDateRange(loadFrom.atStartOfDay(), next.getLastDay().atTime(LocalTime.MAX))
+					.forEach(this::put);
+		}
+	}
+
+	private void addToBucket(AppointmentView appointment) {
+		LocalDate day = appointment.getAppointmentDateTime().toLocalDate();
+		AppointmentView[] bucket = buckets.getOrDefault(day, EMPTY_BUCKET);
+		int position = -Arrays.binarySearch(bucket, appointment, BY_START) - 1;
+		AppointmentView[] next = new AppointmentView[bucket.length + 1];
+		System.arraycopy(bucket, 0, next, 0, position);
+		next[position] = appointment;
+		System.arraycopy(bucket, position, next, position + 1, bucket.length - position);
+		buckets.put(day, next);
+	}
+
+	private void removeFromBucket(AppointmentView appointment) {
+		LocalDate day = appointment.getAppointmentDateTime().toLocalDate();
+		AppointmentView[] bucket = buckets.get(day);
+		int position = bucket == null ? -1 : Arrays.binarySearch(bucket, appointment, BY_START);
+		if (position < 0) {
+			return;
+		}
+		if (bucket.length == 1) {
+			buckets.remove(day);
+			return;
+		}
+		AppointmentView[] next = new AppointmentView[bucket.length - 1];
+		System.arraycopy(bucket, 0, next, 0, position);
+		System.arraycopy(bucket, position + 1, next, position, bucket.length - position - 1);
+		buckets.put(day, next);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static final class Window {
+		private final LocalDate firstDay;
+		private final LocalDate lastDay;
+
+		private boolean contains(LocalDate day) {
+			return !day.isBefore(firstDay) && !day.isAfter(lastDay);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.eastvantage.appointment.calendar;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * This is the configuration of the appointment calendar, bound from the
+ * appointment.calendar properties
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.calendar")
+public class AppointmentCalendarProperties {
+
+	private boolean enabled = false;
+
+	// number of days before and after today which the calendar holds, the date
+	// ranges which reach outside of them are read from the database
+	private int horizonDays = 90;
+}
@@ -0,0 +1,20 @@
+package com.eastvantage.appointment.coalescing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * This is the configuration of the request coalescing, bound from the
+ * appointment.coalescing properties
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.coalescing")
+public class AppointmentCoalescingProperties {
+
+	private boolean enabled = true;
+
+	// number of distinct reads which can be in flight at once for each kind of
+	// read, a read beyond them runs on its own
+	private int maxInFlight = 10000;
+}
@@ -0,0 +1,335 @@
+package com.eastvantage.appointment.coalescing;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.APPOINTMENT_CACHE;
+import static com.eastvantage.appointment.common.AppointmentCommon.COALESCED_COUNTER;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.eastvantage.appointment.dto.AppointmentBulkUpdateDto;
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.dto.AppointmentFilterDto;
+import com.eastvantage.appointment.dto.AppointmentPatchDto;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.response.AppointmentBulkResponse;
+import com.eastvantage.appointment.response.AppointmentEventPageResponse;
+import com.eastvantage.appointment.response.AppointmentPageResponse;
+import com.eastvantage.appointment.response.AppointmentReportResponse;
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.CacheStatsResponse;
+import com.eastvantage.appointment.response.FreeSlotResponse;
+import com.eastvantage.appointment.service.AppointmentService;
+import com.eastvantage.appointment.service.AppointmentServiceImplementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This is the request coalescing layer in front of the Appointment Service.
+ * Concurrent identical reads of an appointment by id or of a date range are
+ * collapsed into a single flight: the first request runs the read and the
+ * requests which arrive while it is in flight wait for it and share its result
+ * or its exception. The number of flights of each kind is bounded, a read
+ * beyond the bound runs on its own.
+ *
+ * Every write goes through this layer as well. Once a write returns, the
+ * flight of the appointment it wrote and all the date range flights are
+ * dropped, so a read which starts after the write never joins a flight which
+ * may have read the appointment before it. The range flights are dropped as a
+ * whole since an update does not tell the date time it moves the appointment
+ * from.
+ *
+ * A read of an appointment may still have read it before a write and put it in
+ * the appointment cache after the write evicted it. The writes are therefore
+ * counted when they start and when they finish, per stripe of appointment ids,
+ * and a read which saw a write of its stripe start before its result was put
+ * in the cache evicts it again.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(prefix = "appointment.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingAppointmentService implements AppointmentService {
+
+	private static final int WRITE_STRIPES = 64;
+
+	private final AtomicLongArray writesStarted = new AtomicLongArray(WRITE_STRIPES);
+
+	private final AtomicLongArray writesFinished = new AtomicLongArray(WRITE_STRIPES);
+
+	private final Map<Long, CompletableFuture<AppointmentResponse>> appointmentFlights = new ConcurrentHashMap<>();
+
+	private final Map<AppointmentFilterDto, CompletableFuture<List<AppointmentResponse>>> rangeFlights =
+			new ConcurrentHashMap<>();
+
+	@Autowired
+	private AppointmentServiceImplementation appointmentService;
+
+	@Autowired
+	private AppointmentCoalescingProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Counter appointmentsCoalesced;
+
+	private Counter rangesCoalesced;
+
+	@PostConstruct
+	private void init() {
+		appointmentsCoalesced = meterRegistry.counter(COALESCED_COUNTER, "method", "findAppointmentById");
+		rangesCoalesced = meterRegistry.counter(COALESCED_COUNTER, "method", "getAllAppointment");
+	}
+
+	@Override
+	public AppointmentResponse findAppointmentById(long appointmentId) {
+		return coalesce(appointmentFlights, appointmentId, appointmentsCoalesced, () -> {
+			int stripe = stripeOf(appointmentId);
+			long finished = writesFinished.get(stripe);
+			AppointmentResponse appointment = appointmentService.findAppointmentById(appointmentId);
+			if (writesStarted.get(stripe) > finished) {
+				Cache cache = cacheManager.getCache(APPOINTMENT_CACHE);
+				if (cache != null) {
+					cache.evict(appointmentId);
+				}
+			}
+			return appointment;
+		});
+	}
+
+	@Override
+	public List<AppointmentResponse> getAllAppointment(AppointmentFilterDto dto) {
+		// the dto is copied, so the key does not change if the caller changes the dto
+		return coalesce(rangeFlights, new AppointmentFilterDto(dto.getFromDate(), dto.getToDate()), rangesCoalesced,
+				() -> appointmentService.getAllAppointment(dto));
+	}
+
+	@Override
+	public Appointment createAppointment(AppointmentDto appointmentDto) {
+		try {
+			return appointmentService.createAppointment(appointmentDto);
+		} finally {
+			rangeFlights.clear();
+		}
+	}
+
+	@Override
+	public Appointment updateAppointment(AppointmentDto appointmentDto, long appointmentId, Long expectedVersion) {
+		BitSet stripes = startWrites(List.of(appointmentId));
+		try {
+			return appointmentService.updateAppointment(appointmentDto, appointmentId, expectedVersion);
+		} finally {
+			invalidate(List.of(appointmentId));
+			finishWrites(stripes);
+		}
+	}
+
+	@Override
+	public Long patchAppointment(AppointmentPatchDto appointmentDto, long appointmentId, Long expectedVersion) {
+		BitSet stripes = startWrites(List.of(appointmentId));
+		try {
+			return appointmentService.patchAppointment(appointmentDto, appointmentId, expectedVersion);
+		} finally {
+			invalidate(List.of(appointmentId));
+			finishWrites(stripes);
+		}
+	}
+
+	@Override
+	public Appointment deleteAppointment(long appointmentId, Long expectedVersion) {
+		BitSet stripes = startWrites(List.of(appointmentId));
+		try {
+			return appointmentService.deleteAppointment(appointmentId, expectedVersion);
+		} finally {
+			invalidate(List.of(appointmentId));
+			finishWrites(stripes);
+		}
+	}
+
+	@Override
+	public AppointmentResponse updateOccurrence(AppointmentDto appointmentDto, long appointmentId,
+			LocalDateTime occurrenceDateTime) {
+		try {
+			return appointmentService.updateOccurrence(appointmentDto, appointmentId, occurrenceDateTime);
+		} finally {
+			rangeFlights.clear();
+		}
+	}
+
+	@Override
+	public AppointmentResponse cancelOccurrence(long appointmentId, LocalDateTime occurrenceDateTime) {
+		try {
+			return appointmentService.cancelOccurrence(appointmentId, occurrenceDateTime);
+		} finally {
+			rangeFlights.clear();
+		}
+	}
+
+	@Override
+	public AppointmentBulkResponse createAppointments(List<AppointmentDto> appointmentDtos) {
+		try {
+			return appointmentService.createAppointments(appointmentDtos);
+		} finally {
+			rangeFlights.clear();
+		}
+	}
+
+	@Override
+	public AppointmentBulkResponse updateAppointments(List<AppointmentBulkUpdateDto> appointmentDtos) {
+		List<Long> appointmentIds = appointmentDtos.stream().filter(Objects::nonNull)
+				.map(AppointmentBulkUpdateDto::getAppointmentId).collect(Collectors.toList());
+		BitSet stripes = startWrites(appointmentIds);
+		try {
+			return appointmentService.updateAppointments(appointmentDtos);
+		} finally {
+			invalidate(appointmentIds);
+			finishWrites(stripes);
+		}
+	}
+
+	@Override
+	public AppointmentBulkResponse deleteAppointments(List<Long> appointmentIds) {
+		BitSet stripes = startWrites(appointmentIds);
+		try {
+			return appointmentService.deleteAppointments(appointmentIds);
+		} finally {
+			invalidate(appointmentIds);
+			finishWrites(stripes);
+		}
+	}
+
+	@Override
+	public AppointmentPageResponse getAppointmentPage(AppointmentFilterDto dto, String cursor, int limit) {
+		return appointmentService.getAppointmentPage(dto, cursor, limit);
+	}
+
+	@Override
+	public void streamAllAppointment(AppointmentFilterDto dto, Consumer<AppointmentResponse> consumer) {
+		appointmentService.streamAllAppointment(dto, consumer);
+	}
+
+	@Override
+	public CacheStatsResponse getCacheStats() {
+		return appointmentService.getCacheStats();
+	}
+
+	@Override
+	public List<FreeSlotResponse> getFreeSlots(LocalDateTime fromDate, LocalDateTime toDate, String minDuration) {
+		return appointmentService.getFreeSlots(fromDate, toDate, minDuration);
+	}
+
+	@Override
+	public AppointmentEventPageResponse getAppointmentEvents(long afterEventId, int limit) {
+		return appointmentService.getAppointmentEvents(afterEventId, limit);
+	}
+
+	@Override
+	public List<AppointmentReportResponse> getDailyReport(LocalDate fromDate, LocalDate toDate) {
+		return appointmentService.getDailyReport(fromDate, toDate);
+	}
+
+	@Override
+	public List<AppointmentReportResponse> getWeeklyReport(LocalDate fromDate, LocalDate toDate) {
+		return appointmentService.getWeeklyReport(fromDate, toDate);
+	}
+
+	@Override
+	public AppointmentResponse findArchivedAppointmentById(long appointmentId) {
+		return appointmentService.findArchivedAppointmentById(appointmentId);
+	}
+
+	@Override
+	public AppointmentPageResponse getArchivedAppointmentPage(AppointmentFilterDto dto, String cursor, int limit) {
+		return appointmentService.getArchivedAppointmentPage(dto, cursor, limit);
+	}
+
+	/**
+	 * This is a private method which runs the read as a new flight, or waits for
+	 * the flight of the same key which is already running and returns its result
+	 *
+	 * @return This will return the result of the read
+	 */
+	private <K, T> T coalesce(Map<K, CompletableFuture<T>> flights, K key, Counter coalesced, Supplier<T> read) {
+		CompletableFuture<T> flight = flights.get(key);
+		if (flight == null) {
+			if (flights.size() >= properties.getMaxInFlight()) {
+				return read.get();
+			}
+			CompletableFuture<T> ownFlight = new CompletableFuture<>();
+			flight = flights.putIfAbsent(key, ownFlight);
+			if (flight == null) {
+				try {
+					T result = read.get();
+					ownFlight.complete(result);
+					return result;
+				} catch (RuntimeException | Error e) {
+					ownFlight.completeExceptionally(e);
+					throw e;
+				} finally {
+					flights.remove(key, ownFlight);
+				}
+			}
+		}
+		coalesced.increment();
+		try {
+			return flight.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw (RuntimeException) e.getCause();
+		}
+	}
+
+	/**
+	 * This is a private method which counts the start of a write of the given
+	 * appointments in their stripes
+	 *
+	 * @return This will return the stripes of the appointments
+	 */
+	private BitSet startWrites(List<Long> appointmentIds) {
+		BitSet stripes = new BitSet(WRITE_STRIPES);
+		appointmentIds.stream().filter(Objects::nonNull).forEach(appointmentId -> stripes.set(stripeOf(appointmentId)));
+		stripes.stream().forEach(writesStarted::incrementAndGet);
+		return stripes;
+	}
+
+	private void finishWrites(BitSet stripes) {
+		stripes.stream().forEach(writesFinished::incrementAndGet);
+	}
+
+	private static int stripeOf(long appointmentId) {
+		return (int) Math.floorMod(appointmentId, (long) WRITE_STRIPES);
+	}
+
+	/**
+	 * This is a private method which drops the flights of the written
+	 * appointments and all the date range flights
+	 */
+	private void invalidate(List<Long> appointmentIds) {
+		appointmentIds.stream().filter(Objects::nonNull).forEach(appointmentFlights::remove);
+		rangeFlights.clear();
+	}
+}
@@ -11,8 +11,40 @@ public class AppointmentCommon {
 	public static final String DELETE_SUCCESS_MESSAGE = "Appointment Details Deleted Successfully";
 	public static final String UPDATE_SUCCESS_MESSAGE = "Appointment Details Updated Successfully";
 	public static final String NO_DATA_FOUND = "There Are No Appointment Details";
+	public static final String INVALID_DURATION = "Provide duration in the format of HH:MM:SS";
+	// the format of the date times and dates of the api
+	public static final String DATE_TIME_FORMAT = "MM-dd-yyyy HH:mm:ss";
+	public static final String DATE_FORMAT = "MM-dd-yyyy";
 	public static final String DEBUG = "DEBUG";
 	public static final String ERROR = "DEBUG";
+	public static final String INVALID_CURSOR = "Provide A Valid Cursor";
+	public static final String INVALID_PAGE_SIZE = "Provide A Page Size Between 1 And 1000";
+	public static final String DEFAULT_PAGE_SIZE = "100";
+	public static final int MAX_PAGE_SIZE = 1000;
+	public static final String APPOINTMENT_CACHE = "appointments";
+	public static final String BULK_SUCCESS_MESSAGE = "Appointment Details Processed Successfully";
+	public static final String INVALID_BULK_SIZE = "Provide Between 1 And 50000 Appointments";
+	public static final int MAX_BULK_SIZE = 50000;
+	public static final int BULK_CHUNK_SIZE = 500;
+	public static final String APPOINTMENT_CONFLICT = "Appointment Overlaps With Another Appointment";
+	public static final String INVALID_DATE_RANGE = "Provide A From Date Before The To Date";
+	public static final String SERVICE_OVERLOADED = "Appointment Service Is Busy. Please Try Again";
+	public static final String RATE_LIMITED = "Too Many Requests. Please Try Again Later";
+	public static final String SERVICE_TIMER = "appointment.service";
+	public static final String EXCEPTION_COUNTER = "appointment.exceptions";
+	public static final String COALESCED_COUNTER = "appointment.coalesced";
+	public static final String CONCURRENCY_LIMIT_GAUGE = "appointment.concurrency.limit";
+	public static final String VERSION_MISMATCH = "Appointment Was Changed Since It Was Read. Please Fetch It Again";
+	public static final String INVALID_RECURRENCE = "Provide A Valid Recurrence Frequency, Interval And End";
+	public static final String EMPTY_PATCH = "Provide At Least One Appointment Detail To Update";
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+	public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+	public static final String INVALID_IDEMPOTENCY_KEY = "Provide An Idempotency Key Of 1 To 255 Characters";
+	public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency Key Was Already Used For Another Appointment";
+	public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "Request With This Idempotency Key Is In Progress";
+	public static final String IDEMPOTENT_REPLAY_COUNTER = "appointment.idempotent.replays";
+	public static final String IDEMPOTENCY_CACHE = "appointment.idempotency";
 
 
 }
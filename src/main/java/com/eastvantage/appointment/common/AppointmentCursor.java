@@ -0,0 +1,67 @@
+package com.eastvantage.appointment.common;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.INVALID_CURSOR;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.eastvantage.appointment.exception.AppointmentException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * This is the keyset cursor of the appointment pages. It holds the position
+ * (appointment date time and appointment id) of the last appointment returned
+ * in a page and is handed to the client as an opaque string.
+ */
+@Data
+@AllArgsConstructor
+public class AppointmentCursor {
+
+	private static final String SEPARATOR = ",";
+
+	private LocalDateTime appointmentDateTime;
+
+	private long appointmentId;
+
+	/**
+	 * This method is used to encode the position of an appointment to the opaque
+	 * cursor string
+	 *
+	 * @return This will return the url safe cursor string
+	 */
+	public static String encode(LocalDateTime appointmentDateTime, long appointmentId) {
+		String value = appointmentDateTime + SEPARATOR + appointmentId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * This method is used to check whether the position of an appointment comes
+	 * after the position held by the cursor
+	 *
+	 * @return This will return true when the appointment belongs after the cursor
+	 */
+	public boolean isBefore(LocalDateTime dateTime, long id) {
+		return appointmentDateTime.isBefore(dateTime)
+				|| appointmentDateTime.isEqual(dateTime) && appointmentId < id;
+	}
+
+	/**
+	 * This method is used to decode the cursor string received from the client
+	 *
+	 * @return This will return the decoded cursor, or throw an appointment
+	 *         exception when the cursor is not a valid one
+	 */
+	public static AppointmentCursor decode(String cursor) {
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int index = value.lastIndexOf(SEPARATOR);
+			return new AppointmentCursor(LocalDateTime.parse(value.substring(0, index)),
+					Long.parseLong(value.substring(index + 1)));
+		} catch (RuntimeException e) {
+			throw new AppointmentException(INVALID_CURSOR);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.eastvantage.appointment.common;
+
+/**
+ * This is the codec of the appointment duration. It parses, validates and
+ * formats the HH:mm:ss duration by scanning the characters directly, without a
+ * regular expression, splitting or intermediate Duration objects.
+ */
+public final class AppointmentDurationCodec {
+
+	public static final long INVALID = -1;
+
+	private static final long MILLIS_PER_SECOND = 1000L;
+	private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+	private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+	private static final int LENGTH = 8;
+
+	private AppointmentDurationCodec() {
+	}
+
+	/**
+	 * This method is used to parse the HH:mm:ss duration, where the hours are
+	 * between 00 and 23 and the minutes and seconds are between 00 and 59
+	 * 
+	 * @return This will return the milliseconds of the duration or INVALID when
+	 *         the text is not a valid duration
+	 */
+	public static long parse(CharSequence text) {
+		if (text == null || text.length() != LENGTH || text.charAt(2) != ':' || text.charAt(5) != ':') {
+			return INVALID;
+		}
+		int hours = twoDigits(text, 0);
+		int minutes = twoDigits(text, 3);
+		int seconds = twoDigits(text, 6);
+		if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+			return INVALID;
+		}
+		return hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE + seconds * MILLIS_PER_SECOND;
+	}
+
+	/**
+	 * This method is used to check whether the text is a valid HH:mm:ss duration
+	 * 
+	 * @return This will return true when the text is a valid duration
+	 */
+	public static boolean isValid(CharSequence text) {
+		return parse(text) != INVALID;
+	}
+
+	/**
+	 * This method is used to format the milliseconds as HH:mm:ss. The hours are
+	 * not wrapped at a day, so a duration of 100 hours or more gets more than two
+	 * hour digits.
+	 * 
+	 * @return This will return the formatted duration
+	 */
+	public static String format(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Duration must not be negative");
+		}
+		long totalSeconds = millis / MILLIS_PER_SECOND;
+		long hours = totalSeconds / 3600;
+		int minutes = (int) (totalSeconds / 60 % 60);
+		int seconds = (int) (totalSeconds % 60);
+		if (hours >= 100) {
+			return hours + ":" + (char) ('0' + minutes / 10) + (char) ('0' + minutes % 10) + ':'
+					+ (char) ('0' + seconds / 10) + (char) ('0' + seconds % 10);
+		}
+		char[] chars = new char[LENGTH];
+		chars[0] = (char) ('0' + hours / 10);
+		chars[1] = (char) ('0' + hours % 10);
+		chars[2] = ':';
+		chars[3] = (char) ('0' + minutes / 10);
+		chars[4] = (char) ('0' + minutes % 10);
+		chars[5] = ':';
+		chars[6] = (char) ('0' + seconds / 10);
+		chars[7] = (char) ('0' + seconds % 10);
+		return new String(chars);
+	}
+
+	private static int twoDigits(CharSequence text, int index) {
+		int tens = text.charAt(index) - '0';
+		int units = text.charAt(index + 1) - '0';
+		if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+			return -1;
+		}
+		return tens * 10 + units;
+	}
+}
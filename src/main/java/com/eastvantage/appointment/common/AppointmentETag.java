@@ -0,0 +1,73 @@
+package com.eastvantage.appointment.common;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.VERSION_MISMATCH;
+
+import com.eastvantage.appointment.exception.AppointmentVersionMismatchException;
+
+/**
+ * This is the entity tag of the appointment. The tag is the version of the
+ * appointment in quotes, so a client which sends it back in the If-Match header
+ * only updates the appointment it has read, and one which sends it in the
+ * If-None-Match header only reads the appointment again when it has changed.
+ */
+public class AppointmentETag {
+
+	private static final String ANY = "*";
+
+	private AppointmentETag() {
+	}
+
+	/**
+	 * This method is used to build the entity tag of a version of the appointment
+	 * 
+	 * @return This will return the strong entity tag of the version
+	 */
+	public static String format(long version) {
+		return "\"" + version + "\"";
+	}
+
+	/**
+	 * This method is used to read the version which is expected by the If-Match
+	 * header. A weak or malformed tag never matches, as the If-Match header is
+	 * compared strongly.
+	 * 
+	 * @return This will return the expected version, or null when the header is
+	 *         not given or matches any version
+	 */
+	public static Long parseIfMatch(String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals(ANY)) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		try {
+			if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+				return Long.parseLong(tag.substring(1, tag.length() - 1));
+			}
+		} catch (NumberFormatException e) {
+			// falls through to the mismatch below
+		}
+		throw new AppointmentVersionMismatchException(VERSION_MISMATCH);
+	}
+
+	/**
+	 * This method is used to check the If-None-Match header against the current
+	 * version of the appointment. The header is compared weakly and may hold a
+	 * list of tags.
+	 * 
+	 * @return This will return true when the client already has the current
+	 *         version
+	 */
+	public static boolean matchesIfNoneMatch(String ifNoneMatch, long version) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		String current = format(version);
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.equals(ANY) || tag.equals(current) || tag.equals("W/" + current)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,24 @@
+package com.eastvantage.appointment.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.eastvantage.appointment.coalescing.AppointmentCoalescingProperties;
+import com.eastvantage.appointment.idempotency.AppointmentIdempotencyProperties;
+
+/**
+ * This is the cache configuration of the Appointment. The cache manager itself
+ * is configured through the spring.cache properties. The caching advice runs
+ * outside of the transaction advice so that evictions happen only after the
+ * transaction of the write has committed. Concurrent identical reads which
+ * miss the cache are coalesced by the coalescing appointment service, and the
+ * retries of a create request are answered by the idempotency store.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties({ AppointmentCoalescingProperties.class, AppointmentIdempotencyProperties.class })
+public class AppointmentCacheConfig {
+
+}
@@ -0,0 +1,68 @@
+package com.eastvantage.appointment.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.eastvantage.appointment.execution.AppointmentExecutionHandlerAdapter;
+import com.eastvantage.appointment.execution.AppointmentExecutionProperties;
+import com.eastvantage.appointment.execution.AppointmentRequestExecutor;
+
+/**
+ * This is the execution configuration of the Appointment. In the virtual mode
+ * the Tomcat connector processes every request on a new virtual thread instead
+ * of its pool of platform threads. Virtual threads are looked up at runtime so
+ * that the application still builds and runs on Java 17 in the other modes.
+ * 
+ * In the async and virtual modes the handler adapter of Spring MVC is replaced
+ * through its registrations by one which runs the controller methods with the
+ * request executor. Neither is created in the sync mode, where the controller
+ * methods run as plain synchronous methods.
+ */
+@Configuration
+@EnableConfigurationProperties(AppointmentExecutionProperties.class)
+public class AppointmentExecutionConfig {
+
+	private static final String NOT_SYNC_MODE = "!'${appointment.execution.mode:sync}'.equalsIgnoreCase('sync')";
+
+	@Bean
+	@ConditionalOnProperty(name = "appointment.execution.mode", havingValue = "virtual")
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		Executor executor = newVirtualThreadPerTaskExecutor();
+		return protocolHandler -> protocolHandler.setExecutor(executor);
+	}
+
+	@Bean
+	@ConditionalOnExpression(NOT_SYNC_MODE)
+	public AppointmentRequestExecutor appointmentRequestExecutor() {
+		return new AppointmentRequestExecutor();
+	}
+
+	@Bean
+	@ConditionalOnExpression(NOT_SYNC_MODE)
+	public WebMvcRegistrations appointmentExecutionRegistrations(
+			AppointmentRequestExecutor appointmentRequestExecutor) {
+		return new WebMvcRegistrations() {
+			@Override
+			public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+				return new AppointmentExecutionHandlerAdapter(appointmentRequestExecutor);
+			}
+		};
+	}
+
+	private static Executor newVirtualThreadPerTaskExecutor() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("The virtual execution mode needs Java 21 or later", e);
+		}
+	}
+}
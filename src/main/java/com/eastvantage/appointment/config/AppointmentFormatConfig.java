@@ -0,0 +1,50 @@
+package com.eastvantage.appointment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * This is the response format configuration of the Appointment. Besides JSON
+ * the API answers in CBOR and Smile, the binary forms of the same document,
+ * to the clients which ask for application/cbor or application/x-jackson-smile
+ * in the Accept header, and reads request bodies in them as well. The
+ * converters are built from the Jackson builder of the application, so the
+ * binary documents hold the same fields and date formats as the JSON one and
+ * are written by the same serializers. JSON stays the default for the clients
+ * which accept any format.
+ */
+@Configuration
+public class AppointmentFormatConfig {
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(cborFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+	}
+
+	public static CBORFactory cborFactory() {
+		return new CBORFactory();
+	}
+
+	/**
+	 * This method is used to build the Smile factory, which refers back to the
+	 * short strings written before, such as the durations and the dates of a
+	 * day, besides the field names
+	 *
+	 * @return This will return the factory of the Smile converter
+	 */
+	public static SmileFactory smileFactory() {
+		return SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+	}
+}
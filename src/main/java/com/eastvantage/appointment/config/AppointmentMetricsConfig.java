@@ -0,0 +1,22 @@
+package com.eastvantage.appointment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This is the metrics configuration of the Appointment. The timed aspect
+ * records a timer for every method annotated with @Timed, tagged with the class,
+ * the method and the exception thrown. The percentiles and histograms of the
+ * timers are configured through the management.metrics.distribution properties.
+ */
+@Configuration
+public class AppointmentMetricsConfig {
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+}
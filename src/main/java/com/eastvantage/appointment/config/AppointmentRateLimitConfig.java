@@ -0,0 +1,33 @@
+package com.eastvantage.appointment.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.eastvantage.appointment.ratelimit.AppointmentRateLimitInterceptor;
+import com.eastvantage.appointment.ratelimit.AppointmentRateLimitProperties;
+
+/**
+ * This is the rate limit configuration of the Appointment. The rate limiter
+ * guards every API except the event stream, whose connections stay open for
+ * as long as the consumer listens and would hold a place in the concurrency
+ * limit all that time.
+ */
+@Configuration
+@EnableConfigurationProperties(AppointmentRateLimitProperties.class)
+@ConditionalOnProperty(prefix = "appointment.rate-limit", name = "enabled", havingValue = "true",
+		matchIfMissing = false)
+public class AppointmentRateLimitConfig implements WebMvcConfigurer {
+
+	@Autowired
+	private AppointmentRateLimitInterceptor appointmentRateLimitInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(appointmentRateLimitInterceptor).addPathPatterns("/api/v1/**")
+				.excludePathPatterns("/api/v1/appointment/events/stream");
+	}
+}
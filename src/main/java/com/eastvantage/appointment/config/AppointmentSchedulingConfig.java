@@ -0,0 +1,41 @@
+package com.eastvantage.appointment.config;
+
+import java.lang.reflect.Method;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.eastvantage.appointment.archive.AppointmentArchiveProperties;
+import com.eastvantage.appointment.calendar.AppointmentCalendarProperties;
+
+/**
+ * This is the scheduling configuration of the Appointment. It enables the
+ * scheduled housekeeping jobs such as the pruning of the interval index, the
+ * archiver and the sliding of the calendar window.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ AppointmentArchiveProperties.class, AppointmentCalendarProperties.class })
+public class AppointmentSchedulingConfig {
+
+	/**
+	 * This method is used to keep the beans with scheduled jobs out of the lazy
+	 * initialization, since the jobs of a bean are only scheduled once the bean
+	 * is created and a bean such as the archiver is never used by another one
+	 *
+	 * @return This will return the filter of the beans to be created eagerly
+	 */
+	@Bean
+	public static LazyInitializationExcludeFilter scheduledBeans() {
+		return (beanName, beanDefinition, beanType) -> !MethodIntrospector
+				.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Method>) method -> AnnotatedElementUtils
+						.hasAnnotation(method, Scheduled.class) ? method : null)
+				.isEmpty();
+	}
+}
@@ -2,28 +2,47 @@ package com.eastvantage.appointment.controller;
 
 import static com.eastvantage.appointment.common.AppointmentCommon.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.eastvantage.appointment.common.AppointmentETag;
+import com.eastvantage.appointment.dto.AppointmentBulkUpdateDto;
 import com.eastvantage.appointment.dto.AppointmentDto;
 import com.eastvantage.appointment.dto.AppointmentFilterDto;
+import com.eastvantage.appointment.dto.AppointmentPatchDto;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.event.AppointmentEventStream;
+import com.eastvantage.appointment.idempotency.AppointmentIdempotencyStore;
 import com.eastvantage.appointment.response.AppointmentResponse;
 import com.eastvantage.appointment.response.SuccessResponse;
 import com.eastvantage.appointment.service.AppointmentService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
@@ -32,7 +51,14 @@ import lombok.extern.slf4j.Slf4j;
  * * @author Sudharshan B S
  * 
  * This is the controller class of the Appointment. It contains methods such as
- * create, update, delete, find and find all methods of the appointment
+ * create, update, delete, find and find all methods of the appointment. The
+ * methods are written synchronously, and the execution mode decides which
+ * thread runs them. The version of an appointment is sent as its ETag, which
+ * the client sends back in the If-Match header to update or delete only the
+ * version it has read. The responses are written as JSON, CBOR or Smile as the
+ * client asks in the Accept header, and compressed with gzip when the client
+ * accepts it. A create request may carry an Idempotency-Key header, which makes
+ * its retries safe.
  * 
  */
 
@@ -45,23 +71,40 @@ public class AppointmentController {
 	@Autowired
 	private AppointmentService appointmentService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private AppointmentEventStream appointmentEventStream;
+
+	@Autowired
+	private AppointmentIdempotencyStore appointmentIdempotencyStore;
+
 	/**
 	 * This is a controller method of Appointment. It is used for creating/ saving
 	 * the particular appointment details.
 	 * 
 	 * @param appointmentDto This is the appointment object which needs to be saved
+	 * @param idempotencyKey This is the optional key of the request, a retry with
+	 *                       the same key gets the response of the first request
+	 *                       instead of saving the appointment again
 	 * 
 	 * @return This method returns a success response object which contains the
 	 *         error, success message, data which is saved and HTTP status code on
-	 *         successful saving of the appointment details
+	 *         successful saving of the appointment details. The status code will
+	 *         be 422 when the key was used for another appointment, and 409 when
+	 *         the request of the key is still in progress on another instance.
 	 */
 	@Operation(summary = "This API used for creating/ saving the particular appointment details")
 	@PostMapping("/appointment")
-	public ResponseEntity<SuccessResponse> createAppointment(@Valid @RequestBody AppointmentDto appointmentDto) {
-		log.debug(DEBUG, appointmentDto);
-		return new ResponseEntity<>(
-				new SuccessResponse(false, SAVE_SUCCESS_MESSAGE, appointmentService.createAppointment(appointmentDto)),
-				HttpStatus.OK);
+	public ResponseEntity<SuccessResponse> createAppointment(@Valid @RequestBody AppointmentDto appointmentDto,
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+		log.debug(DEBUG, appointmentDto + " " + idempotencyKey);
+		return appointmentIdempotencyStore.execute(idempotencyKey, appointmentDto, () -> {
+			Appointment appointment = appointmentService.createAppointment(appointmentDto);
+			return ResponseEntity.ok().eTag(AppointmentETag.format(appointment.getVersion()))
+					.body(new SuccessResponse(false, SAVE_SUCCESS_MESSAGE, appointment));
+		});
 	}
 
 	/**
@@ -72,17 +115,53 @@ public class AppointmentController {
 	 *                       updated
 	 * @param appointmentId  This is the appointment id of the received appointment
 	 *                       object
+	 * @param ifMatch        This is the optional ETag of the appointment version
+	 *                       which the client has read
 	 * @return This method returns a success response object which contains the
 	 *         error, success message, data which is saved and HTTP status code on
-	 *         successful update of the appointment details
+	 *         successful update of the appointment details. The status code will
+	 *         be 412 when the appointment has changed since the given ETag.
 	 */
 	@Operation(summary = "This API used for updating the particular appointment details")
 	@PutMapping("/appointment")
 	public ResponseEntity<SuccessResponse> updateAppointment(@Valid @RequestBody AppointmentDto appointmentDto,
-			@RequestParam("appointmentId") long appointmentId) {
-		log.debug(DEBUG, appointmentDto + " " + appointmentId);
-		return new ResponseEntity<>(new SuccessResponse(false, UPDATE_SUCCESS_MESSAGE,
-				appointmentService.updateAppointment(appointmentDto, appointmentId)), HttpStatus.OK);
+			@RequestParam("appointmentId") long appointmentId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + ifMatch);
+		Appointment appointment = appointmentService.updateAppointment(appointmentDto, appointmentId,
+				AppointmentETag.parseIfMatch(ifMatch));
+		return ResponseEntity.ok().eTag(AppointmentETag.format(appointment.getVersion()))
+				.body(new SuccessResponse(false, UPDATE_SUCCESS_MESSAGE, appointment));
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for updating some of
+	 * the details of the particular appointment, without reading it first. The
+	 * details which are not given are left as they are.
+	 * 
+	 * @param appointmentDto This is the object which holds the details which need
+	 *                       to be updated
+	 * @param appointmentId  This is the appointment id of the appointment
+	 * @param ifMatch        This is the optional ETag of the appointment version
+	 *                       which the client has read
+	 * @return This method returns a success response object which contains the
+	 *         error, success message and HTTP status code on successful update of
+	 *         the appointment details, along with the new ETag when the If-Match
+	 *         header is given
+	 */
+	@Operation(summary = "This API used for updating some of the particular appointment details")
+	@PatchMapping("/appointment")
+	public ResponseEntity<SuccessResponse> patchAppointment(@Valid @RequestBody AppointmentPatchDto appointmentDto,
+			@RequestParam("appointmentId") long appointmentId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + ifMatch);
+		Long version = appointmentService.patchAppointment(appointmentDto, appointmentId,
+				AppointmentETag.parseIfMatch(ifMatch));
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (version != null) {
+			response.eTag(AppointmentETag.format(version));
+		}
+		return response.body(new SuccessResponse(false, UPDATE_SUCCESS_MESSAGE, null));
 	}
 
 	/**
@@ -91,37 +170,94 @@ public class AppointmentController {
 	 * 
 	 * @param appointmentId This is the appointment id of the object that needs to
 	 *                      be deleted
+	 * @param ifMatch       This is the optional ETag of the appointment version
+	 *                      which the client has read
 	 * @return This method returns a success response object which contains the
 	 *         error, success message, data which is saved and HTTP status code on
 	 *         successful deletion of the appointment
 	 */
 	@Operation(summary = "This API used for deleting the particular appointment details")
 	@DeleteMapping("/appointment")
-	public ResponseEntity<SuccessResponse> deleteAppointment(@RequestParam("appointmentId") long appointmentId) {
-		log.debug(DEBUG, appointmentId);
-		return new ResponseEntity<>(
-				new SuccessResponse(false, DELETE_SUCCESS_MESSAGE, appointmentService.deleteAppointment(appointmentId)),
+	public ResponseEntity<SuccessResponse> deleteAppointment(@RequestParam("appointmentId") long appointmentId,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		log.debug(DEBUG, appointmentId + " " + ifMatch);
+		return new ResponseEntity<>(new SuccessResponse(false, DELETE_SUCCESS_MESSAGE,
+				appointmentService.deleteAppointment(appointmentId, AppointmentETag.parseIfMatch(ifMatch))),
 				HttpStatus.OK);
 	}
 
+	/**
+	 * This is a controller method of Appointment. It is used for changing one
+	 * occurrence of a recurring appointment, which moves, renames or resizes it
+	 * without changing the other occurrences.
+	 * 
+	 * @param appointmentDto     This is the object which holds the new details of
+	 *                           the occurrence
+	 * @param appointmentId      This is the appointment id of the recurring
+	 *                           appointment
+	 * @param occurrenceDateTime This is the date time the rule gives the
+	 *                           occurrence in MM-dd-yyyy HH:mm:ss
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, data which contains the changed occurrence
+	 *         and HTTP status code
+	 */
+	@Operation(summary = "This API used for changing one occurrence of a recurring appointment")
+	@PutMapping("/appointment/occurrence")
+	public ResponseEntity<SuccessResponse> updateOccurrence(@Valid @RequestBody AppointmentDto appointmentDto,
+			@RequestParam("appointmentId") long appointmentId,
+			@RequestParam @DateTimeFormat(pattern = DATE_TIME_FORMAT) LocalDateTime occurrenceDateTime) {
+		log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + occurrenceDateTime);
+		return new ResponseEntity<>(new SuccessResponse(false, UPDATE_SUCCESS_MESSAGE,
+				appointmentService.updateOccurrence(appointmentDto, appointmentId, occurrenceDateTime)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for cancelling one
+	 * occurrence of a recurring appointment.
+	 * 
+	 * @param appointmentId      This is the appointment id of the recurring
+	 *                           appointment
+	 * @param occurrenceDateTime This is the date time the rule gives the
+	 *                           occurrence in MM-dd-yyyy HH:mm:ss
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, data which contains the cancelled
+	 *         occurrence and HTTP status code
+	 */
+	@Operation(summary = "This API used for cancelling one occurrence of a recurring appointment")
+	@DeleteMapping("/appointment/occurrence")
+	public ResponseEntity<SuccessResponse> cancelOccurrence(@RequestParam("appointmentId") long appointmentId,
+			@RequestParam @DateTimeFormat(pattern = DATE_TIME_FORMAT) LocalDateTime occurrenceDateTime) {
+		log.debug(DEBUG, appointmentId + " " + occurrenceDateTime);
+		return new ResponseEntity<>(new SuccessResponse(false, DELETE_SUCCESS_MESSAGE,
+				appointmentService.cancelOccurrence(appointmentId, occurrenceDateTime)), HttpStatus.OK);
+	}
+
 	/**
 	 * This is a controller method of Appointment. It is used for fetching the
 	 * particular appointment details.
 	 * 
 	 * @param appointmentId This is the appointment id of the object that needs to
 	 *                      be fetched
+	 * @param ifNoneMatch   This is the optional ETag of the appointment version
+	 *                      which the client already has
 	 * @return This method returns a success response object which contains the
 	 *         error, success message, data which contains the respective
 	 *         appointment object fetched based on the id and HTTP status code on
-	 *         successful deletion of the appointment
+	 *         successful deletion of the appointment. The status code will be 304
+	 *         without a body when the client already has the current version.
 	 */
 	@Operation(summary = "This API used for fetching the particular appointment details")
 	@GetMapping("/appointment")
-	public ResponseEntity<SuccessResponse> findAppointmentById(@RequestParam("appointmentId") long appointmentId) {
+	public ResponseEntity<SuccessResponse> findAppointmentById(@RequestParam("appointmentId") long appointmentId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		log.debug(DEBUG, appointmentId);
-		return new ResponseEntity<>(
-				new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointmentService.findAppointmentById(appointmentId)),
-				HttpStatus.OK);
+		AppointmentResponse appointment = appointmentService.findAppointmentById(appointmentId);
+		String eTag = AppointmentETag.format(appointment.getVersion());
+		if (AppointmentETag.matchesIfNoneMatch(ifNoneMatch, appointment.getVersion())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		return ResponseEntity.ok().eTag(eTag).body(new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointment));
 	}
 
 	/**
@@ -145,4 +281,285 @@ public class AppointmentController {
 		} else
 			return new ResponseEntity<>(new SuccessResponse(false, NO_DATA_FOUND, list), HttpStatus.NO_CONTENT);
 	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * appointments based on date range page by page
+	 * 
+	 * @param dto    This is the object which contains the from date time and to
+	 *               date time for filter
+	 * @param cursor This is the cursor of the page which is returned as next
+	 *               cursor of the previous page. It is not passed for the first
+	 *               page
+	 * @param limit  This is the maximum number of appointments in the page
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, page of appointment details along with the
+	 *         cursor of the next page and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the appointment details based on date filter page by page")
+	@PostMapping("/appointment/filter/page")
+	public ResponseEntity<SuccessResponse> getAppointmentPage(@RequestBody AppointmentFilterDto dto,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+		log.debug(DEBUG, dto + " " + cursor + " " + limit);
+		return new ResponseEntity<>(new SuccessResponse(false, GET_SUCCESS_MESSAGE,
+				appointmentService.getAppointmentPage(dto, cursor, limit)), HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for streaming all
+	 * appointments based on date range as newline delimited JSON, one appointment
+	 * per line, without holding the whole result in memory
+	 * 
+	 * @param dto This is the object which contains the from date time and to date
+	 *            time for filter
+	 * @return This method returns the streaming body which writes the appointment
+	 *         details as they are read from the database
+	 */
+	@Operation(summary = "This API used for streaming all the appointment details based on date filter")
+	@PostMapping(value = "/appointment/filter/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllAppointment(@RequestBody AppointmentFilterDto dto) {
+		log.debug(DEBUG, dto);
+		StreamingResponseBody body = outputStream -> {
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+			generator.setRootValueSeparator(null);
+			appointmentService.streamAllAppointment(dto, appointment -> {
+				try {
+					generator.writeObject(appointment);
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generator.flush();
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * statistics of the appointment cache
+	 * 
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, size, hit, miss and eviction counts of the
+	 *         appointment cache and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the statistics of the appointment cache")
+	@GetMapping("/appointment/cache/stats")
+	public ResponseEntity<SuccessResponse> getCacheStats() {
+		return new ResponseEntity<>(new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointmentService.getCacheStats()),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for finding the free
+	 * slots between the from date and the to date, which are the gaps that are not
+	 * taken by any appointment.
+	 * 
+	 * @param fromDate    This is the start of the range in MM-dd-yyyy HH:mm:ss
+	 * @param toDate      This is the end of the range in MM-dd-yyyy HH:mm:ss
+	 * @param minDuration This is the optional minimum length of a slot in
+	 *                    HH:MM:SS
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, list of free slots and HTTP status code
+	 */
+	@Operation(summary = "This API used for finding the free slots between two dates")
+	@GetMapping("/appointment/free-slots")
+	public ResponseEntity<SuccessResponse> getFreeSlots(
+			@RequestParam @DateTimeFormat(pattern = DATE_TIME_FORMAT) LocalDateTime fromDate,
+			@RequestParam @DateTimeFormat(pattern = DATE_TIME_FORMAT) LocalDateTime toDate,
+			@RequestParam(required = false) String minDuration) {
+		return new ResponseEntity<>(new SuccessResponse(false, GET_SUCCESS_MESSAGE,
+				appointmentService.getFreeSlots(fromDate, toDate, minDuration)), HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * number of appointments and their total duration per day, computed in the
+	 * database instead of from the list of all the appointments.
+	 * 
+	 * @param fromDate This is the first day of the report in MM-dd-yyyy
+	 * @param toDate   This is the last day of the report in MM-dd-yyyy
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, count and total duration of every day which
+	 *         has appointments and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the appointment count and total duration per day")
+	@GetMapping("/appointment/reports/daily")
+	public ResponseEntity<SuccessResponse> getDailyReport(
+			@RequestParam @DateTimeFormat(pattern = DATE_FORMAT) LocalDate fromDate,
+			@RequestParam @DateTimeFormat(pattern = DATE_FORMAT) LocalDate toDate) {
+		log.debug(DEBUG, fromDate + " " + toDate);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointmentService.getDailyReport(fromDate, toDate)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * number of appointments and their total duration per week, where the weeks
+	 * start on Monday.
+	 * 
+	 * @param fromDate This is the first day of the report in MM-dd-yyyy
+	 * @param toDate   This is the last day of the report in MM-dd-yyyy
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, count and total duration of every week
+	 *         which has appointments and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the appointment count and total duration per week")
+	@GetMapping("/appointment/reports/weekly")
+	public ResponseEntity<SuccessResponse> getWeeklyReport(
+			@RequestParam @DateTimeFormat(pattern = DATE_FORMAT) LocalDate fromDate,
+			@RequestParam @DateTimeFormat(pattern = DATE_FORMAT) LocalDate toDate) {
+		log.debug(DEBUG, fromDate + " " + toDate);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointmentService.getWeeklyReport(fromDate, toDate)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * change events of the appointments after the given event id, so consumers
+	 * can sync the changes instead of reading all the appointments again
+	 * 
+	 * @param after This is the id of the last event the consumer has seen, 0 for
+	 *              the first page
+	 * @param limit This is the maximum number of events in the page
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, page of events along with the id of the
+	 *         last event and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the appointment change events after an event id")
+	@GetMapping("/appointment/events")
+	public ResponseEntity<SuccessResponse> getAppointmentEvents(
+			@RequestParam(value = "after", defaultValue = "0") long after,
+			@RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+		log.debug(DEBUG, after + " " + limit);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointmentService.getAppointmentEvents(after, limit)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for streaming the
+	 * change events of the appointments as server sent events. The stream starts
+	 * after the given event id, or after the Last-Event-ID header which the
+	 * browser sends when it reconnects
+	 * 
+	 * @param after       This is the id of the last event the consumer has seen
+	 * @param lastEventId This is the id of the last event received before the
+	 *                    reconnect
+	 * @return This method returns the emitter which sends every event as it is
+	 *         committed
+	 */
+	@Operation(summary = "This API used for streaming the appointment change events")
+	@GetMapping(value = "/appointment/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamAppointmentEvents(@RequestParam(value = "after", required = false) Long after,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		log.debug(DEBUG, after + " " + lastEventId);
+		long afterEventId = after != null ? after : lastEventId != null ? lastEventId : 0;
+		return appointmentEventStream.subscribe(afterEventId);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * particular archived appointment details, which are the deleted and long
+	 * past appointments moved out of the appointment table.
+	 * 
+	 * @param appointmentId This is the appointment id of the object that needs to
+	 *                      be fetched
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, data which contains the respective archived
+	 *         appointment object and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the particular archived appointment details")
+	@GetMapping("/appointment/archive")
+	public ResponseEntity<SuccessResponse> findArchivedAppointmentById(
+			@RequestParam("appointmentId") long appointmentId) {
+		log.debug(DEBUG, appointmentId);
+		return new ResponseEntity<>(new SuccessResponse(false, GET_SUCCESS_MESSAGE,
+				appointmentService.findArchivedAppointmentById(appointmentId)), HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for fetching the
+	 * archived appointments based on date range page by page
+	 * 
+	 * @param dto    This is the object which contains the from date time and to
+	 *               date time for filter
+	 * @param cursor This is the cursor of the page which is returned as next
+	 *               cursor of the previous page. It is not passed for the first
+	 *               page
+	 * @param limit  This is the maximum number of appointments in the page
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, page of archived appointment details along
+	 *         with the cursor of the next page and HTTP status code
+	 */
+	@Operation(summary = "This API used for fetching the archived appointment details based on date filter page by page")
+	@PostMapping("/appointment/archive/filter/page")
+	public ResponseEntity<SuccessResponse> getArchivedAppointmentPage(@RequestBody AppointmentFilterDto dto,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+		log.debug(DEBUG, dto + " " + cursor + " " + limit);
+		return new ResponseEntity<>(new SuccessResponse(false, GET_SUCCESS_MESSAGE,
+				appointmentService.getArchivedAppointmentPage(dto, cursor, limit)), HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for creating/ saving
+	 * the appointment details in bulk.
+	 * 
+	 * @param appointmentDtos This is the list of appointment objects which needs
+	 *                        to be saved
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, result of each appointment and HTTP status
+	 *         code
+	 */
+	@Operation(summary = "This API used for creating/ saving the appointment details in bulk")
+	@PostMapping("/appointment/bulk")
+	public ResponseEntity<SuccessResponse> createAppointments(@RequestBody List<AppointmentDto> appointmentDtos) {
+		log.debug(DEBUG, appointmentDtos);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, BULK_SUCCESS_MESSAGE, appointmentService.createAppointments(appointmentDtos)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for updating the
+	 * appointment details in bulk.
+	 * 
+	 * @param appointmentDtos This is the list of appointment ids along with the
+	 *                        appointment objects which needs to be updated
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, result of each appointment and HTTP status
+	 *         code
+	 */
+	@Operation(summary = "This API used for updating the appointment details in bulk")
+	@PutMapping("/appointment/bulk")
+	public ResponseEntity<SuccessResponse> updateAppointments(
+			@RequestBody List<AppointmentBulkUpdateDto> appointmentDtos) {
+		log.debug(DEBUG, appointmentDtos);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, BULK_SUCCESS_MESSAGE, appointmentService.updateAppointments(appointmentDtos)),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * This is a controller method of Appointment. It is used for deleting the
+	 * appointment details in bulk.
+	 * 
+	 * @param appointmentIds This is the list of appointment ids of the objects
+	 *                       that needs to be deleted
+	 * @return This method returns a success response object which contains the
+	 *         error, success message, result of each appointment and HTTP status
+	 *         code
+	 */
+	@Operation(summary = "This API used for deleting the appointment details in bulk")
+	@DeleteMapping("/appointment/bulk")
+	public ResponseEntity<SuccessResponse> deleteAppointments(@RequestBody List<Long> appointmentIds) {
+		log.debug(DEBUG, appointmentIds);
+		return new ResponseEntity<>(
+				new SuccessResponse(false, BULK_SUCCESS_MESSAGE, appointmentService.deleteAppointments(appointmentIds)),
+				HttpStatus.OK);
+	}
 }
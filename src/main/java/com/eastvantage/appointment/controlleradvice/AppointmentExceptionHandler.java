@@ -1,5 +1,11 @@
 package com.eastvantage.appointment.controlleradvice;
 
+import static com.eastvantage.appointment.common.AppointmentCommon.EXCEPTION_COUNTER;
+import static com.eastvantage.appointment.common.AppointmentCommon.VERSION_MISMATCH;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -8,24 +14,88 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyInProgressException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyReusedException;
 import com.eastvantage.appointment.exception.AppointmentNotFoundException;
+import com.eastvantage.appointment.exception.AppointmentOverloadException;
+import com.eastvantage.appointment.exception.AppointmentRateLimitException;
+import com.eastvantage.appointment.exception.AppointmentVersionMismatchException;
 import com.eastvantage.appointment.response.FailureResponse;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @RestControllerAdvice
 public class AppointmentExceptionHandler {
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@ExceptionHandler(value = AppointmentNotFoundException.class)
 	public ResponseEntity<FailureResponse> handleException(AppointmentNotFoundException exception) {
+		count(exception);
 		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()), HttpStatus.BAD_REQUEST);
 	}
 
 	@ExceptionHandler(value = AppointmentException.class)
 	public ResponseEntity<FailureResponse> handleException(AppointmentException exception) {
+		count(exception);
 		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()), HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(value = AppointmentOverloadException.class)
+	public ResponseEntity<FailureResponse> handleException(AppointmentOverloadException exception) {
+		count(exception);
+		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	/**
+	 * This is the handler of the requests beyond the rate of their client or of
+	 * all the clients, which tells the client when to try again
+	 */
+	@ExceptionHandler(value = AppointmentRateLimitException.class)
+	public ResponseEntity<FailureResponse> handleException(AppointmentRateLimitException exception) {
+		count(exception);
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+				.body(new FailureResponse(true, exception.getMessage()));
+	}
+
+	/**
+	 * This is the handler of the create requests which reuse an idempotency key
+	 * with another appointment
+	 */
+	@ExceptionHandler(value = AppointmentIdempotencyKeyReusedException.class)
+	public ResponseEntity<FailureResponse> handleException(AppointmentIdempotencyKeyReusedException exception) {
+		count(exception);
+		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()),
+				HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@ExceptionHandler(value = AppointmentIdempotencyKeyInProgressException.class)
+	public ResponseEntity<FailureResponse> handleException(AppointmentIdempotencyKeyInProgressException exception) {
+		count(exception);
+		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()), HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(value = AppointmentVersionMismatchException.class)
+	public ResponseEntity<FailureResponse> handleException(AppointmentVersionMismatchException exception) {
+		count(exception);
+		return new ResponseEntity<>(new FailureResponse(true, exception.getMessage()), HttpStatus.PRECONDITION_FAILED);
+	}
+
+	/**
+	 * This is the handler of the updates which lost the race against another
+	 * update of the same appointment, which the version column detects on commit
+	 */
+	@ExceptionHandler(value = OptimisticLockingFailureException.class)
+	public ResponseEntity<FailureResponse> handleException(OptimisticLockingFailureException exception) {
+		count(exception);
+		return new ResponseEntity<>(new FailureResponse(true, VERSION_MISMATCH), HttpStatus.CONFLICT);
+	}
+
 	@ExceptionHandler(value = MethodArgumentNotValidException.class)
 	public ResponseEntity<FailureResponse> customValidationErrorHandling(MethodArgumentNotValidException exception) {
+		count(exception);
 		FailureResponse response = new FailureResponse();
 		FieldError fieldError = exception.getFieldError();
 		if (fieldError != null) {
@@ -34,4 +104,12 @@ public class AppointmentExceptionHandler {
 		}
 		return new ResponseEntity<>(response, HttpStatus.EXPECTATION_FAILED);
 	}
+
+	/**
+	 * This is a private method which counts the exceptions handled by this
+	 * advice, tagged with the type of the exception
+	 */
+	private void count(Exception exception) {
+		meterRegistry.counter(EXCEPTION_COUNTER, "exception", exception.getClass().getSimpleName()).increment();
+	}
 }
@@ -0,0 +1,16 @@
+package com.eastvantage.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBulkUpdateDto {
+
+	private long appointmentId;
+
+	private AppointmentDto appointment;
+
+}
@@ -2,9 +2,12 @@ package com.eastvantage.appointment.dto;
 
 import java.time.LocalDateTime;
 
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+import static com.eastvantage.appointment.common.AppointmentCommon.INVALID_DURATION;
+
 import javax.validation.constraints.FutureOrPresent;
-import javax.validation.constraints.Pattern;
 
+import com.eastvantage.appointment.validation.AppointmentDuration;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import lombok.AllArgsConstructor;
@@ -17,12 +20,15 @@ import lombok.NoArgsConstructor;
 public class AppointmentDto {
 
 	@FutureOrPresent(message = "Provide A Valid Future Date")
-	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "MM-dd-yyyy HH:mm:ss")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
 	private LocalDateTime appointmentDateTime;
 
 	private String appointmentName;
 
-	@Pattern(regexp = "(?:[01]\\d|2[0123]):(?:[012345]\\d):(?:[012345]\\d)", message = "Provide duration in the format of HH:MM:SS")
+	@AppointmentDuration(message = INVALID_DURATION)
 	private String appointmentDuration;
 
+	// given to make the appointment repeat
+	private AppointmentRecurrenceDto recurrence;
+
 }
@@ -0,0 +1,35 @@
+package com.eastvantage.appointment.dto;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+import static com.eastvantage.appointment.common.AppointmentCommon.INVALID_DURATION;
+
+import java.time.LocalDateTime;
+
+import javax.validation.constraints.FutureOrPresent;
+
+import com.eastvantage.appointment.validation.AppointmentDuration;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the partial update of the appointment. Only the fields which are
+ * given are updated, the fields which are left out keep their value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPatchDto {
+
+	@FutureOrPresent(message = "Provide A Valid Future Date")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	@AppointmentDuration(message = INVALID_DURATION)
+	private String appointmentDuration;
+
+}
@@ -0,0 +1,33 @@
+package com.eastvantage.appointment.dto;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
+import java.time.LocalDateTime;
+
+import com.eastvantage.appointment.entity.AppointmentFrequency;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the recurrence rule of the appointment as it is received and
+ * returned by the api. The interval defaults to 1 when it is not given, and
+ * the appointment repeats without an end when the until date time is not
+ * given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentRecurrenceDto {
+
+	private AppointmentFrequency frequency;
+
+	private Integer interval;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime until;
+}
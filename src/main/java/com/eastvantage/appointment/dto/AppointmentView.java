@@ -0,0 +1,35 @@
+package com.eastvantage.appointment.dto;
+
+import java.time.LocalDateTime;
+
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the read only projection of the appointment. It is built directly
+ * from the selected columns, so the rows read through it are never attached to
+ * the persistence context or dirty checked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentView {
+
+	private long appointmentId;
+
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	private long appointmentDuration;
+
+	private boolean isDelete;
+
+	private long version;
+
+	// null unless the appointment repeats
+	private AppointmentRecurrence recurrence;
+}
@@ -1,14 +1,22 @@
 package com.eastvantage.appointment.entity;
 
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
 import java.time.LocalDateTime;
 
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,14 +26,16 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = @Index(name = "idx_appointment_delete_date_time",
+		columnList = "isDelete, appointmentDateTime, appointmentId"))
 public class Appointment {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_sequence")
+	@SequenceGenerator(name = "appointment_sequence", sequenceName = "appointment_sequence", allocationSize = 50)
 	private long appointmentId;
 
-	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "MM-dd-yyyy HH:mm:ss")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
 	private LocalDateTime appointmentDateTime;
 
 	private String appointmentName;
@@ -33,4 +43,15 @@ public class Appointment {
 	private long appointmentDuration;
 
 	private boolean isDelete;
+
+	// incremented on every update, it is handed to the clients as the ETag of the
+	// appointment rather than in the body
+	@Version
+	@JsonIgnore
+	private long version;
+
+	// null unless the appointment repeats
+	@Embedded
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private AppointmentRecurrence recurrence;
 }
@@ -0,0 +1,32 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the per day summary of the appointments which are not deleted,
+ * counted on the day they start. It is refreshed from the appointment table
+ * for the days which are changed, so the reports read one row per day instead
+ * of every appointment.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_daily_summary")
+public class AppointmentDailySummary {
+
+	@Id
+	private LocalDate summaryDate;
+
+	private long appointmentCount;
+
+	private long totalDuration;
+}
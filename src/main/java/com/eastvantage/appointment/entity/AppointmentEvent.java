@@ -0,0 +1,49 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the outbox entity of the appointment changes. An event is written in
+ * the transaction of the change and holds the state of the appointment after
+ * the change. The event id is the sequence number consumers read from, and
+ * the events are committed in the order of their event id. The event of a
+ * change of one occurrence of a recurring appointment holds the state of that
+ * occurrence, along with the date time its rule gives it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_event")
+public class AppointmentEvent {
+
+	// assigned from the event counter when the transaction commits
+	@Id
+	private long eventId;
+
+	@Enumerated(EnumType.STRING)
+	private AppointmentEventType eventType;
+
+	private long appointmentId;
+
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	private long appointmentDuration;
+
+	// null unless the event is of one occurrence of a recurring appointment
+	private LocalDateTime occurrenceDateTime;
+
+	private LocalDateTime createdAt;
+}
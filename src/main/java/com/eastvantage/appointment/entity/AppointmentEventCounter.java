@@ -0,0 +1,28 @@
+package com.eastvantage.appointment.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the counter of the appointment event ids. It is a single row, and a
+ * transaction holds its lock from the moment it takes its event ids until it
+ * commits, so the event ids of all the instances are taken in the order of
+ * their commit.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_event_counter")
+public class AppointmentEventCounter {
+
+	@Id
+	private int counterId;
+
+	private long lastEventId;
+}
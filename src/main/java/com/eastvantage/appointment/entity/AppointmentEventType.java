@@ -0,0 +1,5 @@
+package com.eastvantage.appointment.entity;
+
+public enum AppointmentEventType {
+	CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,14 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.temporal.ChronoUnit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum AppointmentFrequency {
+	DAILY(ChronoUnit.DAYS), WEEKLY(ChronoUnit.WEEKS), MONTHLY(ChronoUnit.MONTHS);
+
+	private final ChronoUnit unit;
+}
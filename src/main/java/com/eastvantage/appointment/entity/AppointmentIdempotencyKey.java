@@ -0,0 +1,43 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the entity of an idempotency key of a create request, kept by the
+ * database mode of the idempotency store. The response columns are null while
+ * the request of the key is in progress.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_idempotency_key",
+		indexes = @Index(name = "idx_appointment_idempotency_created_at", columnList = "createdAt"))
+public class AppointmentIdempotencyKey {
+
+	@Id
+	private String idempotencyKey;
+
+	@Column(length = 64)
+	private String fingerprint;
+
+	private Integer responseStatus;
+
+	private String responseEtag;
+
+	@Lob
+	private String responseBody;
+
+	private LocalDateTime createdAt;
+}
@@ -0,0 +1,57 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is an occurrence of a recurring appointment which differs from its
+ * rule: it is cancelled, or moved, renamed or resized. Only these occurrences
+ * are stored, keyed by the appointment and the date time the rule gives them,
+ * the others are computed from the rule.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_occurrence",
+		uniqueConstraints = @UniqueConstraint(name = "uk_appointment_occurrence",
+				columnNames = { "appointmentId", "occurrenceDateTime" }),
+		indexes = @Index(name = "idx_appointment_occurrence_date_time", columnList = "appointmentDateTime"))
+public class AppointmentOccurrence {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_occurrence_sequence")
+	@SequenceGenerator(name = "appointment_occurrence_sequence", sequenceName = "appointment_occurrence_sequence",
+			allocationSize = 50)
+	private long occurrenceId;
+
+	private long appointmentId;
+
+	// the date time the rule gives the occurrence
+	private LocalDateTime occurrenceDateTime;
+
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	private long appointmentDuration;
+
+	// true when the occurrence is cancelled
+	private boolean isDelete;
+
+	@Version
+	private long version;
+}
@@ -0,0 +1,35 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the recurrence rule of an appointment. The appointment repeats every
+ * interval days, weeks or months from its date time up to the until date time,
+ * or without an end when it is not given. The rule is stored once with the
+ * appointment and its occurrences are only computed when they are read.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentRecurrence {
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "recurrence_frequency")
+	private AppointmentFrequency frequency;
+
+	@Column(name = "recurrence_interval")
+	private Integer interval;
+
+	@Column(name = "recurrence_until")
+	private LocalDateTime until;
+}
@@ -0,0 +1,47 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is an appointment which was moved out of the appointment table by the
+ * archiver, because it was deleted or is long over. It keeps the appointment
+ * id, so it is still found by the id it was created with, and the rule of a
+ * recurring appointment, whose stored occurrences are archived with it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_archive", indexes = @Index(name = "idx_appointment_archive_date_time",
+		columnList = "appointmentDateTime, appointmentId"))
+public class ArchivedAppointment {
+
+	@Id
+	private long appointmentId;
+
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	private long appointmentDuration;
+
+	private boolean isDelete;
+
+	private long version;
+
+	private LocalDateTime archivedAt;
+
+	// null unless the appointment repeats
+	@Embedded
+	private AppointmentRecurrence recurrence;
+}
@@ -0,0 +1,50 @@
+package com.eastvantage.appointment.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a stored occurrence of a recurring appointment which was moved out
+ * of the appointment occurrence table by the archiver along with its
+ * appointment, so the archived appointment keeps the occurrences which differ
+ * from its rule.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "appointment_occurrence_archive",
+		indexes = { @Index(name = "idx_appointment_occurrence_archive_appointment",
+				columnList = "appointmentId, occurrenceDateTime"),
+				@Index(name = "idx_appointment_occurrence_archive_date_time", columnList = "appointmentDateTime") })
+public class ArchivedAppointmentOccurrence {
+
+	@Id
+	private long occurrenceId;
+
+	private long appointmentId;
+
+	// the date time the rule gives the occurrence
+	private LocalDateTime occurrenceDateTime;
+
+	private LocalDateTime appointmentDateTime;
+
+	private String appointmentName;
+
+	private long appointmentDuration;
+
+	// true when the occurrence is cancelled
+	private boolean isDelete;
+
+	private long version;
+
+	private LocalDateTime archivedAt;
+}
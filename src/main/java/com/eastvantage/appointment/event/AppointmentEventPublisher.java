@@ -0,0 +1,169 @@
+package com.eastvantage.appointment.event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentEvent;
+import com.eastvantage.appointment.entity.AppointmentEventCounter;
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.repository.AppointmentEventCounterRepository;
+import com.eastvantage.appointment.repository.AppointmentEventRepository;
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the outbox of the appointment changes. The service publishes an event
+ * for every change in the transaction of the change, and consumers read the
+ * events in the order of their event id.
+ *
+ * A reader moves past every event id it has seen, so an event must never
+ * commit after an event with a higher id. The ids are therefore not taken from
+ * a sequence, but from the row of the appointment_event_counter table, right
+ * before the transaction commits. The update of the row locks it until the
+ * commit, so the transaction of another instance which takes its ids waits for
+ * the commit and gets higher ids, and the ids of a transaction which rolls back
+ * are taken again by the next one. The events are written last, so no other
+ * lock is taken while the row is locked. The events of all the instances are
+ * written one transaction at a time, which is the price of their order.
+ */
+@Component
+@Slf4j
+public class AppointmentEventPublisher {
+
+	private static final int COUNTER_ID = 1;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private AppointmentEventRepository appointmentEventRepository;
+
+	@Autowired
+	private AppointmentEventCounterRepository appointmentEventCounterRepository;
+
+	@Autowired
+	private AppointmentMapper appointmentMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * This method is used to create the row of the event counter when it is
+	 * missing, starting after the events which are already stored
+	 */
+	@PostConstruct
+	public void init() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				if (!appointmentEventCounterRepository.existsById(COUNTER_ID)) {
+					entityManager.persist(
+							new AppointmentEventCounter(COUNTER_ID, appointmentEventRepository.findMaxEventId()));
+				}
+			});
+		} catch (DataIntegrityViolationException e) {
+			log.debug("The appointment event counter was created by another instance");
+		}
+	}
+
+	/**
+	 * This method is used to write the event of a change of the appointment in
+	 * the current transaction
+	 */
+	public void publish(AppointmentEventType eventType, Appointment appointment) {
+		AppointmentEvent event = appointmentMapper.toEvent(eventType, appointment);
+		writeBeforeCommit(eventId -> {
+			event.setEventId(eventId);
+			entityManager.persist(event);
+		});
+	}
+
+	/**
+	 * This method is used to write the event of a change of one occurrence of a
+	 * recurring appointment in the current transaction
+	 */
+	public void publish(AppointmentEventType eventType, AppointmentOccurrence occurrence) {
+		AppointmentEvent event = appointmentMapper.toEvent(eventType, occurrence);
+		writeBeforeCommit(eventId -> {
+			event.setEventId(eventId);
+			entityManager.persist(event);
+		});
+	}
+
+	/**
+	 * This method is used to write the event of a change of the appointment in
+	 * the current transaction when the appointment is not loaded, like after a
+	 * partial update. The state of the appointment is copied into the event by
+	 * the insert statement itself, so it is not read first.
+	 */
+	public void publishCurrentState(AppointmentEventType eventType, long appointmentId) {
+		LocalDateTime createdAt = LocalDateTime.now();
+		writeBeforeCommit(eventId -> appointmentEventRepository.insertEventOfAppointment(eventId, eventType.name(),
+				appointmentId, createdAt));
+	}
+
+	/**
+	 * This method is used to read the committed events after the given event id
+	 *
+	 * @return This will return at most limit events in the order of their event
+	 *         id
+	 */
+	public List<AppointmentEventResponse> findEvents(long afterEventId, int limit) {
+		return appointmentEventRepository.findEventsAfter(afterEventId, PageRequest.of(0, limit)).stream()
+				.map(appointmentMapper::toResponse).collect(Collectors.toList());
+	}
+
+	/**
+	 * This is a private method which holds an event of the current transaction
+	 * until the transaction is about to commit. The events of the transaction
+	 * are then given consecutive ids from the event counter and written in the
+	 * order they were published.
+	 */
+	@SuppressWarnings("unchecked")
+	private void writeBeforeCommit(LongConsumer event) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Appointment events must be published within a transaction");
+		}
+		List<LongConsumer> events = (List<LongConsumer>) TransactionSynchronizationManager.getResource(this);
+		if (events == null) {
+			List<LongConsumer> pending = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					appointmentEventCounterRepository.incrementLastEventId(COUNTER_ID, pending.size());
+					long eventId = appointmentEventCounterRepository.findLastEventId(COUNTER_ID) - pending.size();
+					for (LongConsumer write : pending) {
+						write.accept(++eventId);
+					}
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(AppointmentEventPublisher.this);
+				}
+			});
+			events = pending;
+		}
+		events.add(event);
+	}
+}
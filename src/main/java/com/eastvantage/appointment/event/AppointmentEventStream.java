@@ -0,0 +1,179 @@
+package com.eastvantage.appointment.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the server sent event stream of the appointment changes. Every
+ * subscriber has its own cursor, the id of the last event it was sent. The
+ * dispatcher reads the outbox from the lowest cursor and hands each subscriber
+ * the events after its own cursor. A subscriber whose cursor is past the
+ * events read is served by the next read from its cursor, so the number of
+ * queries grows with the number of distinct cursors, not subscribers, and a
+ * subscriber which is far behind never holds back the ones at the head.
+ * <p>
+ * The events are sent on a thread of the subscriber, one send at a time, so a
+ * client which does not read its stream only stalls itself. A subscriber which
+ * is handed a full batch reads the following batches on its own thread until
+ * it reaches the head.
+ */
+@Component
+@Slf4j
+public class AppointmentEventStream {
+
+	private static final int DISPATCH_BATCH_SIZE = 500;
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private final ExecutorService senders = Executors
+			.newCachedThreadPool(new CustomizableThreadFactory("appointment-events-"));
+
+	@Autowired
+	private AppointmentEventPublisher appointmentEventPublisher;
+
+	@Value("${appointment.events.stream-timeout:PT30M}")
+	private Duration streamTimeout;
+
+	@Value("${appointment.events.heartbeat-interval:PT15S}")
+	private Duration heartbeatInterval;
+
+	@PreDestroy
+	public void destroy() {
+		senders.shutdownNow();
+	}
+
+	/**
+	 * This method is used to subscribe to the events after the given event id
+	 * 
+	 * @return This will return the emitter of the subscription
+	 */
+	public SseEmitter subscribe(long afterEventId) {
+		SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+		Subscriber subscriber = new Subscriber(emitter, afterEventId);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * This method is used to send the new events to the subscribers. The
+	 * subscribers which are not sending already are taken in the order of their
+	 * cursors, and one batch is read for all the subscribers whose cursor falls
+	 * within it.
+	 */
+	@Scheduled(fixedDelayString = "${appointment.events.dispatch-interval:PT0.5S}")
+	public void dispatch() {
+		List<Subscriber> idle = subscribers.stream().filter(subscriber -> !subscriber.sending.get())
+				.sorted(Comparator.comparingLong(Subscriber::getCursor)).collect(Collectors.toList());
+		int next = 0;
+		while (next < idle.size()) {
+			List<AppointmentEventResponse> events = appointmentEventPublisher.findEvents(idle.get(next).cursor,
+					DISPATCH_BATCH_SIZE);
+			boolean full = events.size() == DISPATCH_BATCH_SIZE;
+			long lastEventId = events.isEmpty() ? Long.MAX_VALUE : events.get(events.size() - 1).getEventId();
+			// the subscribers at or past the last event are served by the next read
+			while (next < idle.size() && (idle.get(next).cursor < lastEventId || !full)) {
+				Subscriber subscriber = idle.get(next++);
+				List<AppointmentEventResponse> pending = events.stream()
+						.filter(event -> event.getEventId() > subscriber.cursor).collect(Collectors.toList());
+				send(subscriber, pending, full);
+			}
+		}
+	}
+
+	/**
+	 * This is a private method which sends the events to a subscriber on its
+	 * thread, or a heartbeat when it was sent nothing for a while. When the
+	 * events end a full batch, the following batches are read and sent until
+	 * the subscriber reaches the head.
+	 */
+	private void send(Subscriber subscriber, List<AppointmentEventResponse> events, boolean full) {
+		if (events.isEmpty() && System.nanoTime() - subscriber.lastSent < heartbeatInterval.toNanos()) {
+			return;
+		}
+		subscriber.sending.set(true);
+		try {
+			senders.execute(() -> {
+				try {
+					List<AppointmentEventResponse> batch = events;
+					boolean more = full;
+					send(subscriber, batch);
+					while (more) {
+						batch = appointmentEventPublisher.findEvents(subscriber.cursor, DISPATCH_BATCH_SIZE);
+						more = batch.size() == DISPATCH_BATCH_SIZE;
+						send(subscriber, batch);
+					}
+				} catch (IOException | IllegalStateException e) {
+					log.debug("Dropping the event subscriber", e);
+					subscribers.remove(subscriber);
+					subscriber.emitter.completeWithError(e);
+				} finally {
+					subscriber.sending.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			subscriber.sending.set(false);
+		}
+	}
+
+	private void send(Subscriber subscriber, List<AppointmentEventResponse> events) throws IOException {
+		for (AppointmentEventResponse event : events) {
+			subscriber.emitter.send(SseEmitter.event().id(String.valueOf(event.getEventId()))
+					.name(event.getEventType().name()).data(event, MediaType.APPLICATION_JSON));
+			subscriber.cursor = event.getEventId();
+			subscriber.lastSent = System.nanoTime();
+		}
+		if (System.nanoTime() - subscriber.lastSent >= heartbeatInterval.toNanos()) {
+			subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+			subscriber.lastSent = System.nanoTime();
+		}
+	}
+
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final AtomicBoolean sending = new AtomicBoolean();
+
+		private volatile long cursor;
+
+		private volatile long lastSent = System.nanoTime();
+
+		Subscriber(SseEmitter emitter, long cursor) {
+			this.emitter = emitter;
+			this.cursor = cursor;
+		}
+
+		long getCursor() {
+			return cursor;
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package com.eastvantage.appointment.exception;
+
+@SuppressWarnings("serial")
+public class AppointmentIdempotencyKeyInProgressException extends RuntimeException {
+	public AppointmentIdempotencyKeyInProgressException(String message) {
+		super(message);
+	}
+}
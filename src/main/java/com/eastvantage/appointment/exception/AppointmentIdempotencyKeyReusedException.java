@@ -0,0 +1,8 @@
+package com.eastvantage.appointment.exception;
+
+@SuppressWarnings("serial")
+public class AppointmentIdempotencyKeyReusedException extends RuntimeException {
+	public AppointmentIdempotencyKeyReusedException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,8 @@
+package com.eastvantage.appointment.exception;
+
+@SuppressWarnings("serial")
+public class AppointmentOverloadException extends RuntimeException {
+	public AppointmentOverloadException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,16 @@
+package com.eastvantage.appointment.exception;
+
+import lombok.Getter;
+
+@Getter
+@SuppressWarnings("serial")
+public class AppointmentRateLimitException extends RuntimeException {
+
+	// seconds after which the client may try again
+	private final long retryAfterSeconds;
+
+	public AppointmentRateLimitException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
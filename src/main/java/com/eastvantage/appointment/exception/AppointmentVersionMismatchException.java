@@ -0,0 +1,8 @@
+package com.eastvantage.appointment.exception;
+
+@SuppressWarnings("serial")
+public class AppointmentVersionMismatchException extends RuntimeException {
+	public AppointmentVersionMismatchException(String message) {
+		super(message);
+	}
+}
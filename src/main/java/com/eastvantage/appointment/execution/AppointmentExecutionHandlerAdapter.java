@@ -0,0 +1,61 @@
+package com.eastvantage.appointment.execution;
+
+import java.lang.reflect.Method;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import com.eastvantage.appointment.response.SuccessResponse;
+
+/**
+ * This is the handler adapter of the async and virtual execution modes. The
+ * controller methods which answer with a success response are run by the
+ * request executor, and a deferred result which it returns is handled by the
+ * async support of Spring MVC as if the method had returned it. The streaming
+ * methods are left out, they are async on their own.
+ */
+public class AppointmentExecutionHandlerAdapter extends RequestMappingHandlerAdapter {
+
+	private final AppointmentRequestExecutor appointmentRequestExecutor;
+
+	public AppointmentExecutionHandlerAdapter(AppointmentRequestExecutor appointmentRequestExecutor) {
+		this.appointmentRequestExecutor = appointmentRequestExecutor;
+	}
+
+	@Override
+	protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+		if (!isExecuted(handlerMethod.getMethod())) {
+			return super.createInvocableHandlerMethod(handlerMethod);
+		}
+		return new ExecutedHandlerMethod(handlerMethod);
+	}
+
+	private static boolean isExecuted(Method method) {
+		ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+		return ResponseEntity.class.equals(returnType.resolve())
+				&& SuccessResponse.class.equals(returnType.getGeneric(0).resolve());
+	}
+
+	/**
+	 * This is the controller method which is invoked through the request
+	 * executor
+	 */
+	private final class ExecutedHandlerMethod extends ServletInvocableHandlerMethod {
+
+		ExecutedHandlerMethod(HandlerMethod handlerMethod) {
+			super(handlerMethod);
+		}
+
+		@Override
+		protected Object doInvoke(Object... args) throws Exception {
+			return appointmentRequestExecutor.execute(() -> invoke(args));
+		}
+
+		private Object invoke(Object... args) throws Exception {
+			return super.doInvoke(args);
+		}
+	}
+}
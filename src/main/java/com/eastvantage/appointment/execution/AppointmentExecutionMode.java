@@ -0,0 +1,14 @@
+package com.eastvantage.appointment.execution;
+
+/**
+ * This is the mode in which the appointment requests are handled.
+ * 
+ * SYNC handles a request on the Tomcat thread which received it. ASYNC hands
+ * it to a bounded executor and frees the Tomcat thread, rejecting the request
+ * when the queue of the executor is full. VIRTUAL runs the Tomcat request
+ * processing on virtual threads, with a limit on the requests in flight, and
+ * needs Java 21 or later at runtime.
+ */
+public enum AppointmentExecutionMode {
+	SYNC, ASYNC, VIRTUAL
+}
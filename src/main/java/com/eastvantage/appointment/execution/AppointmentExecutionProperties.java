@@ -0,0 +1,25 @@
+package com.eastvantage.appointment.execution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * This is the configuration of the request execution mode, bound from the
+ * appointment.execution properties
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.execution")
+public class AppointmentExecutionProperties {
+
+	private AppointmentExecutionMode mode = AppointmentExecutionMode.SYNC;
+
+	// number of threads of the async executor
+	private int threads = 50;
+
+	// number of requests which may wait for a thread of the async executor
+	private int queueCapacity = 200;
+
+	// number of requests which may be in flight in the virtual mode
+	private int maxConcurrentRequests = 1000;
+}
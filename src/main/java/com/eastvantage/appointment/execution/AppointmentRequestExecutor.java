@@ -0,0 +1,98 @@
+package com.eastvantage.appointment.execution;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.SERVICE_OVERLOADED;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.eastvantage.appointment.exception.AppointmentOverloadException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the executor of the controller methods in the async and virtual
+ * execution modes, and it is not created in the sync mode. It runs a method
+ * according to the mode and admits only as many requests as the mode allows,
+ * so a burst is answered with a service unavailable response instead of
+ * piling up behind the database.
+ */
+@Slf4j
+public class AppointmentRequestExecutor {
+
+	@Autowired
+	private AppointmentExecutionProperties properties;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private Semaphore permits;
+
+	@PostConstruct
+	public void init() {
+		log.info("Appointment requests are handled in the {} execution mode", properties.getMode());
+		if (properties.getMode() == AppointmentExecutionMode.ASYNC) {
+			executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(properties.getThreads());
+			executor.setMaxPoolSize(properties.getThreads());
+			executor.setQueueCapacity(properties.getQueueCapacity());
+			executor.setThreadNamePrefix("appointment-async-");
+			executor.initialize();
+		} else if (properties.getMode() == AppointmentExecutionMode.VIRTUAL) {
+			permits = new Semaphore(properties.getMaxConcurrentRequests());
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * This method is used to run a controller method. In the async mode it runs
+	 * on the bounded executor and its result is returned as a deferred result,
+	 * which frees the Tomcat thread. In the virtual mode it runs on the request
+	 * thread, which is virtual already.
+	 * 
+	 * @return This will return the result of the method, or its deferred result
+	 *         in the async mode. An overload exception is thrown when the
+	 *         request is not admitted.
+	 */
+	public Object execute(Callable<Object> request) throws Exception {
+		switch (properties.getMode()) {
+		case ASYNC:
+			DeferredResult<Object> result = new DeferredResult<>();
+			try {
+				executor.execute(() -> {
+					try {
+						result.setResult(request.call());
+					} catch (Exception e) {
+						result.setErrorResult(e);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				throw new AppointmentOverloadException(SERVICE_OVERLOADED);
+			}
+			return result;
+		case VIRTUAL:
+			if (!permits.tryAcquire()) {
+				throw new AppointmentOverloadException(SERVICE_OVERLOADED);
+			}
+			try {
+				return request.call();
+			} finally {
+				permits.release();
+			}
+		default:
+			return request.call();
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.eastvantage.appointment.idempotency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * This is the configuration of the idempotency keys of the create requests,
+ * bound from the appointment.idempotency properties
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.idempotency")
+public class AppointmentIdempotencyProperties {
+
+	private boolean enabled = true;
+
+	private AppointmentIdempotencyStoreMode store = AppointmentIdempotencyStoreMode.MEMORY;
+
+	// time for which a key is remembered after its request, a retry after it
+	// creates a new appointment
+	private Duration ttl = Duration.ofHours(24);
+
+	// time after which a key whose request has not completed is claimed again,
+	// as the instance which claimed it has stopped; longer than any create
+	private Duration claimTimeout = Duration.ofMinutes(1);
+
+	// number of keys kept in memory, the least recently used ones are dropped
+	// beyond it
+	private long maxKeys = 100000;
+}
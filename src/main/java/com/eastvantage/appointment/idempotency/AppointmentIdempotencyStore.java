@@ -0,0 +1,312 @@
+package com.eastvantage.appointment.idempotency;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eastvantage.appointment.entity.AppointmentIdempotencyKey;
+import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyInProgressException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyReusedException;
+import com.eastvantage.appointment.repository.AppointmentIdempotencyKeyRepository;
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the deduplication store of the create requests which carry an
+ * Idempotency-Key header. The first request of a key runs and its response is
+ * remembered for the configured time, so a retry of the key is answered with
+ * the same response without creating the appointment again. A key is bound to
+ * the fingerprint of its request body, and a request which reuses it with
+ * another body is rejected.
+ *
+ * The keys are held in a bounded map which drops the keys past their time and
+ * the least recently used ones beyond its size. The map holds the future of
+ * the response, so a duplicate which arrives while the first request is still
+ * running blocks on that future, and the only point where the duplicates meet
+ * is the atomic insert of the key into the map. A request which fails releases
+ * its key, so it can be retried. In the database mode the key is claimed in
+ * the appointment_idempotency_key table as well, whose primary key settles the
+ * duplicates of all the instances, and the response is written to it in the
+ * transaction which creates the appointment, so the appointment is never
+ * committed without the response of its key. A key whose request has not
+ * completed within the claim timeout is claimed again, as the instance which
+ * claimed it has stopped, and the request which claimed it first can then no
+ * longer commit.
+ */
+@Component
+@Slf4j
+public class AppointmentIdempotencyStore {
+
+	@Autowired
+	private AppointmentIdempotencyProperties properties;
+
+	@Autowired
+	private AppointmentIdempotencyKeyRepository appointmentIdempotencyKeyRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, Entry> entries;
+
+	private TransactionTemplate transactionTemplate;
+
+	private Counter replays;
+
+	@PostConstruct
+	public void init() {
+		entries = Caffeine.newBuilder().maximumSize(properties.getMaxKeys()).expireAfterWrite(properties.getTtl())
+				.recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, entries, IDEMPOTENCY_CACHE);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		replays = meterRegistry.counter(IDEMPOTENT_REPLAY_COUNTER);
+	}
+
+	/**
+	 * This method is used to run a create request once per idempotency key. The
+	 * request runs when the key is new, otherwise the response of the first
+	 * request of the key is returned with the Idempotent-Replayed header.
+	 *
+	 * @param idempotencyKey This is the key sent by the client, the request runs
+	 *                       on its own when it is null
+	 * @param request        This is the body of the request, whose fingerprint
+	 *                       the key is bound to
+	 * @param create         This is the request
+	 * @return This will return the response
+	 */
+	public ResponseEntity<SuccessResponse> execute(String idempotencyKey, Object request,
+			Supplier<ResponseEntity<SuccessResponse>> create) {
+		if (!properties.isEnabled() || idempotencyKey == null) {
+			return create.get();
+		}
+		if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+			throw new AppointmentException(INVALID_IDEMPOTENCY_KEY);
+		}
+		Entry entry = new Entry(fingerprint(request), new CompletableFuture<>());
+		Entry existing = entries.asMap().putIfAbsent(idempotencyKey, entry);
+		if (existing != null) {
+			return replay(existing, entry.getFingerprint());
+		}
+
+		LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		boolean claimed = false;
+		ResponseEntity<SuccessResponse> response;
+		try {
+			if (properties.getStore() == AppointmentIdempotencyStoreMode.DATABASE) {
+				AppointmentIdempotencyKey stored = claim(idempotencyKey, entry.getFingerprint(), claimedAt);
+				if (stored != null) {
+					entry.getResponse().complete(toResponse(stored));
+					return replay(entry, entry.getFingerprint());
+				}
+				claimed = true;
+				// the create joins this transaction, so it commits with its response
+				response = transactionTemplate.execute(status -> {
+					ResponseEntity<SuccessResponse> created = create.get();
+					store(idempotencyKey, claimedAt, created);
+					return created;
+				});
+			} else {
+				response = create.get();
+			}
+		} catch (RuntimeException | Error e) {
+			release(idempotencyKey, entry, claimed ? claimedAt : null, e);
+			throw e;
+		}
+		entry.getResponse().complete(response);
+		return response;
+	}
+
+	/**
+	 * This method is used to delete the keys which are past their time from the
+	 * database, the map drops them on its own
+	 */
+	@Scheduled(fixedDelayString = "${appointment.idempotency.purge-interval:PT10M}",
+			initialDelayString = "${appointment.idempotency.purge-interval:PT10M}")
+	public void purge() {
+		if (!properties.isEnabled() || properties.getStore() != AppointmentIdempotencyStoreMode.DATABASE) {
+			return;
+		}
+		LocalDateTime before = LocalDateTime.now().minus(properties.getTtl());
+		Integer deleted = transactionTemplate
+				.execute(status -> appointmentIdempotencyKeyRepository.deleteCreatedBefore(before));
+		log.debug("Deleted {} idempotency keys created before {}", deleted, before);
+	}
+
+	/**
+	 * This is a private method which returns the response of the first request
+	 * of a key to a request with the same fingerprint, waiting for it when it is
+	 * still running. A failure of the first request is thrown as it is.
+	 *
+	 * @return This will return the response marked as replayed
+	 */
+	private ResponseEntity<SuccessResponse> replay(Entry entry, String fingerprint) {
+		if (!entry.getFingerprint().equals(fingerprint)) {
+			throw new AppointmentIdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED);
+		}
+		ResponseEntity<SuccessResponse> response;
+		try {
+			response = entry.getResponse().join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+		replays.increment();
+		return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+				.header(IDEMPOTENT_REPLAYED_HEADER, "true").body(response.getBody());
+	}
+
+	/**
+	 * This is a private method which claims the key in the database. A key which
+	 * is already there and past its time, or whose request has not completed
+	 * within the claim timeout, is claimed again.
+	 *
+	 * @return This will return null when the key is claimed, or the stored key
+	 *         when its request has already completed
+	 */
+	private AppointmentIdempotencyKey claim(String idempotencyKey, String fingerprint, LocalDateTime claimedAt) {
+		for (int attempt = 0;; attempt++) {
+			try {
+				transactionTemplate.executeWithoutResult(
+						status -> appointmentIdempotencyKeyRepository.insertKey(idempotencyKey, fingerprint, claimedAt));
+				return null;
+			} catch (DataIntegrityViolationException e) {
+				AppointmentIdempotencyKey stored = appointmentIdempotencyKeyRepository.findById(idempotencyKey)
+						.orElse(null);
+				if (stored == null || isExpired(stored)) {
+					if (attempt > 0) {
+						throw new AppointmentIdempotencyKeyInProgressException(IDEMPOTENCY_KEY_IN_PROGRESS);
+					}
+					transactionTemplate.executeWithoutResult(
+							status -> appointmentIdempotencyKeyRepository.deleteKey(idempotencyKey, stored.getCreatedAt()));
+					continue;
+				}
+				if (!fingerprint.equals(stored.getFingerprint())) {
+					throw new AppointmentIdempotencyKeyReusedException(IDEMPOTENCY_KEY_REUSED);
+				}
+				if (stored.getResponseStatus() == null) {
+					throw new AppointmentIdempotencyKeyInProgressException(IDEMPOTENCY_KEY_IN_PROGRESS);
+				}
+				return stored;
+			}
+		}
+	}
+
+	/**
+	 * This is a private method which checks whether a stored key is past its
+	 * time, or was claimed by a request which has not completed within the
+	 * claim timeout
+	 */
+	private boolean isExpired(AppointmentIdempotencyKey stored) {
+		LocalDateTime now = LocalDateTime.now();
+		return stored.getCreatedAt().isBefore(now.minus(properties.getTtl())) || stored.getResponseStatus() == null
+				&& stored.getCreatedAt().isBefore(now.minus(properties.getClaimTimeout()));
+	}
+
+	/**
+	 * This is a private method which writes the response of a key to the
+	 * database in the transaction of the create. The create is rolled back when
+	 * the response can not be stored, or when the key was claimed again after
+	 * the claim timeout.
+	 */
+	private void store(String idempotencyKey, LocalDateTime claimedAt, ResponseEntity<SuccessResponse> response) {
+		String body;
+		try {
+			body = objectMapper.writeValueAsString(response.getBody());
+		} catch (JsonProcessingException e) {
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+		if (appointmentIdempotencyKeyRepository.updateResponse(idempotencyKey, claimedAt,
+				response.getStatusCodeValue(), response.getHeaders().getETag(), body) == 0) {
+			throw new AppointmentIdempotencyKeyInProgressException(IDEMPOTENCY_KEY_IN_PROGRESS);
+		}
+	}
+
+	/**
+	 * This is a private method which releases the key of a failed request, so
+	 * it can be retried. The duplicates which wait for it fail the same way.
+	 *
+	 * @param claimedAt This is the time the key was claimed in the database at,
+	 *                  or null when it was not claimed there
+	 */
+	private void release(String idempotencyKey, Entry entry, LocalDateTime claimedAt, Throwable failure) {
+		entries.asMap().remove(idempotencyKey, entry);
+		if (claimedAt != null) {
+			try {
+				transactionTemplate.executeWithoutResult(
+						status -> appointmentIdempotencyKeyRepository.deleteKey(idempotencyKey, claimedAt));
+			} catch (RuntimeException e) {
+				log.error("Could not release the idempotency key {}", idempotencyKey, e);
+			}
+		}
+		entry.getResponse().completeExceptionally(failure);
+	}
+
+	private ResponseEntity<SuccessResponse> toResponse(AppointmentIdempotencyKey stored) {
+		try {
+			return ResponseEntity.status(stored.getResponseStatus()).eTag(stored.getResponseEtag())
+					.body(objectMapper.readValue(stored.getResponseBody(), SuccessResponse.class));
+		} catch (JsonProcessingException e) {
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is a private method which computes the fingerprint of a request body,
+	 * the SHA-256 of its JSON
+	 *
+	 * @return This will return the fingerprint in hex
+	 */
+	private String fingerprint(Object request) {
+		try {
+			return HexFormat.of().formatHex(
+					MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static final class Entry {
+		private final String fingerprint;
+		private final CompletableFuture<ResponseEntity<SuccessResponse>> response;
+	}
+}
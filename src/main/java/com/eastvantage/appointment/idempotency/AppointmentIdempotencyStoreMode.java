@@ -0,0 +1,13 @@
+package com.eastvantage.appointment.idempotency;
+
+/**
+ * This is the mode in which the idempotency keys are kept.
+ * 
+ * MEMORY keeps the keys and their responses in a bounded map of this instance,
+ * so they are lost on a restart and not shared with other instances. DATABASE
+ * keeps them in the map as well as in the appointment_idempotency_key table,
+ * so a retry is answered by any instance and after a restart.
+ */
+public enum AppointmentIdempotencyStoreMode {
+	MEMORY, DATABASE
+}
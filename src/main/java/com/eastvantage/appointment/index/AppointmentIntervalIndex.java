@@ -0,0 +1,705 @@
+package com.eastvantage.appointment.index;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.APPOINTMENT_CONFLICT;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.recurrence.AppointmentRecurrenceExpander;
+import com.eastvantage.appointment.repository.AppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the in-memory interval index of the appointments. It holds the time
+ * interval [start, start + duration) of every appointment which is not deleted
+ * and not yet over, sorted by start, and answers overlap and free slot queries
+ * in O(log n + k) without touching the database.
+ *
+ * The service keeps it in sync: a write first reserves its interval, which
+ * fails when the interval overlaps another appointment or reservation, and the
+ * reservation is confirmed under the appointment id once the transaction
+ * commits or released when it rolls back. The index is local to this
+ * instance, so it only guards against double bookings made through it.
+ *
+ * A recurring appointment is held by its rule, along with the intervals of
+ * its stored occurrences, which replace the ones of the rule they change. The
+ * occurrences of the rules are computed within the range of a query, so a
+ * series costs as much as a single appointment however many occurrences it
+ * has. A new rule is checked against the other rules and the intervals over
+ * its whole lifetime.
+ */
+@Component
+@Slf4j
+public class AppointmentIntervalIndex {
+
+	private static final Comparator<Interval> BY_START = Comparator.comparingLong(Interval::getStart)
+			.thenComparingLong(Interval::getId).thenComparingLong(Interval::getOccurrence);
+
+	private static final LocalDateTime MAX_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+	// the calendar repeats every 400 years, which are 4800 months and 146097 days
+	private static final long CALENDAR_CYCLE_MONTHS = 4800;
+
+	private static final long CALENDAR_CYCLE_DAYS = 146097;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final NavigableSet<Interval> intervals = new TreeSet<>(BY_START);
+
+	// the intervals of every appointment or reservation, one per stored
+	// occurrence of a recurring appointment
+	private final Map<Long, List<Interval>> intervalsById = new HashMap<>();
+
+	// the rules of the recurring appointments and reservations
+	private final Map<Long, Series> seriesById = new HashMap<>();
+
+	private final AtomicLong reservations = new AtomicLong();
+
+	// the number of indexed intervals by their length, whose longest bounds how
+	// far before a range an overlapping interval can start
+	private final NavigableMap<Long, Integer> lengths = new TreeMap<>();
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private AppointmentOccurrenceRepository appointmentOccurrenceRepository;
+
+	/**
+	 * This method is used to load the appointments which may still be running or
+	 * are upcoming, and the rules and stored occurrences of the recurring ones.
+	 * An appointment lasts less than a day, so anything which starts more than a
+	 * day ago is already over.
+	 */
+	@PostConstruct
+	public void load() {
+		LocalDateTime fromDate = LocalDateTime.now().minusDays(1);
+		List<AppointmentView> appointments = appointmentRepository.findViewsByDateRange(fromDate, MAX_DATE_TIME);
+		List<Appointment> recurring = appointmentRepository.findRecurringByDateRange(fromDate, MAX_DATE_TIME);
+		Map<Long, List<AppointmentOccurrence>> occurrences = appointmentOccurrenceRepository
+				.findOfRecurringAfter(fromDate).stream()
+				.collect(Collectors.groupingBy(AppointmentOccurrence::getAppointmentId));
+		lock.writeLock().lock();
+		try {
+			appointments.forEach(appointment -> add(new Interval(appointment.getAppointmentId(),
+					toMillis(appointment.getAppointmentDateTime()),
+					toMillis(appointment.getAppointmentDateTime()) + appointment.getAppointmentDuration(), 0)));
+			for (Appointment appointment : recurring) {
+				Series series = new Series(appointment,
+						occurrences.getOrDefault(appointment.getAppointmentId(), List.of()));
+				seriesById.put(appointment.getAppointmentId(), series);
+				series.storedIntervals(appointment.getAppointmentId(), fromDate).forEach(this::add);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Loaded {} appointments and {} recurring appointments to the interval index", appointments.size(),
+				recurring.size());
+	}
+
+	/**
+	 * This method is used to reserve an interval. The interval of the excluded
+	 * appointment, which is the one being updated, is not considered a conflict.
+	 *
+	 * @return This will return the token of the reservation which has to be
+	 *         confirmed or released
+	 */
+	public long reserve(LocalDateTime start, long duration, long excludedAppointmentId) {
+		long from = toMillis(start);
+		lock.writeLock().lock();
+		try {
+			long token = -reservations.incrementAndGet();
+			Interval interval = new Interval(token, from, from + duration, 0);
+			checkConflicts(List.of(interval), excludedAppointmentId, 0);
+			add(interval);
+			return token;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to reserve the interval of an appointment, or the rule
+	 * and the stored occurrences of it when it repeats. The given stored
+	 * occurrences replace the ones of the rule, and all the occurrences are
+	 * checked for overlaps over the whole lifetime of the rule. The intervals of
+	 * the excluded appointment, which is the one being updated, are not
+	 * considered a conflict.
+	 *
+	 * @return This will return the token of the reservation which has to be
+	 *         confirmed or released
+	 */
+	public long reserve(Appointment appointment, Collection<AppointmentOccurrence> occurrences,
+			long excludedAppointmentId) {
+		if (appointment.getRecurrence() == null) {
+			return reserve(appointment.getAppointmentDateTime(), appointment.getAppointmentDuration(),
+					excludedAppointmentId);
+		}
+		Series series = new Series(appointment, occurrences);
+		LocalDateTime fromDate = LocalDateTime.now().minusDays(1);
+		lock.writeLock().lock();
+		try {
+			long token = -reservations.incrementAndGet();
+			List<Interval> reserved = series.storedIntervals(token, fromDate);
+			checkConflicts(reserved, excludedAppointmentId, 0);
+			checkSeriesConflicts(series, reserved, excludedAppointmentId, fromDate);
+			reserved.forEach(this::add);
+			seriesById.put(token, series);
+			return token;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to reserve the new interval of a changed occurrence of
+	 * a recurring appointment. The interval the occurrence has now is not
+	 * considered a conflict.
+	 *
+	 * @return This will return the token of the reservation which has to be
+	 *         confirmed with the occurrence or released
+	 */
+	public long reserve(AppointmentOccurrence occurrence) {
+		long from = toMillis(occurrence.getAppointmentDateTime());
+		long rule = toMillis(occurrence.getOccurrenceDateTime());
+		lock.writeLock().lock();
+		try {
+			long token = -reservations.incrementAndGet();
+			Interval interval = new Interval(token, from, from + occurrence.getAppointmentDuration(), rule);
+			checkConflicts(List.of(interval), occurrence.getAppointmentId(), rule);
+			add(interval);
+			return token;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to confirm a reservation once the appointment is
+	 * committed. The reserved intervals replace the previous intervals of the
+	 * appointment.
+	 */
+	public void confirm(long token, long appointmentId) {
+		lock.writeLock().lock();
+		try {
+			List<Interval> reserved = remove(token);
+			Series series = seriesById.remove(token);
+			remove(appointmentId);
+			seriesById.remove(appointmentId);
+			for (Interval interval : reserved) {
+				add(new Interval(appointmentId, interval.getStart(), interval.getEnd(), interval.getOccurrence()));
+			}
+			if (series != null) {
+				seriesById.put(appointmentId, series);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to apply a changed or cancelled occurrence once it is
+	 * committed. The reserved interval, if any, replaces the interval the
+	 * occurrence had, and a cancelled occurrence leaves none.
+	 */
+	public void confirm(long token, AppointmentOccurrence occurrence) {
+		lock.writeLock().lock();
+		try {
+			remove(token);
+			putOccurrence(occurrence);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to remove the interval of a cancelled occurrence once
+	 * the cancel is committed. Nothing is reserved for a cancel, as it frees the
+	 * interval.
+	 */
+	public void cancel(AppointmentOccurrence occurrence) {
+		lock.writeLock().lock();
+		try {
+			putOccurrence(occurrence);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to release a reservation whose appointment is not
+	 * committed
+	 */
+	public void release(long token) {
+		lock.writeLock().lock();
+		try {
+			remove(token);
+			seriesById.remove(token);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to remove the intervals of a deleted appointment
+	 */
+	public void removeAppointment(long appointmentId) {
+		lock.writeLock().lock();
+		try {
+			remove(appointmentId);
+			seriesById.remove(appointmentId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to find the committed interval of an appointment which
+	 * does not repeat
+	 *
+	 * @return This will return the [start, end) pair of date times of the
+	 *         appointment, or null when the appointment is not indexed or repeats
+	 */
+	public LocalDateTime[] findInterval(long appointmentId) {
+		lock.readLock().lock();
+		try {
+			List<Interval> found = appointmentId > 0 && !seriesById.containsKey(appointmentId)
+					? intervalsById.get(appointmentId)
+					: null;
+			return found == null || found.isEmpty() ? null
+					: new LocalDateTime[] { toDateTime(found.get(0).getStart()), toDateTime(found.get(0).getEnd()) };
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method is used to find the free slots between the from date and the
+	 * to date, that is the gaps which are not covered by any appointment,
+	 * occurrence or reservation and are at least the given duration long
+	 *
+	 * @return This will return the free slots as [start, end) pairs of date times
+	 */
+	public List<LocalDateTime[]> findFreeSlots(LocalDateTime fromDate, LocalDateTime toDate, long minDuration) {
+		long from = toMillis(fromDate);
+		long to = toMillis(toDate);
+		List<long[]> gaps = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			long cursor = from;
+			for (Interval interval : candidates(from, to)) {
+				if (interval.getEnd() <= cursor) {
+					continue;
+				}
+				if (interval.getStart() > cursor) {
+					gaps.add(new long[] { cursor, interval.getStart() });
+				}
+				cursor = interval.getEnd();
+			}
+			if (cursor < to) {
+				gaps.add(new long[] { cursor, to });
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<LocalDateTime[]> slots = new ArrayList<>();
+		for (long[] gap : gaps) {
+			if (gap[1] - gap[0] >= Math.max(minDuration, 1)) {
+				slots.add(new LocalDateTime[] { toDateTime(gap[0]), toDateTime(gap[1]) });
+			}
+		}
+		return slots;
+	}
+
+	/**
+	 * This method is used to drop the intervals and the recurring appointments
+	 * which are over, so the index only grows with the upcoming appointments
+	 */
+	@Scheduled(fixedDelayString = "${appointment.interval-index.prune-interval:PT1H}")
+	public void prune() {
+		LocalDateTime today = LocalDateTime.now();
+		long now = toMillis(today);
+		lock.writeLock().lock();
+		try {
+			List<Interval> over = new ArrayList<>();
+			for (Interval interval : intervals.headSet(new Interval(Long.MIN_VALUE, now, now, 0), false)) {
+				if (interval.getEnd() <= now && interval.getId() > 0) {
+					over.add(interval);
+				}
+			}
+			over.forEach(this::removeInterval);
+			seriesById.entrySet().removeIf(series -> series.getKey() > 0 && series.getValue().isOver(today));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return intervals.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * This is a private method which throws a conflict when any of the given
+	 * intervals overlaps an interval of another appointment or reservation, or
+	 * another one of the given intervals. The intervals of the excluded
+	 * appointment are skipped, all of them or only the one of the excluded
+	 * occurrence when it is given. The caller holds the lock.
+	 */
+	private void checkConflicts(List<Interval> reserved, long excludedAppointmentId, long excludedOccurrence) {
+		long previousEnd = Long.MIN_VALUE;
+		for (Interval interval : reserved) {
+			if (interval.getStart() < previousEnd) {
+				throw new AppointmentException(APPOINTMENT_CONFLICT);
+			}
+			previousEnd = interval.getEnd();
+			for (Interval other : candidates(interval.getStart(), interval.getEnd())) {
+				if (other.getEnd() > interval.getStart() && (other.getId() != excludedAppointmentId
+						|| (excludedOccurrence != 0 && other.getOccurrence() != excludedOccurrence))) {
+					throw new AppointmentException(APPOINTMENT_CONFLICT);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This is a private method which throws a conflict when the rule of the
+	 * series gives an occurrence which overlaps an interval, its own stored
+	 * occurrences included, or one of the rule of another series. Every
+	 * interval is looked at once and only the occurrences of the rule around it
+	 * are computed. The series of the excluded appointment is skipped. The
+	 * caller holds the lock.
+	 */
+	private void checkSeriesConflicts(Series series, List<Interval> reserved, long excludedAppointmentId,
+			LocalDateTime fromDate) {
+		long from = toMillis(fromDate);
+		List<Interval> others = new ArrayList<>(reserved);
+		others.addAll(intervals.tailSet(new Interval(Long.MIN_VALUE, from - maxLength(), 0, 0), true));
+		for (Interval other : others) {
+			if (other.getId() != excludedAppointmentId && other.getEnd() > from
+					&& !series.ruleIntervals(0, other.getStart(), other.getEnd()).isEmpty()) {
+				throw new AppointmentException(APPOINTMENT_CONFLICT);
+			}
+		}
+		for (Map.Entry<Long, Series> other : seriesById.entrySet()) {
+			if (other.getKey() != excludedAppointmentId && series.overlaps(other.getValue(), fromDate)) {
+				throw new AppointmentException(APPOINTMENT_CONFLICT);
+			}
+		}
+	}
+
+	/**
+	 * This is a private method which stores the changed or cancelled occurrence
+	 * in its series, and replaces the interval the occurrence had by its new
+	 * one, if it is not cancelled. The caller holds the lock.
+	 */
+	private void putOccurrence(AppointmentOccurrence occurrence) {
+		long appointmentId = occurrence.getAppointmentId();
+		long rule = toMillis(occurrence.getOccurrenceDateTime());
+		Series series = seriesById.get(appointmentId);
+		if (series == null) {
+			return;
+		}
+		series.put(occurrence);
+		List<Interval> current = intervalsById.getOrDefault(appointmentId, List.of());
+		current.stream().filter(interval -> interval.getOccurrence() == rule).findFirst()
+				.ifPresent(this::removeInterval);
+		if (!occurrence.isDelete()) {
+			long from = toMillis(occurrence.getAppointmentDateTime());
+			add(new Interval(appointmentId, from, from + occurrence.getAppointmentDuration(), rule));
+		}
+	}
+
+	/**
+	 * This is a private method which returns the intervals which start before the
+	 * end of the range and may still be running at its start, in start order.
+	 * The occurrences of the recurring appointments within the range are
+	 * computed from their rules. The caller holds the lock.
+	 */
+	private Collection<Interval> candidates(long from, long to) {
+		NavigableSet<Interval> found = intervals.subSet(new Interval(Long.MIN_VALUE, from - maxLength(), 0, 0),
+				true, new Interval(Long.MIN_VALUE, to, 0, 0), false);
+		if (seriesById.isEmpty()) {
+			return found;
+		}
+		List<Interval> merged = new ArrayList<>(found);
+		for (Map.Entry<Long, Series> series : seriesById.entrySet()) {
+			merged.addAll(series.getValue().ruleIntervals(series.getKey(), from, to));
+		}
+		merged.sort(BY_START);
+		return merged;
+	}
+
+	private long maxLength() {
+		return lengths.isEmpty() ? 0 : lengths.lastKey();
+	}
+
+	private void add(Interval interval) {
+		intervals.add(interval);
+		intervalsById.computeIfAbsent(interval.getId(), id -> new ArrayList<>(1)).add(interval);
+		lengths.merge(interval.getEnd() - interval.getStart(), 1, Integer::sum);
+	}
+
+	private List<Interval> remove(long id) {
+		List<Interval> removed = intervalsById.remove(id);
+		if (removed == null) {
+			return List.of();
+		}
+		removed.forEach(this::removeSorted);
+		return removed;
+	}
+
+	private void removeInterval(Interval interval) {
+		removeSorted(interval);
+		List<Interval> remaining = intervalsById.get(interval.getId());
+		if (remaining != null && remaining.remove(interval) && remaining.isEmpty()) {
+			intervalsById.remove(interval.getId());
+		}
+	}
+
+	/**
+	 * This is a private method which removes the interval from the sorted
+	 * intervals along with its length, so the longest length shrinks once the
+	 * longest interval is gone. The caller holds the lock.
+	 */
+	private void removeSorted(Interval interval) {
+		if (intervals.remove(interval)) {
+			lengths.computeIfPresent(interval.getEnd() - interval.getStart(),
+					(length, count) -> count == 1 ? null : count - 1);
+		}
+	}
+
+	private static long toMillis(LocalDateTime dateTime) {
+		return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	private static LocalDateTime toDateTime(long millis) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1000000,
+				ZoneOffset.UTC);
+	}
+
+	/**
+	 * This is an interval of an appointment, a reservation or an occurrence. The
+	 * occurrence is the rule date time of the occurrence in milliseconds, or 0
+	 * when the appointment does not repeat.
+	 */
+	@Getter
+	@AllArgsConstructor
+	private static final class Interval {
+		private final long id;
+		private final long start;
+		private final long end;
+		private final long occurrence;
+	}
+
+	/**
+	 * This is the rule of a recurring appointment along with its stored
+	 * occurrences, by the date time the rule gives them
+	 */
+	private static final class Series {
+
+		private final Appointment rule;
+
+		private final Map<LocalDateTime, AppointmentOccurrence> occurrences = new HashMap<>();
+
+		private Series(Appointment appointment, Collection<AppointmentOccurrence> occurrences) {
+			this.rule = new Appointment(appointment.getAppointmentId(), appointment.getAppointmentDateTime(), null,
+					appointment.getAppointmentDuration(), false, 0, appointment.getRecurrence());
+			occurrences.forEach(this::put);
+		}
+
+		private void put(AppointmentOccurrence occurrence) {
+			occurrences.put(occurrence.getOccurrenceDateTime(),
+					new AppointmentOccurrence(0, occurrence.getAppointmentId(), occurrence.getOccurrenceDateTime(),
+							occurrence.getAppointmentDateTime(), null, occurrence.getAppointmentDuration(),
+							occurrence.isDelete(), 0));
+		}
+
+		/**
+		 * This method is used to build the intervals of the occurrences which the
+		 * rule gives and which overlap the range from the from millis to the to
+		 * millis, leaving out the ones which are stored
+		 *
+		 * @return This will return the intervals in start order
+		 */
+		private List<Interval> ruleIntervals(long id, long from, long to) {
+			List<Interval> found = new ArrayList<>();
+			for (LocalDateTime dateTime : overlapping(from, to)) {
+				if (!occurrences.containsKey(dateTime)) {
+					long start = toMillis(dateTime);
+					found.add(new Interval(id, start, start + rule.getAppointmentDuration(), start));
+				}
+			}
+			return found;
+		}
+
+		/**
+		 * This method is used to compute the date times which the rule gives and
+		 * whose occurrences overlap the range from the from millis to the to
+		 * millis, the stored ones included
+		 *
+		 * @return This will return the date times in order
+		 */
+		private List<LocalDateTime> overlapping(long from, long to) {
+			return AppointmentRecurrenceExpander.occurrencesBetween(rule,
+					toDateTime(from - rule.getAppointmentDuration() + 1), toDateTime(to - 1));
+		}
+
+		/**
+		 * This method is used to check whether the rule of this series and the rule
+		 * of the other one give occurrences which overlap after the from date and
+		 * are not both replaced by stored ones. Both rules repeat after a cycle of
+		 * days, so their occurrences do together after the least common multiple
+		 * of their cycles, and only the first such cycle of their common lifetime
+		 * is expanded, for the rule which gives fewer occurrences in it. A pair of
+		 * overlapping occurrences is looked for again in the following cycles while
+		 * stored occurrences replace it.
+		 *
+		 * @return This will return true when the rules overlap
+		 */
+		private boolean overlaps(Series other, LocalDateTime fromDate) {
+			Series walker = periodDays() >= other.periodDays() ? this : other;
+			Series target = walker == this ? other : this;
+			LocalDateTime start = Collections.max(List.of(fromDate, rule.getAppointmentDateTime(),
+					other.rule.getAppointmentDateTime()));
+			long cycle;
+			try {
+				cycle = Math.multiplyExact(cycleDays() / gcd(cycleDays(), other.cycleDays()), other.cycleDays());
+			} catch (ArithmeticException e) {
+				cycle = Long.MAX_VALUE;
+			}
+			long margin = Math.max(rule.getAppointmentDuration(), other.rule.getAppointmentDuration());
+			LocalDateTime end = cycle >= ChronoUnit.DAYS.between(start, MAX_DATE_TIME) ? MAX_DATE_TIME
+					: start.plusDays(cycle).plus(margin, ChronoUnit.MILLIS);
+			for (LocalDateTime dateTime : AppointmentRecurrenceExpander.occurrencesBetween(walker.rule,
+					start.minus(margin, ChronoUnit.MILLIS), end)) {
+				long from = toMillis(dateTime);
+				for (LocalDateTime overlapping : target.overlapping(from, from + walker.rule.getAppointmentDuration())) {
+					if (overlapsInSomeCycle(walker, dateTime, target, overlapping, cycle, fromDate)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * This is a private method which checks whether the pair of overlapping
+		 * occurrences of the rules, or the same pair in one of the following
+		 * cycles, is not replaced by a stored occurrence. There are only as many
+		 * stored occurrences as the pairs which need to be looked at.
+		 */
+		private static boolean overlapsInSomeCycle(Series walker, LocalDateTime occurrence, Series target,
+				LocalDateTime overlapping, long cycle, LocalDateTime fromDate) {
+			int stored = walker.occurrences.size() + target.occurrences.size();
+			for (long count = 0; count <= stored; count++) {
+				if (count > 0 && cycle > ChronoUnit.DAYS.between(occurrence, MAX_DATE_TIME) / count) {
+					return false;
+				}
+				LocalDateTime first = occurrence.plusDays(count * cycle);
+				LocalDateTime second = overlapping.plusDays(count * cycle);
+				if (!walker.isOccurrence(first) || !target.isOccurrence(second)) {
+					return false;
+				}
+				boolean past = !first.plus(walker.rule.getAppointmentDuration(), ChronoUnit.MILLIS).isAfter(fromDate)
+						|| !second.plus(target.rule.getAppointmentDuration(), ChronoUnit.MILLIS).isAfter(fromDate);
+				if (!past && !walker.occurrences.containsKey(first) && !target.occurrences.containsKey(second)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isOccurrence(LocalDateTime dateTime) {
+			return AppointmentRecurrenceExpander.isOccurrence(rule, dateTime);
+		}
+
+		/**
+		 * This method is used to compute the days after which the rule gives its
+		 * occurrences again shifted by as many days. A monthly rule repeats with
+		 * the calendar, after a whole number of 4800 months.
+		 */
+		private long cycleDays() {
+			long interval = rule.getRecurrence().getInterval();
+			switch (rule.getRecurrence().getFrequency()) {
+			case DAILY:
+				return interval;
+			case WEEKLY:
+				return 7 * interval;
+			default:
+				return interval / gcd(interval, CALENDAR_CYCLE_MONTHS) * CALENDAR_CYCLE_DAYS;
+			}
+		}
+
+		private long periodDays() {
+			return rule.getRecurrence().getFrequency().getUnit().getDuration().toDays()
+					* rule.getRecurrence().getInterval();
+		}
+
+		private static long gcd(long first, long second) {
+			return second == 0 ? first : gcd(second, first % second);
+		}
+
+		private boolean isOver(LocalDateTime now) {
+			return rule.getRecurrence().getUntil() != null && rule.getRecurrence().getUntil().isBefore(now.minusDays(1))
+					&& occurrences.values().stream().noneMatch(occurrence -> !occurrence.isDelete()
+							&& occurrence.getAppointmentDateTime().isAfter(now.minusDays(1)));
+		}
+
+		/**
+		 * This method is used to build the intervals of the stored occurrences
+		 * which are not cancelled and not over before the from date, wherever they
+		 * were moved to
+		 *
+		 * @return This will return the intervals in start order
+		 */
+		private List<Interval> storedIntervals(long id, LocalDateTime fromDate) {
+			List<Interval> found = new ArrayList<>();
+			for (AppointmentOccurrence occurrence : occurrences.values()) {
+				if (!occurrence.isDelete() && isOccurrence(occurrence.getOccurrenceDateTime())) {
+					long from = toMillis(occurrence.getAppointmentDateTime());
+					long end = from + occurrence.getAppointmentDuration();
+					if (end > toMillis(fromDate)) {
+						found.add(new Interval(id, from, end, toMillis(occurrence.getOccurrenceDateTime())));
+					}
+				}
+			}
+			found.sort(BY_START);
+			return found;
+		}
+	}
+}
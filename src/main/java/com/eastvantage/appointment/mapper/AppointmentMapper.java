@@ -0,0 +1,252 @@
+package com.eastvantage.appointment.mapper;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.INVALID_DURATION;
+import static com.eastvantage.appointment.common.AppointmentCommon.INVALID_RECURRENCE;
+
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Component;
+
+import com.eastvantage.appointment.common.AppointmentDurationCodec;
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.dto.AppointmentRecurrenceDto;
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentEvent;
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+import com.eastvantage.appointment.entity.ArchivedAppointment;
+import com.eastvantage.appointment.entity.ArchivedAppointmentOccurrence;
+import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+/**
+ * This is the mapper of the Appointment. It copies the fields between the
+ * appointment dto, entity, projection, archive, occurrence, event and response
+ * explicitly, without reflection, so a renamed or retyped field fails the
+ * compilation instead of being skipped silently.
+ */
+@Component
+public class AppointmentMapper {
+
+	/**
+	 * This method is used to convert the received dto to a new appointment entity
+	 * 
+	 * @return This will return the appointment entity which is not saved yet
+	 */
+	public Appointment toEntity(AppointmentDto appointmentDto) {
+		Appointment appointment = new Appointment();
+		updateEntity(appointmentDto, appointment);
+		return appointment;
+	}
+
+	/**
+	 * This method is used to replace the fields of the appointment entity with
+	 * the fields of the received dto. The appointment id and the delete flag are
+	 * left as they are.
+	 */
+	public void updateEntity(AppointmentDto appointmentDto, Appointment appointment) {
+		appointment.setAppointmentDateTime(appointmentDto.getAppointmentDateTime());
+		appointment.setAppointmentName(appointmentDto.getAppointmentName());
+		appointment.setAppointmentDuration(toMilliSeconds(appointmentDto.getAppointmentDuration()));
+		appointment.setRecurrence(toRecurrence(appointmentDto));
+	}
+
+	/**
+	 * This method is used to replace the fields of a stored occurrence with the
+	 * fields of the received dto. The recurrence of the dto is not used, an
+	 * occurrence does not repeat.
+	 */
+	public void updateOccurrence(AppointmentDto appointmentDto, AppointmentOccurrence occurrence) {
+		occurrence.setAppointmentDateTime(appointmentDto.getAppointmentDateTime());
+		occurrence.setAppointmentName(appointmentDto.getAppointmentName());
+		occurrence.setAppointmentDuration(toMilliSeconds(appointmentDto.getAppointmentDuration()));
+	}
+
+	/**
+	 * This method is used to build the stored occurrence of a recurring
+	 * appointment at the given date time of its rule, with the fields of the
+	 * appointment
+	 * 
+	 * @return This will return the occurrence which is not saved yet
+	 */
+	public AppointmentOccurrence toOccurrence(Appointment appointment, LocalDateTime occurrenceDateTime) {
+		return new AppointmentOccurrence(0, appointment.getAppointmentId(), occurrenceDateTime, occurrenceDateTime,
+				appointment.getAppointmentName(), appointment.getAppointmentDuration(), false, 0);
+	}
+
+	/**
+	 * This method is used to convert the appointment entity to the appointment
+	 * response
+	 * 
+	 * @return This will return the appointment response of the entity
+	 */
+	public AppointmentResponse toResponse(Appointment appointment) {
+		return new AppointmentResponse(appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), AppointmentDurationCodec.format(appointment.getAppointmentDuration()),
+				appointment.isDelete(), appointment.getVersion(), toDto(appointment.getRecurrence()), null);
+	}
+
+	/**
+	 * This method is used to build the response of an occurrence of a recurring
+	 * appointment which is computed from its rule
+	 * 
+	 * @return This will return the appointment response of the occurrence
+	 */
+	public AppointmentResponse toResponse(Appointment appointment, LocalDateTime occurrenceDateTime) {
+		return new AppointmentResponse(appointment.getAppointmentId(), occurrenceDateTime,
+				appointment.getAppointmentName(), AppointmentDurationCodec.format(appointment.getAppointmentDuration()),
+				false, appointment.getVersion(), toDto(appointment.getRecurrence()), occurrenceDateTime);
+	}
+
+	/**
+	 * This method is used to build the response of a stored occurrence of a
+	 * recurring appointment
+	 * 
+	 * @return This will return the appointment response of the occurrence
+	 */
+	public AppointmentResponse toResponse(Appointment appointment, AppointmentOccurrence occurrence) {
+		return new AppointmentResponse(appointment.getAppointmentId(), occurrence.getAppointmentDateTime(),
+				occurrence.getAppointmentName(), AppointmentDurationCodec.format(occurrence.getAppointmentDuration()),
+				occurrence.isDelete(), appointment.getVersion(), toDto(appointment.getRecurrence()),
+				occurrence.getOccurrenceDateTime());
+	}
+
+	/**
+	 * This method is used to convert the appointment projection to the
+	 * appointment response
+	 * 
+	 * @return This will return the appointment response of the projection
+	 */
+	public AppointmentResponse toResponse(AppointmentView appointment) {
+		return new AppointmentResponse(appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), AppointmentDurationCodec.format(appointment.getAppointmentDuration()),
+				appointment.isDelete(), appointment.getVersion(), toDto(appointment.getRecurrence()), null);
+	}
+
+	/**
+	 * This method is used to convert the archived appointment to the appointment
+	 * response
+	 * 
+	 * @return This will return the appointment response of the archived
+	 *         appointment
+	 */
+	public AppointmentResponse toResponse(ArchivedAppointment appointment) {
+		return new AppointmentResponse(appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), AppointmentDurationCodec.format(appointment.getAppointmentDuration()),
+				appointment.isDelete(), appointment.getVersion(), toDto(appointment.getRecurrence()), null);
+	}
+
+	/**
+	 * This method is used to convert the archived appointment back to the
+	 * appointment entity, so the occurrences of its rule are computed the same
+	 * way. The entity is not saved.
+	 * 
+	 * @return This will return the appointment entity of the archived
+	 *         appointment
+	 */
+	public Appointment toEntity(ArchivedAppointment appointment) {
+		return new Appointment(appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), appointment.getAppointmentDuration(), appointment.isDelete(),
+				appointment.getVersion(), appointment.getRecurrence());
+	}
+
+	/**
+	 * This method is used to convert the archived occurrence back to the
+	 * occurrence entity. The entity is not saved.
+	 * 
+	 * @return This will return the occurrence entity of the archived occurrence
+	 */
+	public AppointmentOccurrence toEntity(ArchivedAppointmentOccurrence occurrence) {
+		return new AppointmentOccurrence(occurrence.getOccurrenceId(), occurrence.getAppointmentId(),
+				occurrence.getOccurrenceDateTime(), occurrence.getAppointmentDateTime(),
+				occurrence.getAppointmentName(), occurrence.getAppointmentDuration(), occurrence.isDelete(),
+				occurrence.getVersion());
+	}
+
+	/**
+	 * This method is used to convert the appointment entity to the appointment
+	 * projection
+	 * 
+	 * @return This will return the appointment projection of the entity
+	 */
+	public AppointmentView toView(Appointment appointment) {
+		return new AppointmentView(appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), appointment.getAppointmentDuration(), appointment.isDelete(),
+				appointment.getVersion(), appointment.getRecurrence());
+	}
+
+	/**
+	 * This method is used to build the outbox event of a change of the
+	 * appointment, holding the state of the appointment after the change
+	 * 
+	 * @return This will return the event which is not saved yet
+	 */
+	public AppointmentEvent toEvent(AppointmentEventType eventType, Appointment appointment) {
+		return new AppointmentEvent(0, eventType, appointment.getAppointmentId(), appointment.getAppointmentDateTime(),
+				appointment.getAppointmentName(), appointment.getAppointmentDuration(), null, LocalDateTime.now());
+	}
+
+	/**
+	 * This method is used to build the outbox event of a change of one
+	 * occurrence of a recurring appointment, holding the state of the occurrence
+	 * after the change
+	 * 
+	 * @return This will return the event which is not saved yet
+	 */
+	public AppointmentEvent toEvent(AppointmentEventType eventType, AppointmentOccurrence occurrence) {
+		return new AppointmentEvent(0, eventType, occurrence.getAppointmentId(), occurrence.getAppointmentDateTime(),
+				occurrence.getAppointmentName(), occurrence.getAppointmentDuration(),
+				occurrence.getOccurrenceDateTime(), LocalDateTime.now());
+	}
+
+	/**
+	 * This method is used to convert the outbox event to the event response
+	 * 
+	 * @return This will return the event response of the entity
+	 */
+	public AppointmentEventResponse toResponse(AppointmentEvent event) {
+		return new AppointmentEventResponse(event.getEventId(), event.getEventType(), event.getAppointmentId(),
+				event.getAppointmentDateTime(), event.getAppointmentName(),
+				AppointmentDurationCodec.format(event.getAppointmentDuration()), event.getOccurrenceDateTime(),
+				event.getCreatedAt());
+	}
+
+	/**
+	 * This is a private method which is used to check the recurrence of the
+	 * received dto. The interval defaults to 1 and the until date time may not
+	 * be before the first occurrence.
+	 * 
+	 * @return This will return a copy of the recurrence, or null when the
+	 *         appointment does not repeat
+	 */
+	private static AppointmentRecurrence toRecurrence(AppointmentDto appointmentDto) {
+		AppointmentRecurrenceDto recurrence = appointmentDto.getRecurrence();
+		if (recurrence == null) {
+			return null;
+		}
+		int interval = recurrence.getInterval() == null ? 1 : recurrence.getInterval();
+		if (recurrence.getFrequency() == null || interval < 1 || appointmentDto.getAppointmentDateTime() == null
+				|| (recurrence.getUntil() != null
+						&& recurrence.getUntil().isBefore(appointmentDto.getAppointmentDateTime()))) {
+			throw new AppointmentException(INVALID_RECURRENCE);
+		}
+		return new AppointmentRecurrence(recurrence.getFrequency(), interval, recurrence.getUntil());
+	}
+
+	private static AppointmentRecurrenceDto toDto(AppointmentRecurrence recurrence) {
+		return recurrence == null ? null
+				: new AppointmentRecurrenceDto(recurrence.getFrequency(), recurrence.getInterval(),
+						recurrence.getUntil());
+	}
+
+	private static long toMilliSeconds(String duration) {
+		long milliSeconds = AppointmentDurationCodec.parse(duration);
+		if (milliSeconds == AppointmentDurationCodec.INVALID) {
+			throw new AppointmentException(INVALID_DURATION);
+		}
+		return milliSeconds;
+	}
+}
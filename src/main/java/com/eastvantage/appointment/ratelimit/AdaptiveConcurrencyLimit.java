@@ -0,0 +1,60 @@
+package com.eastvantage.appointment.ratelimit;
+
+/**
+ * This is a concurrency limit which adapts to the latency of the requests. The
+ * limit starts at the max, shrinks by a tenth on every completion while the
+ * smoothed latency is above the target and grows back by one per limit
+ * completions once it is below, so the requests beyond the limit are shed
+ * before they queue up behind the slow ones.
+ */
+final class AdaptiveConcurrencyLimit {
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final double BACKOFF = 0.9;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long targetNanos;
+
+	private double limit;
+
+	private double averageNanos = -1;
+
+	private int inFlight;
+
+	AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long targetNanos) {
+		this.maxLimit = Math.max(1, maxLimit);
+		this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+		this.targetNanos = targetNanos;
+		this.limit = this.maxLimit;
+	}
+
+	synchronized boolean tryAcquire() {
+		if (inFlight >= (int) limit) {
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	synchronized void release(long latencyNanos) {
+		inFlight--;
+		averageNanos = averageNanos < 0 ? latencyNanos : averageNanos + SMOOTHING * (latencyNanos - averageNanos);
+		if (averageNanos > targetNanos) {
+			limit = Math.max(minLimit, limit * BACKOFF);
+		} else {
+			limit = Math.min(maxLimit, limit + 1 / limit);
+		}
+	}
+
+	synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	synchronized int getInFlight() {
+		return inFlight;
+	}
+}
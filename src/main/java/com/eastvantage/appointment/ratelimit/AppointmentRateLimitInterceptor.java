@@ -0,0 +1,262 @@
+package com.eastvantage.appointment.ratelimit;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.CONCURRENCY_LIMIT_GAUGE;
+import static com.eastvantage.appointment.common.AppointmentCommon.RATE_LIMITED;
+import static com.eastvantage.appointment.common.AppointmentCommon.SERVICE_OVERLOADED;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.eastvantage.appointment.exception.AppointmentOverloadException;
+import com.eastvantage.appointment.exception.AppointmentRateLimitException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This is the rate limiter and load shedder of the API. Every request is
+ * counted against the budget of its kind: the date range filters, the other
+ * reads and the writes. A request first takes a token from the bucket of its
+ * client and from the bucket of all the clients, and is answered with too many
+ * requests when either is empty. The client is named by the configured client
+ * header only, a request without it takes a token of all the clients alone. It
+ * then takes a place in the adaptive concurrency limit of the budget, and is
+ * answered with service unavailable when the limit is reached. The tokens of a
+ * request which is rejected are given back, so the budget of a client is only
+ * spent by its requests which run. The place is given back once the response
+ * is complete, along with the latency which adapts the limit.
+ */
+@Component
+@ConditionalOnProperty(prefix = "appointment.rate-limit", name = "enabled", havingValue = "true",
+		matchIfMissing = false)
+public class AppointmentRateLimitInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String ADMISSION = AppointmentRateLimitInterceptor.class.getName() + ".ADMISSION";
+
+	@Autowired
+	private AppointmentRateLimitProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Limiter read;
+
+	private Limiter write;
+
+	private Limiter filter;
+
+	@PostConstruct
+	public void init() {
+		read = new Limiter("read", properties.getRead());
+		write = new Limiter("write", properties.getWrite());
+		filter = new Limiter("filter", properties.getFilter());
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// the async dispatch of a request which was admitted already
+		if (request.getDispatcherType() != DispatcherType.REQUEST) {
+			return true;
+		}
+		Limiter limiter = limiterOf(request);
+		long now = System.nanoTime();
+		long waitNanos = limiter.tryAcquireToken(clientOf(request), now);
+		if (waitNanos > 0) {
+			throw new AppointmentRateLimitException(RATE_LIMITED,
+					Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+		}
+		if (!limiter.concurrency.tryAcquire()) {
+			limiter.refundToken(clientOf(request));
+			throw new AppointmentOverloadException(SERVICE_OVERLOADED);
+		}
+		request.setAttribute(ADMISSION, new Admission(limiter.concurrency, now));
+		return true;
+	}
+
+	/**
+	 * This method is used to keep the place of an async request until the async
+	 * processing is complete, since the completion of the first dispatch is not
+	 * the completion of the response
+	 */
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		Admission admission = (Admission) request.getAttribute(ADMISSION);
+		if (admission != null) {
+			request.getAsyncContext().addListener(admission);
+		}
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (!request.isAsyncStarted()) {
+			Admission admission = (Admission) request.getAttribute(ADMISSION);
+			if (admission != null) {
+				admission.release();
+			}
+		}
+	}
+
+	/**
+	 * This is a private method which finds the budget of the request: the date
+	 * range filters, of the live and of the archived appointments, are the most
+	 * expensive requests, then the other reads and the writes
+	 */
+	private Limiter limiterOf(HttpServletRequest request) {
+		if (request.getRequestURI().contains("/filter")) {
+			return filter;
+		}
+		HttpMethod method = HttpMethod.resolve(request.getMethod());
+		if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+			return read;
+		}
+		return write;
+	}
+
+	/**
+	 * This is a private method which names the client of a request by the
+	 * client header. The remote address is not used, behind a proxy it would put
+	 * every client in the same bucket.
+	 *
+	 * @return This will return the client, or null when the header is not
+	 *         configured or not sent
+	 */
+	private String clientOf(HttpServletRequest request) {
+		if (!StringUtils.hasText(properties.getClientHeader())) {
+			return null;
+		}
+		String client = request.getHeader(properties.getClientHeader());
+		return StringUtils.hasText(client) ? client : null;
+	}
+
+	/**
+	 * This is the limiter of one budget, with the bucket of all the clients, the
+	 * buckets of the clients seen lately and the concurrency limit
+	 */
+	private final class Limiter {
+
+		private final AppointmentRateLimitProperties.Budget budget;
+
+		private final TokenBucket global;
+
+		private final Cache<String, TokenBucket> clients;
+
+		private final AdaptiveConcurrencyLimit concurrency;
+
+		private Limiter(String name, AppointmentRateLimitProperties.Budget budget) {
+			this.budget = budget;
+			this.global = budget.getRate() > 0 ? new TokenBucket(budget.getRate(), budget.getBurst(), System.nanoTime())
+					: null;
+			this.clients = Caffeine.newBuilder().maximumSize(properties.getMaxClients()).build();
+			this.concurrency = new AdaptiveConcurrencyLimit(budget.getMinConcurrency(), budget.getMaxConcurrency(),
+					budget.getTargetLatency().toNanos());
+			Gauge.builder(CONCURRENCY_LIMIT_GAUGE, concurrency, AdaptiveConcurrencyLimit::getLimit)
+					.tag("budget", name).register(meterRegistry);
+		}
+
+		/**
+		 * This method is used to take a token of the client before the one of all
+		 * the clients, so a client over its own rate does not use up the others'.
+		 * A request without a client takes the token of all the clients only. The
+		 * token of the client is given back when all the clients are out of
+		 * tokens.
+		 *
+		 * @return This will return 0 when the tokens were taken, else the
+		 *         nanoseconds until a token is available
+		 */
+		private long tryAcquireToken(String client, long now) {
+			TokenBucket bucket = null;
+			if (client != null && budget.getClientRate() > 0) {
+				bucket = clients.get(client,
+						key -> new TokenBucket(budget.getClientRate(), budget.getClientBurst(), now));
+				long waitNanos = bucket.tryAcquire(now);
+				if (waitNanos > 0) {
+					return waitNanos;
+				}
+			}
+			long waitNanos = global == null ? 0 : global.tryAcquire(now);
+			if (waitNanos > 0 && bucket != null) {
+				bucket.refund();
+			}
+			return waitNanos;
+		}
+
+		/**
+		 * This method is used to give back the tokens of a request which was
+		 * rejected by the concurrency limit
+		 */
+		private void refundToken(String client) {
+			if (client != null && budget.getClientRate() > 0) {
+				TokenBucket bucket = clients.getIfPresent(client);
+				if (bucket != null) {
+					bucket.refund();
+				}
+			}
+			if (global != null) {
+				global.refund();
+			}
+		}
+	}
+
+	/**
+	 * This is the place of an admitted request in the concurrency limit, which
+	 * is given back once, by the completion of the request or of its async
+	 * processing
+	 */
+	private static final class Admission implements AsyncListener {
+
+		private final AdaptiveConcurrencyLimit concurrency;
+
+		private final long admittedAt;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Admission(AdaptiveConcurrencyLimit concurrency, long admittedAt) {
+			this.concurrency = concurrency;
+			this.admittedAt = admittedAt;
+		}
+
+		private void release() {
+			if (released.compareAndSet(false, true)) {
+				concurrency.release(System.nanoTime() - admittedAt);
+			}
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
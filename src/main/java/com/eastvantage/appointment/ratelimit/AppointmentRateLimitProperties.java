@@ -0,0 +1,59 @@
+package com.eastvantage.appointment.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is the configuration of the rate limiting and load shedding of the API,
+ * bound from the appointment.rate-limit properties. The reads, the writes and
+ * the date range filters have a budget each.
+ */
+@Data
+@ConfigurationProperties(prefix = "appointment.rate-limit")
+public class AppointmentRateLimitProperties {
+
+	private boolean enabled = false;
+
+	// header which names the client, set by the gateway in front of the API. The
+	// buckets of the clients are only used when it is set, since behind a proxy
+	// the remote address is the one of the proxy for every client.
+	private String clientHeader = "";
+
+	// number of clients whose buckets are kept, the least recently seen are
+	// dropped beyond it
+	private int maxClients = 10000;
+
+	private Budget read = new Budget(1000, 2000, 100, 200, 200, 10, Duration.ofMillis(100));
+
+	private Budget write = new Budget(200, 400, 20, 40, 50, 5, Duration.ofMillis(250));
+
+	private Budget filter = new Budget(50, 100, 5, 10, 20, 2, Duration.ofMillis(500));
+
+	/**
+	 * This is the budget of one kind of request. A rate of 0 turns its bucket off.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Budget {
+
+		// requests per second of all the clients together, and the burst above it
+		private double rate;
+		private int burst;
+
+		// requests per second of a single client, and the burst above it
+		private double clientRate;
+		private int clientBurst;
+
+		// requests in flight at once, the limit shrinks down to the min concurrency
+		// while the average latency is above the target latency
+		private int maxConcurrency;
+		private int minConcurrency;
+		private Duration targetLatency;
+	}
+}
@@ -0,0 +1,47 @@
+package com.eastvantage.appointment.ratelimit;
+
+/**
+ * This is a token bucket which holds up to the burst tokens and refills at the
+ * rate per second. Every request takes one token.
+ */
+final class TokenBucket {
+
+	private final double capacity;
+
+	private final double tokensPerNano;
+
+	private double tokens;
+
+	private long refilledAt;
+
+	TokenBucket(double ratePerSecond, int burst, long now) {
+		this.capacity = Math.max(1, burst);
+		this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+		this.tokens = capacity;
+		this.refilledAt = now;
+	}
+
+	/**
+	 * This method is used to take a token from the bucket
+	 *
+	 * @return This will return 0 when a token was taken, else the nanoseconds
+	 *         until the next token is available
+	 */
+	synchronized long tryAcquire(long now) {
+		tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+		refilledAt = now;
+		if (tokens >= 1) {
+			tokens -= 1;
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / tokensPerNano);
+	}
+
+	/**
+	 * This method is used to give back a token which was taken by a request
+	 * that was rejected afterwards
+	 */
+	synchronized void refund() {
+		tokens = Math.min(capacity, tokens + 1);
+	}
+}
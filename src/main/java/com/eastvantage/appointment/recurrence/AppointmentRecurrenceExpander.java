@@ -0,0 +1,285 @@
+package com.eastvantage.appointment.recurrence;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+import com.eastvantage.appointment.entity.ArchivedAppointment;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.repository.AppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentRepository;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This is the expander of the recurring appointments. A recurring appointment
+ * is a single row which holds its rule, and only the occurrences which differ
+ * from the rule are stored. The occurrences of a date range are computed from
+ * the rules of the appointments which repeat over the range, starting at the
+ * first occurrence of the range instead of the first occurrence of the rule,
+ * and the stored occurrences of the range replace the computed ones. The
+ * occurrences are merged in start order with the appointments which do not
+ * repeat, so the pages and the stream of a date range list them as well. The
+ * occurrences of the archived recurring appointments are computed the same way
+ * from the archive tables.
+ */
+@Component
+public class AppointmentRecurrenceExpander {
+
+	private static final Comparator<AppointmentResponse> BY_START = Comparator
+			.comparing(AppointmentResponse::getAppointmentDateTime)
+			.thenComparingLong(AppointmentResponse::getAppointmentId);
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private AppointmentOccurrenceRepository appointmentOccurrenceRepository;
+
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+	@Autowired
+	private ArchivedAppointmentOccurrenceRepository archivedAppointmentOccurrenceRepository;
+
+	@Autowired
+	private AppointmentMapper appointmentMapper;
+
+	/**
+	 * This method is used to find the occurrences of the recurring appointments
+	 * which start between the from date and the to date, both included. A stored
+	 * occurrence which was moved into the range is found as well, and one which
+	 * was moved out of it or cancelled is left out.
+	 *
+	 * @return This will return the occurrences in start order
+	 */
+	public List<AppointmentResponse> findOccurrences(LocalDateTime fromDate, LocalDateTime toDate) {
+		List<AppointmentResponse> occurrences = new ArrayList<>();
+		withOccurrences(Collections.emptyIterator(), fromDate, toDate).forEachRemaining(occurrences::add);
+		return occurrences;
+	}
+
+	/**
+	 * This method is used to merge the occurrences of the recurring appointments
+	 * which start between the from date and the to date into the given
+	 * appointments. The occurrences are computed from the rules as they are
+	 * read, so a long range is never held in memory, only its stored occurrences
+	 * are.
+	 *
+	 * @param appointments This is the appointments which do not repeat, in the
+	 *                     order of their date time and appointment id
+	 * @return This will return the appointments and the occurrences in the order
+	 *         of their date time and appointment id
+	 */
+	public Iterator<AppointmentResponse> withOccurrences(Iterator<AppointmentResponse> appointments,
+			LocalDateTime fromDate, LocalDateTime toDate) {
+		return merge(appointments, fromDate, toDate, appointmentRepository.findRecurringByDateRange(fromDate, toDate),
+				appointmentIds -> appointmentOccurrenceRepository
+						.findByAppointmentIdInAndOccurrenceDateTimeBetween(appointmentIds, fromDate, toDate),
+				appointmentOccurrenceRepository.findByIsDeleteAndAppointmentDateTimeBetween(false, fromDate, toDate),
+				appointmentIds -> appointmentRepository.findByAppointmentIdInAndIsDelete(appointmentIds, false));
+	}
+
+	/**
+	 * This method is used to find the occurrences of the archived recurring
+	 * appointments which start between the from date and the to date, both
+	 * included, from their archived rules and stored occurrences
+	 *
+	 * @return This will return the occurrences in start order
+	 */
+	public List<AppointmentResponse> findArchivedOccurrences(LocalDateTime fromDate, LocalDateTime toDate) {
+		List<AppointmentResponse> occurrences = new ArrayList<>();
+		merge(Collections.emptyIterator(), fromDate, toDate,
+				toEntities(archivedAppointmentRepository.findRecurringByDateRange(fromDate, toDate)),
+				appointmentIds -> archivedAppointmentOccurrenceRepository
+						.findByAppointmentIdInAndOccurrenceDateTimeBetween(appointmentIds, fromDate, toDate).stream()
+						.map(appointmentMapper::toEntity).collect(Collectors.toList()),
+				archivedAppointmentOccurrenceRepository
+						.findByIsDeleteAndAppointmentDateTimeBetween(false, fromDate, toDate).stream()
+						.map(appointmentMapper::toEntity).collect(Collectors.toList()),
+				appointmentIds -> toEntities(
+						archivedAppointmentRepository.findByAppointmentIdInAndIsDelete(appointmentIds, false)))
+				.forEachRemaining(occurrences::add);
+		return occurrences;
+	}
+
+	/**
+	 * This is a private method which merges the occurrences of the given
+	 * recurring appointments into the given appointments in start order
+	 *
+	 * @param recurringAppointments This is the appointments which repeat over
+	 *                              the range
+	 * @param findReplacing         This finds the stored occurrences of the
+	 *                              given appointments whose rule date time is in
+	 *                              the range
+	 * @param startingOccurrences   This is the stored occurrences which are not
+	 *                              cancelled and start in the range
+	 * @param findOwners            This finds the given appointments which are
+	 *                              not deleted
+	 * @return This will return the appointments and the occurrences in the order
+	 *         of their date time and appointment id
+	 */
+	private Iterator<AppointmentResponse> merge(Iterator<AppointmentResponse> appointments, LocalDateTime fromDate,
+			LocalDateTime toDate, List<Appointment> recurringAppointments,
+			Function<Collection<Long>, List<AppointmentOccurrence>> findReplacing,
+			List<AppointmentOccurrence> startingOccurrences, Function<List<Long>, List<Appointment>> findOwners) {
+		Map<Long, Appointment> recurring = recurringAppointments.stream()
+				.collect(Collectors.toMap(Appointment::getAppointmentId, Function.identity()));
+		// the stored occurrences whose rule date time is in the range replace the
+		// computed ones, wherever they were moved to
+		Map<Long, Set<LocalDateTime>> replaced = new HashMap<>();
+		if (!recurring.isEmpty()) {
+			for (AppointmentOccurrence occurrence : findReplacing.apply(recurring.keySet())) {
+				replaced.computeIfAbsent(occurrence.getAppointmentId(), key -> new HashSet<>())
+						.add(occurrence.getOccurrenceDateTime());
+			}
+		}
+		PriorityQueue<Source> sources = new PriorityQueue<>();
+		Source.add(sources, appointments);
+		for (Appointment appointment : recurring.values()) {
+			Set<LocalDateTime> stored = replaced.getOrDefault(appointment.getAppointmentId(), Collections.emptySet());
+			Source.add(sources, occurrences(appointment, fromDate, toDate).filter(dateTime -> !stored.contains(dateTime))
+					.map(dateTime -> appointmentMapper.toResponse(appointment, dateTime)).iterator());
+		}
+		// the stored occurrences which start in the range, of the appointments
+		// which may not repeat over the range themselves
+		Map<Long, Appointment> owners = new HashMap<>(recurring);
+		List<Long> missing = startingOccurrences.stream().map(AppointmentOccurrence::getAppointmentId)
+				.filter(appointmentId -> !owners.containsKey(appointmentId)).distinct().collect(Collectors.toList());
+		if (!missing.isEmpty()) {
+			findOwners.apply(missing).forEach(appointment -> owners.put(appointment.getAppointmentId(), appointment));
+		}
+		List<AppointmentResponse> movedIn = new ArrayList<>();
+		for (AppointmentOccurrence occurrence : startingOccurrences) {
+			Appointment appointment = owners.get(occurrence.getAppointmentId());
+			if (appointment != null && isOccurrence(appointment, occurrence.getOccurrenceDateTime())) {
+				movedIn.add(appointmentMapper.toResponse(appointment, occurrence));
+			}
+		}
+		movedIn.sort(BY_START);
+		Source.add(sources, movedIn.iterator());
+		return new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return !sources.isEmpty();
+			}
+
+			@Override
+			public AppointmentResponse next() {
+				Source source = sources.remove();
+				AppointmentResponse next = source.getHead();
+				Source.add(sources, source.getRest());
+				return next;
+			}
+		};
+	}
+
+	private List<Appointment> toEntities(List<ArchivedAppointment> appointments) {
+		return appointments.stream().map(appointmentMapper::toEntity).collect(Collectors.toList());
+	}
+
+	/**
+	 * This method is used to compute the date times which the rule of the
+	 * appointment gives between the from date and the to date, both included
+	 *
+	 * @return This will return the date times in order
+	 */
+	public static List<LocalDateTime> occurrencesBetween(Appointment appointment, LocalDateTime fromDate,
+			LocalDateTime toDate) {
+		return occurrences(appointment, fromDate, toDate).collect(Collectors.toList());
+	}
+
+	/**
+	 * This is a private method which computes the date times which the rule of
+	 * the appointment gives between the from date and the to date, as they are
+	 * read
+	 *
+	 * @return This will return the date times in order
+	 */
+	private static Stream<LocalDateTime> occurrences(Appointment appointment, LocalDateTime fromDate,
+			LocalDateTime toDate) {
+		AppointmentRecurrence recurrence = appointment.getRecurrence();
+		LocalDateTime start = appointment.getAppointmentDateTime();
+		LocalDateTime last = recurrence.getUntil() == null || recurrence.getUntil().isAfter(toDate) ? toDate
+				: recurrence.getUntil();
+		ChronoUnit unit = recurrence.getFrequency().getUnit();
+		long interval = recurrence.getInterval();
+		// every occurrence is counted from the start, so a monthly rule on the
+		// 31st does not drift to the 28th after February
+		return LongStream.iterate(fromDate.isAfter(start) ? unit.between(start, fromDate) / interval : 0,
+				index -> index + 1).mapToObj(index -> start.plus(index * interval, unit))
+				.takeWhile(dateTime -> !dateTime.isAfter(last)).filter(dateTime -> !dateTime.isBefore(fromDate));
+	}
+
+	/**
+	 * This method is used to check whether the rule of the appointment gives the
+	 * date time
+	 *
+	 * @return This will return true when the date time is an occurrence of the
+	 *         appointment
+	 */
+	public static boolean isOccurrence(Appointment appointment, LocalDateTime dateTime) {
+		AppointmentRecurrence recurrence = appointment.getRecurrence();
+		if (recurrence == null || dateTime.isBefore(appointment.getAppointmentDateTime())
+				|| (recurrence.getUntil() != null && dateTime.isAfter(recurrence.getUntil()))) {
+			return false;
+		}
+		ChronoUnit unit = recurrence.getFrequency().getUnit();
+		long index = unit.between(appointment.getAppointmentDateTime(), dateTime);
+		// a month shorter than the start day ends the month early, so the
+		// occurrence may be one unit further than the whole units between them
+		for (long candidate = index; candidate <= index + 1; candidate++) {
+			if (candidate % recurrence.getInterval() == 0
+					&& appointment.getAppointmentDateTime().plus(candidate, unit).equals(dateTime)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This is the next appointment or occurrence of one of the merged iterators
+	 * along with the rest of it, ordered by the next one
+	 */
+	@Getter
+	@AllArgsConstructor
+	private static final class Source implements Comparable<Source> {
+		private final AppointmentResponse head;
+		private final Iterator<AppointmentResponse> rest;
+
+		private static void add(PriorityQueue<Source> sources, Iterator<AppointmentResponse> iterator) {
+			if (iterator.hasNext()) {
+				sources.add(new Source(iterator.next(), iterator));
+			}
+		}
+
+		@Override
+		public int compareTo(Source other) {
+			return BY_START.compare(head, other.head);
+		}
+	}
+}
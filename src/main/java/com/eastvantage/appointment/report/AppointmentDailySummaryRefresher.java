@@ -0,0 +1,162 @@
+package com.eastvantage.appointment.report;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.BULK_CHUNK_SIZE;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eastvantage.appointment.entity.AppointmentDailySummary;
+import com.eastvantage.appointment.repository.AppointmentDailySummaryRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the maintainer of the appointment daily summary table. The service
+ * marks the days touched by a change, which become dirty once the change
+ * commits, and the summary rows of the dirty days are computed again from the
+ * appointment table by a single refresher, so a report only reads one row per
+ * day. Computing a day again, rather than applying the difference of every
+ * change, keeps the table right whatever order the changes commit in.
+ * 
+ * The recurring appointments are left out of the table, as a rule without an
+ * end touches every day after its start. The reports count their occurrences
+ * from the rules over the days they read instead.
+ * 
+ * The archived appointments are counted as well, so the days keep their
+ * appointments once they are archived. The dirty days are held by this
+ * instance, so the table is rebuilt on start to pick up the changes which were
+ * not refreshed before a shutdown.
+ */
+@Component
+@Slf4j
+public class AppointmentDailySummaryRefresher {
+
+	private final Set<LocalDate> dirtyDates = new ConcurrentSkipListSet<>();
+
+	@Autowired
+	private AppointmentDailySummaryRepository appointmentDailySummaryRepository;
+
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	public void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		rebuild();
+	}
+
+	/**
+	 * This method is used to mark the days of the given appointment date times
+	 * as dirty once the current transaction commits. The date times which are
+	 * null are skipped.
+	 */
+	public void markDirty(LocalDateTime... appointmentDateTimes) {
+		List<LocalDate> dates = new ArrayList<>(appointmentDateTimes.length);
+		for (LocalDateTime appointmentDateTime : appointmentDateTimes) {
+			if (appointmentDateTime != null) {
+				dates.add(appointmentDateTime.toLocalDate());
+			}
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			dirtyDates.addAll(dates);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				dirtyDates.addAll(dates);
+			}
+		});
+	}
+
+	/**
+	 * This method is used to compute the summary rows of the dirty days again.
+	 * It runs on a schedule and before every report, and only one refresh runs at
+	 * a time, so a slower refresh never overwrites a newer one.
+	 */
+	@Scheduled(fixedDelayString = "${appointment.daily-summary.refresh-interval:PT5S}")
+	public synchronized void refresh() {
+		List<LocalDate> dates = new ArrayList<>(dirtyDates);
+		if (dates.isEmpty()) {
+			return;
+		}
+		dirtyDates.removeAll(dates);
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				appointmentDailySummaryRepository.deleteBySummaryDates(dates);
+				for (LocalDate date : dates) {
+					summarize(date.atStartOfDay(), date.plusDays(1).atStartOfDay()).forEach(entityManager::persist);
+				}
+			});
+		} catch (RuntimeException e) {
+			// the days are refreshed again on the next run
+			dirtyDates.addAll(dates);
+			throw e;
+		}
+	}
+
+	/**
+	 * This method is used to build the whole summary table again from the
+	 * appointment table with one grouped query
+	 */
+	public synchronized void rebuild() {
+		dirtyDates.clear();
+		transactionTemplate.executeWithoutResult(status -> {
+			appointmentDailySummaryRepository.deleteAllSummaries();
+			List<AppointmentDailySummary> summaries = summarize(LocalDateTime.of(1, 1, 1, 0, 0),
+					LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+			for (int i = 0; i < summaries.size(); i++) {
+				entityManager.persist(summaries.get(i));
+				if ((i + 1) % BULK_CHUNK_SIZE == 0) {
+					entityManager.flush();
+					entityManager.clear();
+				}
+			}
+			log.info("Built the daily summary of {} days", summaries.size());
+		});
+	}
+
+	/**
+	 * This is a private method which sums up the appointments of the days
+	 * between the given date times from the appointment and the archive tables
+	 * 
+	 * @return This will return the summary of every day which has appointments
+	 */
+	private List<AppointmentDailySummary> summarize(LocalDateTime fromDateTime, LocalDateTime toDateTime) {
+		Map<LocalDate, AppointmentDailySummary> summaries = new TreeMap<>();
+		Stream.concat(appointmentDailySummaryRepository.summarizeAppointments(fromDateTime, toDateTime).stream(),
+				archivedAppointmentRepository.summarizeAppointments(fromDateTime, toDateTime).stream())
+				.forEach(summary -> summaries.merge(summary.getSummaryDate(), summary,
+						(first, second) -> new AppointmentDailySummary(first.getSummaryDate(),
+								first.getAppointmentCount() + second.getAppointmentCount(),
+								first.getTotalDuration() + second.getTotalDuration())));
+		return new ArrayList<>(summaries.values());
+	}
+}
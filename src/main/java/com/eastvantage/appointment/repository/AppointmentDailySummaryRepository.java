@@ -0,0 +1,38 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentDailySummary;
+
+public interface AppointmentDailySummaryRepository extends JpaRepository<AppointmentDailySummary, LocalDate> {
+
+	String APPOINTMENT_DAY = "cast(a.appointmentDateTime as LocalDate)";
+
+	// the recurring appointments are left out, their occurrences are counted by
+	// the reports
+	@Query("select new com.eastvantage.appointment.entity.AppointmentDailySummary(" + APPOINTMENT_DAY + ", count(a),"
+			+ " sum(a.appointmentDuration)) from Appointment a where a.isDelete = false"
+			+ " and a.recurrence.frequency is null"
+			+ " and a.appointmentDateTime >= :fromDateTime and a.appointmentDateTime < :toDateTime"
+			+ " group by " + APPOINTMENT_DAY + " order by " + APPOINTMENT_DAY)
+	List<AppointmentDailySummary> summarizeAppointments(@Param("fromDateTime") LocalDateTime fromDateTime,
+			@Param("toDateTime") LocalDateTime toDateTime);
+
+	List<AppointmentDailySummary> findBySummaryDateBetweenOrderBySummaryDate(LocalDate fromDate, LocalDate toDate);
+
+	@Modifying
+	@Query("delete from AppointmentDailySummary s where s.summaryDate in :summaryDates")
+	int deleteBySummaryDates(@Param("summaryDates") Collection<LocalDate> summaryDates);
+
+	@Modifying
+	@Query("delete from AppointmentDailySummary s")
+	int deleteAllSummaries();
+}
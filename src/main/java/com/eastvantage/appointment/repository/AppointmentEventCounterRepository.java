@@ -0,0 +1,19 @@
+package com.eastvantage.appointment.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentEventCounter;
+
+public interface AppointmentEventCounterRepository extends JpaRepository<AppointmentEventCounter, Integer> {
+
+	@Modifying
+	@Query("update AppointmentEventCounter c set c.lastEventId = c.lastEventId + :count"
+			+ " where c.counterId = :counterId")
+	int incrementLastEventId(@Param("counterId") int counterId, @Param("count") long count);
+
+	@Query("select c.lastEventId from AppointmentEventCounter c where c.counterId = :counterId")
+	long findLastEventId(@Param("counterId") int counterId);
+}
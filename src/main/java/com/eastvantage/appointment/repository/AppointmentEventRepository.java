@@ -0,0 +1,37 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentEvent;
+
+public interface AppointmentEventRepository extends JpaRepository<AppointmentEvent, Long> {
+
+	@Query("select e from AppointmentEvent e where e.eventId > :afterEventId order by e.eventId")
+	List<AppointmentEvent> findEventsAfter(@Param("afterEventId") long afterEventId, Pageable pageable);
+
+	@Query("select coalesce(max(e.eventId), 0) from AppointmentEvent e")
+	long findMaxEventId();
+
+	@Modifying
+	@Query(value = "insert into appointment_event (event_id, event_type, appointment_id, appointment_date_time,"
+			+ " appointment_name, appointment_duration, created_at) select :eventId, :eventType, a.appointment_id,"
+			+ " a.appointment_date_time, a.appointment_name, a.appointment_duration, :createdAt from appointment a"
+			+ " where a.appointment_id = :appointmentId", nativeQuery = true)
+	int insertEventOfAppointment(@Param("eventId") long eventId, @Param("eventType") String eventType,
+			@Param("appointmentId") long appointmentId, @Param("createdAt") LocalDateTime createdAt);
+
+	@Query("select e.eventId from AppointmentEvent e where e.createdAt < :beforeDateTime order by e.eventId")
+	List<Long> findEventIdsCreatedBefore(@Param("beforeDateTime") LocalDateTime beforeDateTime, Pageable pageable);
+
+	@Modifying
+	@Query("delete from AppointmentEvent e where e.eventId in :eventIds")
+	int deleteByEventIds(@Param("eventIds") Collection<Long> eventIds);
+}
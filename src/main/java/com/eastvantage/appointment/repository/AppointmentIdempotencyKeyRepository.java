@@ -0,0 +1,40 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentIdempotencyKey;
+
+public interface AppointmentIdempotencyKeyRepository extends JpaRepository<AppointmentIdempotencyKey, String> {
+
+	// an insert and not a save, so a key claimed by another instance fails on its
+	// primary key instead of being overwritten
+	@Modifying
+	@Query(value = "insert into appointment_idempotency_key (idempotency_key, fingerprint, created_at)"
+			+ " values (:idempotencyKey, :fingerprint, :createdAt)", nativeQuery = true)
+	int insertKey(@Param("idempotencyKey") String idempotencyKey, @Param("fingerprint") String fingerprint,
+			@Param("createdAt") LocalDateTime createdAt);
+
+	// only the claim made at the given time is updated, so a request whose key
+	// was claimed again after it timed out does not overwrite the new claim
+	@Modifying
+	@Query("update AppointmentIdempotencyKey k set k.responseStatus = :responseStatus,"
+			+ " k.responseEtag = :responseEtag, k.responseBody = :responseBody"
+			+ " where k.idempotencyKey = :idempotencyKey and k.createdAt = :createdAt")
+	int updateResponse(@Param("idempotencyKey") String idempotencyKey, @Param("createdAt") LocalDateTime createdAt,
+			@Param("responseStatus") int responseStatus, @Param("responseEtag") String responseEtag,
+			@Param("responseBody") String responseBody);
+
+	@Modifying
+	@Query("delete from AppointmentIdempotencyKey k where k.idempotencyKey = :idempotencyKey"
+			+ " and k.createdAt = :createdAt")
+	int deleteKey(@Param("idempotencyKey") String idempotencyKey, @Param("createdAt") LocalDateTime createdAt);
+
+	@Modifying
+	@Query("delete from AppointmentIdempotencyKey k where k.createdAt < :beforeDateTime")
+	int deleteCreatedBefore(@Param("beforeDateTime") LocalDateTime beforeDateTime);
+}
@@ -0,0 +1,37 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+
+public interface AppointmentOccurrenceRepository extends JpaRepository<AppointmentOccurrence, Long> {
+
+	AppointmentOccurrence findByAppointmentIdAndOccurrenceDateTime(long appointmentId,
+			LocalDateTime occurrenceDateTime);
+
+	List<AppointmentOccurrence> findByAppointmentIdInAndOccurrenceDateTimeBetween(Collection<Long> appointmentIds,
+			LocalDateTime fromDate, LocalDateTime toDate);
+
+	List<AppointmentOccurrence> findByIsDeleteAndAppointmentDateTimeBetween(boolean b, LocalDateTime fromDate,
+			LocalDateTime toDate);
+
+	List<AppointmentOccurrence> findByAppointmentId(long appointmentId);
+
+	// the stored occurrences of the recurring appointments which are not over
+	// before the from date
+	@Query("select o from AppointmentOccurrence o, Appointment a where o.appointmentId = a.appointmentId"
+			+ " and a.isDelete = false and a.recurrence.frequency is not null"
+			+ " and (a.recurrence.until is null or a.recurrence.until >= :fromDate)")
+	List<AppointmentOccurrence> findOfRecurringAfter(@Param("fromDate") LocalDateTime fromDate);
+
+	@Modifying
+	@Query("delete from AppointmentOccurrence o where o.appointmentId in :appointmentIds")
+	int deleteByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+}
@@ -1,19 +1,89 @@
 package com.eastvantage.appointment.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.eastvantage.appointment.dto.AppointmentView;
 import com.eastvantage.appointment.entity.Appointment;
 
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
 
 	Appointment findByAppointmentIdAndIsDelete(long appointmentId, boolean b);
 
 	List<Appointment> findByIsDelete(boolean b);
 
+	List<Appointment> findByAppointmentIdInAndIsDelete(Collection<Long> appointmentIds, boolean b);
+
 	List<Appointment> findByIsDeleteAndAppointmentDateTimeBetween(boolean b, LocalDateTime fromDate,
 			LocalDateTime toDate);
 
+	String SELECT_VIEW = "select new com.eastvantage.appointment.dto.AppointmentView(a.appointmentId,"
+			+ " a.appointmentDateTime, a.appointmentName, a.appointmentDuration, a.isDelete, a.version,"
+			+ " a.recurrence)"
+			+ " from Appointment a";
+
+	@Query(SELECT_VIEW + " where a.isDelete = false")
+	List<AppointmentView> findAllViews();
+
+	@Query(SELECT_VIEW + " where a.appointmentId = :appointmentId and a.isDelete = false")
+	AppointmentView findViewById(@Param("appointmentId") long appointmentId);
+
+	// the recurring appointments are left out, their occurrences are found by
+	// findRecurringByDateRange
+	@Query(SELECT_VIEW + " where a.isDelete = false and a.appointmentDateTime between :fromDate and :toDate"
+			+ " and a.recurrence.frequency is null")
+	List<AppointmentView> findViewsByDateRange(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate);
+
+	// the recurring appointments are left out when their occurrences are
+	// expanded, otherwise they are read once as the row of their series
+	@Query(SELECT_VIEW + " where a.isDelete = false"
+			+ " and a.appointmentDateTime between :fromDate and :toDate"
+			+ " and (:expand = false or a.recurrence.frequency is null)"
+			+ " and (a.appointmentDateTime > :afterDateTime"
+			+ " or (a.appointmentDateTime = :afterDateTime and a.appointmentId > :afterId))"
+			+ " order by a.appointmentDateTime, a.appointmentId")
+	List<AppointmentView> findViewPageAfter(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate, @Param("afterDateTime") LocalDateTime afterDateTime,
+			@Param("afterId") long afterId, @Param("expand") boolean expand, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+	@Query(SELECT_VIEW + " where a.isDelete = false"
+			+ " and a.appointmentDateTime between :fromDate and :toDate"
+			+ " and (:expand = false or a.recurrence.frequency is null)"
+			+ " order by a.appointmentDateTime, a.appointmentId")
+	Stream<AppointmentView> streamViewsByDateRange(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate, @Param("expand") boolean expand);
+
+	@Query("select a from Appointment a where a.isDelete = false and a.recurrence.frequency is not null"
+			+ " and a.appointmentDateTime <= :toDate"
+			+ " and (a.recurrence.until is null or a.recurrence.until >= :fromDate)")
+	List<Appointment> findRecurringByDateRange(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate);
+
+	// a recurring appointment is only over once its last occurrence is
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select a.appointmentId from Appointment a where a.isDelete = true"
+			+ " or (a.appointmentDateTime < :beforeDateTime"
+			+ " and (a.recurrence.frequency is null or a.recurrence.until < :beforeDateTime))"
+			+ " order by a.appointmentId")
+	List<Long> findArchivableIdsForUpdate(@Param("beforeDateTime") LocalDateTime beforeDateTime, Pageable pageable);
+
+	@Modifying
+	@Query("delete from Appointment a where a.appointmentId in :appointmentIds")
+	int deleteByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
 }
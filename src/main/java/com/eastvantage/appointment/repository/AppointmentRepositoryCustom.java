@@ -0,0 +1,19 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+
+public interface AppointmentRepositoryCustom {
+
+	/**
+	 * This method is used to update the given fields of an appointment which is
+	 * not deleted with a single update statement, without reading the appointment
+	 * first. The fields which are null are left as they are and the version is
+	 * incremented. When the expected version, date time or duration are given the
+	 * row is only updated if it still holds them.
+	 * 
+	 * @return This will return the number of updated rows, which is 0 when the
+	 *         appointment does not exist, is deleted or does not match
+	 */
+	int patchAppointment(long appointmentId, LocalDateTime appointmentDateTime, String appointmentName,
+			Long appointmentDuration, Long expectedVersion, LocalDateTime expectedDateTime, Long expectedDuration);
+}
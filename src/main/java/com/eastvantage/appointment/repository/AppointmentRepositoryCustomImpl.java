@@ -0,0 +1,60 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.eastvantage.appointment.entity.Appointment;
+
+/**
+ * This is the implementation of the custom appointment repository methods
+ * which are not derived from the method names. The partial update is built
+ * with the criteria api so only the given fields are set by the statement.
+ */
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Override
+	public int patchAppointment(long appointmentId, LocalDateTime appointmentDateTime, String appointmentName,
+			Long appointmentDuration, Long expectedVersion, LocalDateTime expectedDateTime, Long expectedDuration) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Appointment> update = builder.createCriteriaUpdate(Appointment.class);
+		Root<Appointment> appointment = update.from(Appointment.class);
+		if (appointmentDateTime != null) {
+			update.set(appointment.<LocalDateTime>get("appointmentDateTime"), appointmentDateTime);
+		}
+		if (appointmentName != null) {
+			update.set(appointment.<String>get("appointmentName"), appointmentName);
+		}
+		if (appointmentDuration != null) {
+			update.set(appointment.<Long>get("appointmentDuration"), appointmentDuration);
+		}
+		// a bulk update does not bump the version by itself
+		update.set(appointment.<Long>get("version"), builder.sum(appointment.<Long>get("version"), 1L));
+
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(builder.equal(appointment.get("appointmentId"), appointmentId));
+		predicates.add(builder.isFalse(appointment.get("isDelete")));
+		if (expectedVersion != null) {
+			predicates.add(builder.equal(appointment.get("version"), expectedVersion));
+		}
+		if (expectedDateTime != null) {
+			predicates.add(builder.equal(appointment.get("appointmentDateTime"), expectedDateTime));
+		}
+		if (expectedDuration != null) {
+			predicates.add(builder.equal(appointment.get("appointmentDuration"), expectedDuration));
+		}
+		update.where(predicates.toArray(new Predicate[0]));
+		return entityManager.createQuery(update).executeUpdate();
+	}
+}
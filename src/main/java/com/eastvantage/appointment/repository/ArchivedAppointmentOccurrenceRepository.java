@@ -0,0 +1,29 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.ArchivedAppointmentOccurrence;
+
+public interface ArchivedAppointmentOccurrenceRepository extends JpaRepository<ArchivedAppointmentOccurrence, Long> {
+
+	@Modifying
+	@Query(value = "insert into appointment_occurrence_archive (occurrence_id, appointment_id, occurrence_date_time,"
+			+ " appointment_date_time, appointment_name, appointment_duration, is_delete, version, archived_at)"
+			+ " select occurrence_id, appointment_id, occurrence_date_time, appointment_date_time, appointment_name,"
+			+ " appointment_duration, is_delete, version, current_timestamp from appointment_occurrence"
+			+ " where appointment_id in (:appointmentIds)", nativeQuery = true)
+	int copyOccurrences(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+	List<ArchivedAppointmentOccurrence> findByAppointmentIdInAndOccurrenceDateTimeBetween(
+			Collection<Long> appointmentIds, LocalDateTime fromDate, LocalDateTime toDate);
+
+	List<ArchivedAppointmentOccurrence> findByIsDeleteAndAppointmentDateTimeBetween(boolean b, LocalDateTime fromDate,
+			LocalDateTime toDate);
+}
@@ -0,0 +1,50 @@
+package com.eastvantage.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.eastvantage.appointment.entity.AppointmentDailySummary;
+import com.eastvantage.appointment.entity.ArchivedAppointment;
+
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+	@Modifying
+	@Query(value = "insert into appointment_archive (appointment_id, appointment_date_time, appointment_name,"
+			+ " appointment_duration, is_delete, version, archived_at, recurrence_frequency, recurrence_interval,"
+			+ " recurrence_until) select appointment_id, appointment_date_time, appointment_name, appointment_duration,"
+			+ " is_delete, version, current_timestamp, recurrence_frequency, recurrence_interval, recurrence_until"
+			+ " from appointment where appointment_id in (:appointmentIds)", nativeQuery = true)
+	int copyAppointments(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+	@Query("select a from ArchivedAppointment a where a.appointmentDateTime between :fromDate and :toDate"
+			+ " and (a.appointmentDateTime > :afterDateTime"
+			+ " or (a.appointmentDateTime = :afterDateTime and a.appointmentId > :afterId))"
+			+ " order by a.appointmentDateTime, a.appointmentId")
+	List<ArchivedAppointment> findPageAfter(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate, @Param("afterDateTime") LocalDateTime afterDateTime,
+			@Param("afterId") long afterId, Pageable pageable);
+
+	@Query("select a from ArchivedAppointment a where a.isDelete = false and a.recurrence.frequency is not null"
+			+ " and a.appointmentDateTime <= :toDate and (a.recurrence.until is null or a.recurrence.until >= :fromDate)")
+	List<ArchivedAppointment> findRecurringByDateRange(@Param("fromDate") LocalDateTime fromDate,
+			@Param("toDate") LocalDateTime toDate);
+
+	List<ArchivedAppointment> findByAppointmentIdInAndIsDelete(Collection<Long> appointmentIds, boolean b);
+
+	// the recurring appointments are left out, their occurrences are counted by
+	// the reports
+	@Query("select new com.eastvantage.appointment.entity.AppointmentDailySummary("
+			+ AppointmentDailySummaryRepository.APPOINTMENT_DAY + ", count(a), sum(a.appointmentDuration))"
+			+ " from ArchivedAppointment a where a.isDelete = false and a.recurrence.frequency is null"
+			+ " and a.appointmentDateTime >= :fromDateTime and a.appointmentDateTime < :toDateTime"
+			+ " group by " + AppointmentDailySummaryRepository.APPOINTMENT_DAY)
+	List<AppointmentDailySummary> summarizeAppointments(@Param("fromDateTime") LocalDateTime fromDateTime,
+			@Param("toDateTime") LocalDateTime toDateTime);
+}
@@ -0,0 +1,15 @@
+package com.eastvantage.appointment.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBulkItemResponse {
+	private int index;
+	private long appointmentId;
+	private boolean error;
+	private String message;
+}
@@ -0,0 +1,17 @@
+package com.eastvantage.appointment.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBulkResponse {
+	private int total;
+	private int succeeded;
+	private int failed;
+	private List<AppointmentBulkItemResponse> items;
+}
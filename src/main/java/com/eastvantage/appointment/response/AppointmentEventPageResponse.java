@@ -0,0 +1,16 @@
+package com.eastvantage.appointment.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEventPageResponse {
+	private List<AppointmentEventResponse> events;
+	private long lastEventId;
+	private boolean hasNext;
+}
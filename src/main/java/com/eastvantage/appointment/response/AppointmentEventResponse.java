@@ -0,0 +1,29 @@
+package com.eastvantage.appointment.response;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
+import java.time.LocalDateTime;
+
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEventResponse {
+	private long eventId;
+	private AppointmentEventType eventType;
+	private long appointmentId;
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime appointmentDateTime;
+	private String appointmentName;
+	private String appointmentDuration;
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime occurrenceDateTime;
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime createdAt;
+}
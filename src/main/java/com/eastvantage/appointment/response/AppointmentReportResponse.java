@@ -0,0 +1,23 @@
+package com.eastvantage.appointment.response;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_FORMAT;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentReportResponse {
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_FORMAT)
+	private LocalDate fromDate;
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_FORMAT)
+	private LocalDate toDate;
+	private long appointmentCount;
+	private String totalDuration;
+}
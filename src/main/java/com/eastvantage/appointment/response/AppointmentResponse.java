@@ -1,8 +1,13 @@
 package com.eastvantage.appointment.response;
 
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
 import java.time.LocalDateTime;
 
+import com.eastvantage.appointment.dto.AppointmentRecurrenceDto;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,9 +18,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AppointmentResponse {
 	private long appointmentId;
-	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "MM-dd-yyyy HH:mm:ss")
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
 	private LocalDateTime appointmentDateTime;
 	private String appointmentName;
 	private String appointmentDuration;
 	private boolean isDelete;
+	@JsonIgnore
+	private long version;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private AppointmentRecurrenceDto recurrence;
+	// the date time the rule gives an occurrence of a recurring appointment,
+	// which differs from the appointment date time when the occurrence is moved
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime occurrenceDateTime;
 }
@@ -0,0 +1,22 @@
+package com.eastvantage.appointment.response;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotResponse {
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime fromDate;
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_TIME_FORMAT)
+	private LocalDateTime toDate;
+	private String duration;
+}
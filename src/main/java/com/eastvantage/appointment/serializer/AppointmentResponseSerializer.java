@@ -0,0 +1,129 @@
+package com.eastvantage.appointment.serializer;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.DATE_TIME_FORMAT;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.eastvantage.appointment.dto.AppointmentRecurrenceDto;
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * This is the serializer of the appointment response, which is written once
+ * for every appointment of the list, page and stream responses. The fields are
+ * written directly instead of through the reflective bean serializer, and the
+ * date time is formatted in the DATE_TIME_FORMAT of the api digit by digit.
+ * The json is the same as the one of the bean serializer, including the delete
+ * field name and the field order, and the recurrence fields are only written
+ * when they are set. The serializer tests compare both for every field of the
+ * response, so a field which is added to the response fails them until it is
+ * written here too.
+ */
+@JsonComponent
+public class AppointmentResponseSerializer extends StdSerializer<AppointmentResponse> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_FORMAT);
+
+	private static final SerializedString APPOINTMENT_ID_FIELD = new SerializedString("appointmentId");
+	private static final SerializedString APPOINTMENT_DATE_TIME_FIELD = new SerializedString("appointmentDateTime");
+	private static final SerializedString APPOINTMENT_NAME_FIELD = new SerializedString("appointmentName");
+	private static final SerializedString APPOINTMENT_DURATION_FIELD = new SerializedString("appointmentDuration");
+	private static final SerializedString DELETE_FIELD = new SerializedString("delete");
+	private static final SerializedString RECURRENCE_FIELD = new SerializedString("recurrence");
+	private static final SerializedString FREQUENCY_FIELD = new SerializedString("frequency");
+	private static final SerializedString INTERVAL_FIELD = new SerializedString("interval");
+	private static final SerializedString UNTIL_FIELD = new SerializedString("until");
+	private static final SerializedString OCCURRENCE_DATE_TIME_FIELD = new SerializedString("occurrenceDateTime");
+
+	public AppointmentResponseSerializer() {
+		super(AppointmentResponse.class);
+	}
+
+	@Override
+	public void serialize(AppointmentResponse response, JsonGenerator generator, SerializerProvider provider)
+			throws IOException {
+		generator.writeStartObject(response);
+		generator.writeFieldName(APPOINTMENT_ID_FIELD);
+		generator.writeNumber(response.getAppointmentId());
+		generator.writeFieldName(APPOINTMENT_DATE_TIME_FIELD);
+		writeDateTime(response.getAppointmentDateTime(), generator);
+		generator.writeFieldName(APPOINTMENT_NAME_FIELD);
+		generator.writeString(response.getAppointmentName());
+		generator.writeFieldName(APPOINTMENT_DURATION_FIELD);
+		generator.writeString(response.getAppointmentDuration());
+		if (response.getRecurrence() != null) {
+			generator.writeFieldName(RECURRENCE_FIELD);
+			writeRecurrence(response.getRecurrence(), generator);
+		}
+		if (response.getOccurrenceDateTime() != null) {
+			generator.writeFieldName(OCCURRENCE_DATE_TIME_FIELD);
+			writeDateTime(response.getOccurrenceDateTime(), generator);
+		}
+		// the bean serializer writes the delete field last, since it only has a getter
+		generator.writeFieldName(DELETE_FIELD);
+		generator.writeBoolean(response.isDelete());
+		generator.writeEndObject();
+	}
+
+	private static void writeRecurrence(AppointmentRecurrenceDto recurrence, JsonGenerator generator)
+			throws IOException {
+		generator.writeStartObject(recurrence);
+		if (recurrence.getFrequency() != null) {
+			generator.writeFieldName(FREQUENCY_FIELD);
+			generator.writeString(recurrence.getFrequency().name());
+		}
+		if (recurrence.getInterval() != null) {
+			generator.writeFieldName(INTERVAL_FIELD);
+			generator.writeNumber(recurrence.getInterval());
+		}
+		if (recurrence.getUntil() != null) {
+			generator.writeFieldName(UNTIL_FIELD);
+			writeDateTime(recurrence.getUntil(), generator);
+		}
+		generator.writeEndObject();
+	}
+
+	/**
+	 * This method is used to write the date time in the MM-dd-yyyy HH:mm:ss
+	 * format. The years which do not have four digits are left to the formatter.
+	 */
+	static void writeDateTime(LocalDateTime dateTime, JsonGenerator generator) throws IOException {
+		if (dateTime == null) {
+			generator.writeNull();
+			return;
+		}
+		int year = dateTime.getYear();
+		if (year < 1 || year > 9999) {
+			generator.writeString(FORMATTER.format(dateTime));
+			return;
+		}
+		char[] text = new char[19];
+		writeDigits(text, 0, dateTime.getMonthValue());
+		text[2] = '-';
+		writeDigits(text, 3, dateTime.getDayOfMonth());
+		text[5] = '-';
+		writeDigits(text, 6, year / 100);
+		writeDigits(text, 8, year % 100);
+		text[10] = ' ';
+		writeDigits(text, 11, dateTime.getHour());
+		text[13] = ':';
+		writeDigits(text, 14, dateTime.getMinute());
+		text[16] = ':';
+		writeDigits(text, 17, dateTime.getSecond());
+		generator.writeString(text, 0, text.length);
+	}
+
+	private static void writeDigits(char[] text, int offset, int value) {
+		text[offset] = (char) ('0' + value / 10);
+		text[offset + 1] = (char) ('0' + value % 10);
+	}
+}
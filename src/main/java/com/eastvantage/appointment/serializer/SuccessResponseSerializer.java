@@ -0,0 +1,62 @@
+package com.eastvantage.appointment.serializer;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * This is the serializer of the success response which wraps the payload of
+ * every endpoint. The constant messages are encoded once, so they are copied
+ * to the output as they are instead of being escaped and encoded again on
+ * every response. The json is the same as the one of the bean serializer.
+ */
+@JsonComponent
+public class SuccessResponseSerializer extends StdSerializer<SuccessResponse> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializedString ERROR_FIELD = new SerializedString("error");
+	private static final SerializedString MESSAGE_FIELD = new SerializedString("message");
+	private static final SerializedString DATA_FIELD = new SerializedString("data");
+
+	private static final Map<String, SerializableString> MESSAGES = Stream
+			.of(SAVE_SUCCESS_MESSAGE, GET_SUCCESS_MESSAGE, DELETE_SUCCESS_MESSAGE, UPDATE_SUCCESS_MESSAGE,
+					NO_DATA_FOUND, BULK_SUCCESS_MESSAGE)
+			.collect(Collectors.toUnmodifiableMap(Function.identity(), SerializedString::new));
+
+	public SuccessResponseSerializer() {
+		super(SuccessResponse.class);
+	}
+
+	@Override
+	public void serialize(SuccessResponse response, JsonGenerator generator, SerializerProvider provider)
+			throws IOException {
+		generator.writeStartObject(response);
+		generator.writeFieldName(ERROR_FIELD);
+		generator.writeBoolean(response.isError());
+		generator.writeFieldName(MESSAGE_FIELD);
+		String message = response.getMessage();
+		SerializableString encoded = message == null ? null : MESSAGES.get(message);
+		if (encoded != null) {
+			generator.writeString(encoded);
+		} else {
+			generator.writeString(message);
+		}
+		generator.writeFieldName(DATA_FIELD);
+		provider.defaultSerializeValue(response.getData(), generator);
+		generator.writeEndObject();
+	}
+}
@@ -1,21 +1,63 @@
 package com.eastvantage.appointment.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.eastvantage.appointment.dto.AppointmentBulkUpdateDto;
 import com.eastvantage.appointment.dto.AppointmentDto;
 import com.eastvantage.appointment.dto.AppointmentFilterDto;
+import com.eastvantage.appointment.dto.AppointmentPatchDto;
 import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.response.AppointmentBulkResponse;
+import com.eastvantage.appointment.response.AppointmentEventPageResponse;
+import com.eastvantage.appointment.response.AppointmentPageResponse;
+import com.eastvantage.appointment.response.AppointmentReportResponse;
 import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.CacheStatsResponse;
+import com.eastvantage.appointment.response.FreeSlotResponse;
 
 public interface AppointmentService {
 
 	public Appointment createAppointment(AppointmentDto appointmentDto);
 
-	public Appointment updateAppointment(AppointmentDto appointmentDto, long appointmentId);
+	public Appointment updateAppointment(AppointmentDto appointmentDto, long appointmentId, Long expectedVersion);
 
-	public Appointment deleteAppointment(long appointmentId);
+	public Long patchAppointment(AppointmentPatchDto appointmentDto, long appointmentId, Long expectedVersion);
+
+	public Appointment deleteAppointment(long appointmentId, Long expectedVersion);
+
+	public AppointmentResponse updateOccurrence(AppointmentDto appointmentDto, long appointmentId,
+			LocalDateTime occurrenceDateTime);
+
+	public AppointmentResponse cancelOccurrence(long appointmentId, LocalDateTime occurrenceDateTime);
 
 	public List<AppointmentResponse> getAllAppointment(AppointmentFilterDto dto);
 
 	public AppointmentResponse findAppointmentById(long appointmentId);
+
+	public AppointmentPageResponse getAppointmentPage(AppointmentFilterDto dto, String cursor, int limit);
+
+	public void streamAllAppointment(AppointmentFilterDto dto, Consumer<AppointmentResponse> consumer);
+
+	public CacheStatsResponse getCacheStats();
+
+	public List<FreeSlotResponse> getFreeSlots(LocalDateTime fromDate, LocalDateTime toDate, String minDuration);
+
+	public AppointmentEventPageResponse getAppointmentEvents(long afterEventId, int limit);
+
+	public List<AppointmentReportResponse> getDailyReport(LocalDate fromDate, LocalDate toDate);
+
+	public List<AppointmentReportResponse> getWeeklyReport(LocalDate fromDate, LocalDate toDate);
+
+	public AppointmentResponse findArchivedAppointmentById(long appointmentId);
+
+	public AppointmentPageResponse getArchivedAppointmentPage(AppointmentFilterDto dto, String cursor, int limit);
+
+	public AppointmentBulkResponse createAppointments(List<AppointmentDto> appointmentDtos);
+
+	public AppointmentBulkResponse updateAppointments(List<AppointmentBulkUpdateDto> appointmentDtos);
+
+	public AppointmentBulkResponse deleteAppointments(List<Long> appointmentIds);
 }
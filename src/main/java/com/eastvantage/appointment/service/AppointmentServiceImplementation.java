@@ -2,26 +2,85 @@ package com.eastvantage.appointment.service;
 
 import static com.eastvantage.appointment.common.AppointmentCommon.*;
 
+import java.time.DayOfWeek;
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 
-import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.eastvantage.appointment.calendar.AppointmentCalendar;
+import com.eastvantage.appointment.common.AppointmentCursor;
+import com.eastvantage.appointment.common.AppointmentDurationCodec;
+import com.eastvantage.appointment.dto.AppointmentBulkUpdateDto;
 import com.eastvantage.appointment.dto.AppointmentDto;
 import com.eastvantage.appointment.dto.AppointmentFilterDto;
+import com.eastvantage.appointment.dto.AppointmentPatchDto;
+import com.eastvantage.appointment.dto.AppointmentView;
 import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentDailySummary;
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.ArchivedAppointment;
+import com.eastvantage.appointment.event.AppointmentEventPublisher;
 import com.eastvantage.appointment.exception.AppointmentException;
 import com.eastvantage.appointment.exception.AppointmentNotFoundException;
+import com.eastvantage.appointment.exception.AppointmentVersionMismatchException;
+import com.eastvantage.appointment.index.AppointmentIntervalIndex;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.recurrence.AppointmentRecurrenceExpander;
+import com.eastvantage.appointment.report.AppointmentDailySummaryRefresher;
+import com.eastvantage.appointment.repository.AppointmentDailySummaryRepository;
+import com.eastvantage.appointment.repository.AppointmentOccurrenceRepository;
 import com.eastvantage.appointment.repository.AppointmentRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentRepository;
+import com.eastvantage.appointment.response.AppointmentBulkItemResponse;
+import com.eastvantage.appointment.response.AppointmentBulkResponse;
+import com.eastvantage.appointment.response.AppointmentEventPageResponse;
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+import com.eastvantage.appointment.response.AppointmentPageResponse;
+import com.eastvantage.appointment.response.AppointmentReportResponse;
 import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.CacheStatsResponse;
+import com.eastvantage.appointment.response.FreeSlotResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -29,7 +88,10 @@ import lombok.extern.slf4j.Slf4j;
  * 
  * This is the service implementation class of Appointment Service interface.
  * This will contain all the declared of the Appointment Service interface whose
- * methods are defined
+ * methods are defined. Every method is timed under the appointment.service
+ * metric. The timer runs inside the caching advice, so the timer of the find by
+ * id method only records cache misses, while the hits show in the cache.gets
+ * metric.
  *
  */
 
@@ -37,64 +99,208 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class AppointmentServiceImplementation implements AppointmentService {
 
+	private static final LocalDateTime MIN_DATE_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+	private static final LocalDateTime MAX_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
 	@Autowired
 	private AppointmentRepository appointmentRepository;
 
+	@Autowired
+	private AppointmentMapper appointmentMapper;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private AppointmentIntervalIndex appointmentIntervalIndex;
+
+	@Autowired
+	private AppointmentCalendar appointmentCalendar;
+
+	@Autowired
+	private AppointmentEventPublisher appointmentEventPublisher;
+
+	@Autowired
+	private AppointmentDailySummaryRefresher appointmentDailySummaryRefresher;
+
+	@Autowired
+	private AppointmentDailySummaryRepository appointmentDailySummaryRepository;
+
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+	@Autowired
+	private AppointmentOccurrenceRepository appointmentOccurrenceRepository;
+
+	@Autowired
+	private AppointmentRecurrenceExpander appointmentRecurrenceExpander;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	private void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
 	/**
 	 * This is the implementation method of creating an appointment. Here we will
-	 * convert the received dto to the entity object and save.
+	 * convert the received dto to the entity object and save. The interval of the
+	 * appointment, or of each of its occurrences up to the horizon of the index
+	 * when it repeats, is reserved in the interval index first, so an appointment
+	 * which overlaps another one is rejected. The created event is written to
+	 * the outbox in the same transaction.
 	 * 
 	 * @return This will return the appointment object on successful saving of the
 	 *         object.
 	 */
 
+	@Transactional
+	@Timed(SERVICE_TIMER)
 	@Override
 	public Appointment createAppointment(AppointmentDto appointmentDto) {
 		log.debug(DEBUG, appointmentDto);
-		Appointment appointment = new Appointment();
 		try {
-			BeanUtils.copyProperties(appointmentDto, appointment);
-			appointment.setAppointmentDuration(convertTimeToMilliSeconds(appointmentDto.getAppointmentDuration()));
-			return appointmentRepository.save(appointment);
+			Appointment appointment = appointmentMapper.toEntity(appointmentDto);
+			long token = reserve(appointment, 0);
+			try {
+				appointment = appointmentRepository.save(appointment);
+				appointmentEventPublisher.publish(AppointmentEventType.CREATED, appointment);
+				appointmentDailySummaryRefresher.markDirty(appointment.getAppointmentDateTime());
+			} catch (RuntimeException e) {
+				appointmentIntervalIndex.release(token);
+				throw e;
+			}
+			confirmAfterCommit(token, appointment.getAppointmentId());
+			putAfterCommit(appointment);
+			return appointment;
+		} catch (AppointmentException e) {
+			throw e;
 		} catch (Exception e) {
 			log.error(ERROR, e);
 			throw new AppointmentException(SOMETHING_WENT_WRONG);
 		}
 	}
 
-	/**
-	 * This is a private method which is used to convert string duration format to
-	 * Duration type.
-	 * 
-	 * @return This will return the milliseconds of the converted duration object
-	 */
-	private long convertTimeToMilliSeconds(String time) {
-		String[] values = time.split(":");
-		// get the hours, minutes and seconds value and add it to the duration
-		Duration duration = Duration.ofHours(Integer.parseInt(values[0]));
-		duration = duration.plusMinutes(Integer.parseInt(values[1]));
-		duration = duration.plusSeconds(Integer.parseInt(values[2]));
-		return duration.toMillis();
-	}
-
 	/**
 	 * This is the implementation method of updating an appointment. Here we will
-	 * find the object to be updated and replace all the changes and save it
+	 * find the object to be updated and replace all the changes and save it. When
+	 * an expected version is given the appointment is only updated if it still
+	 * has that version, and the version column rejects an update which races
+	 * with another one. The new interval of the appointment is checked against
+	 * the other appointments, and the cached response of the appointment is
+	 * evicted once the update is committed.
 	 * 
 	 * @return This will return the appointment object on successful updating of the
 	 *         object.
 	 */
+	@CacheEvict(cacheNames = APPOINTMENT_CACHE, key = "#appointmentId")
 	@Transactional
+	@Timed(SERVICE_TIMER)
 	@Override
-	public Appointment updateAppointment(AppointmentDto appointmentDto, long appointmentId) {
+	public Appointment updateAppointment(AppointmentDto appointmentDto, long appointmentId, Long expectedVersion) {
 		try {
-			log.debug(DEBUG, appointmentDto + " " + appointmentId);
+			log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + expectedVersion);
 			Appointment appointment = getAppointmentById(appointmentId);
+			checkVersion(appointment, expectedVersion);
 
-			BeanUtils.copyProperties(appointmentDto, appointment, "appointmentId");
-			appointment.setAppointmentDuration(convertTimeToMilliSeconds(appointmentDto.getAppointmentDuration()));
-			return appointmentRepository.save(appointment);
-		} catch (AppointmentNotFoundException e) {
+			long token = reserve(appointmentMapper.toEntity(appointmentDto), appointmentId);
+			try {
+				LocalDateTime previousDateTime = appointment.getAppointmentDateTime();
+				appointmentMapper.updateEntity(appointmentDto, appointment);
+				appointment = appointmentRepository.save(appointment);
+				appointmentEventPublisher.publish(AppointmentEventType.UPDATED, appointment);
+				appointmentDailySummaryRefresher.markDirty(previousDateTime, appointment.getAppointmentDateTime());
+			} catch (RuntimeException e) {
+				appointmentIntervalIndex.release(token);
+				throw e;
+			}
+			confirmAfterCommit(token, appointmentId);
+			putAfterCommit(appointment);
+			return appointment;
+		} catch (AppointmentNotFoundException | AppointmentException | AppointmentVersionMismatchException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of partially updating an appointment.
+	 * Only the given fields are updated, with a single update statement which
+	 * also checks the expected version, so the appointment is not read first.
+	 * When the date time or the duration change, the current interval is taken
+	 * from the interval index to check the new interval, and the update only
+	 * applies if the appointment still has that interval.
+	 * 
+	 * @return This will return the new version of the appointment when the
+	 *         expected version is given, otherwise null as it is not read
+	 */
+	@CacheEvict(cacheNames = APPOINTMENT_CACHE, key = "#appointmentId")
+	@Transactional
+	@Timed(SERVICE_TIMER)
+	@Override
+	public Long patchAppointment(AppointmentPatchDto appointmentDto, long appointmentId, Long expectedVersion) {
+		try {
+			log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + expectedVersion);
+			LocalDateTime dateTime = appointmentDto.getAppointmentDateTime();
+			Long duration = appointmentDto.getAppointmentDuration() == null ? null
+					: AppointmentDurationCodec.parse(appointmentDto.getAppointmentDuration());
+			if (dateTime == null && duration == null && appointmentDto.getAppointmentName() == null) {
+				throw new AppointmentException(EMPTY_PATCH);
+			}
+			LocalDateTime expectedDateTime = null;
+			Long expectedDuration = null;
+			Long token = null;
+			if (dateTime != null || duration != null) {
+				// the current interval fills in the field which is left out and is the
+				// day the appointment leaves in the daily summary
+				Appointment patched = findInterval(appointmentId);
+				expectedDateTime = patched.getAppointmentDateTime();
+				expectedDuration = patched.getAppointmentDuration();
+				patched.setAppointmentDateTime(dateTime != null ? dateTime : expectedDateTime);
+				patched.setAppointmentDuration(duration != null ? duration : expectedDuration);
+				if (patched.getRecurrence() != null && patched.getRecurrence().getUntil() != null
+						&& patched.getRecurrence().getUntil().isBefore(patched.getAppointmentDateTime())) {
+					throw new AppointmentException(INVALID_RECURRENCE);
+				}
+				token = reserve(patched, appointmentId);
+			}
+			try {
+				int rows = appointmentRepository.patchAppointment(appointmentId, dateTime,
+						appointmentDto.getAppointmentName(), duration, expectedVersion, expectedDateTime,
+						expectedDuration);
+				if (rows == 0) {
+					throw patchFailure(appointmentId, expectedVersion);
+				}
+				appointmentEventPublisher.publishCurrentState(AppointmentEventType.UPDATED, appointmentId);
+				appointmentDailySummaryRefresher.markDirty(expectedDateTime, dateTime);
+				if (appointmentCalendar.isEnabled()) {
+					// the update statement leaves the fields which are not given unknown,
+					// and the recurrence decides whether the calendar holds the appointment
+					putAfterCommit(getAppointmentById(appointmentId));
+				}
+			} catch (RuntimeException e) {
+				if (token != null) {
+					appointmentIntervalIndex.release(token);
+				}
+				throw e;
+			}
+			if (token != null) {
+				confirmAfterCommit(token, appointmentId);
+			}
+			return expectedVersion == null ? null : expectedVersion + 1;
+		} catch (AppointmentNotFoundException | AppointmentException | AppointmentVersionMismatchException
+				| OptimisticLockingFailureException e) {
 			throw e;
 		} catch (Exception e) {
 			log.error(ERROR, e);
@@ -120,19 +326,99 @@ public class AppointmentServiceImplementation implements AppointmentService {
 
 	/**
 	 * This is the implementation method of deleting an appointment. This method
-	 * will do a soft delete operation on a particular appointment object
+	 * will do a soft delete operation on a particular appointment object, which
+	 * has the expected version when it is given. The cached response of the
+	 * appointment is evicted once the delete is committed.
 	 * 
 	 * @return This will return the appointment object on successful deletion of the
 	 *         object.
 	 */
+	@CacheEvict(cacheNames = APPOINTMENT_CACHE, key = "#appointmentId")
 	@Transactional
+	@Timed(SERVICE_TIMER)
 	@Override
-	public Appointment deleteAppointment(long appointmentId) {
+	public Appointment deleteAppointment(long appointmentId, Long expectedVersion) {
 		try {
-			log.debug(DEBUG, appointmentId);
+			log.debug(DEBUG, appointmentId + " " + expectedVersion);
 			Appointment appointment = getAppointmentById(appointmentId);
+			checkVersion(appointment, expectedVersion);
 			appointment.setDelete(true);
-			return appointmentRepository.save(appointment);
+			appointment = appointmentRepository.save(appointment);
+			appointmentEventPublisher.publish(AppointmentEventType.DELETED, appointment);
+			appointmentDailySummaryRefresher.markDirty(appointment.getAppointmentDateTime());
+			runAfterCommit(() -> appointmentIntervalIndex.removeAppointment(appointmentId));
+			putAfterCommit(appointment);
+			return appointment;
+		} catch (AppointmentNotFoundException | AppointmentVersionMismatchException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of changing one occurrence of a
+	 * recurring appointment. The occurrence is stored with the received details
+	 * under the date time its rule gives it, so it can be moved, renamed or
+	 * resized without touching the rule or the other occurrences. The new
+	 * interval of the occurrence is checked against the other appointments, and
+	 * the change is published as an update event of the occurrence.
+	 * 
+	 * @return This will return the changed occurrence
+	 */
+	@Transactional
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentResponse updateOccurrence(AppointmentDto appointmentDto, long appointmentId,
+			LocalDateTime occurrenceDateTime) {
+		try {
+			log.debug(DEBUG, appointmentDto + " " + appointmentId + " " + occurrenceDateTime);
+			Appointment appointment = getRecurringAppointmentById(appointmentId, occurrenceDateTime);
+			AppointmentOccurrence occurrence = getOccurrence(appointment, occurrenceDateTime);
+			appointmentMapper.updateOccurrence(appointmentDto, occurrence);
+			occurrence.setDelete(false);
+
+			long token = appointmentIntervalIndex.reserve(occurrence);
+			try {
+				occurrence = appointmentOccurrenceRepository.save(occurrence);
+				appointmentEventPublisher.publish(AppointmentEventType.UPDATED, occurrence);
+			} catch (RuntimeException e) {
+				appointmentIntervalIndex.release(token);
+				throw e;
+			}
+			confirmAfterCommit(token, occurrence);
+			return appointmentMapper.toResponse(appointment, occurrence);
+		} catch (AppointmentException | AppointmentNotFoundException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of cancelling one occurrence of a
+	 * recurring appointment. Only the cancelled occurrence is stored, the rule
+	 * and the other occurrences are left as they are. The interval of the
+	 * occurrence is freed once the cancel is committed, and the cancel is
+	 * published as a delete event of the occurrence.
+	 * 
+	 * @return This will return the cancelled occurrence
+	 */
+	@Transactional
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentResponse cancelOccurrence(long appointmentId, LocalDateTime occurrenceDateTime) {
+		try {
+			log.debug(DEBUG, appointmentId + " " + occurrenceDateTime);
+			Appointment appointment = getRecurringAppointmentById(appointmentId, occurrenceDateTime);
+			AppointmentOccurrence occurrence = getOccurrence(appointment, occurrenceDateTime);
+			occurrence.setDelete(true);
+			AppointmentOccurrence cancelled = appointmentOccurrenceRepository.save(occurrence);
+			appointmentEventPublisher.publish(AppointmentEventType.DELETED, cancelled);
+			runAfterCommit(() -> appointmentIntervalIndex.cancel(cancelled));
+			return appointmentMapper.toResponse(appointment, cancelled);
 		} catch (AppointmentNotFoundException e) {
 			throw e;
 		} catch (Exception e) {
@@ -141,30 +427,94 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		}
 	}
 
+	/**
+	 * This is a private method which reads the summary rows of the days between
+	 * the from date and the to date, after refreshing the dirty days, and adds
+	 * the occurrences of the recurring appointments which start on these days,
+	 * archived or not
+	 * 
+	 * @return This will return the summary of every day which has appointments,
+	 *         in the order of the days
+	 */
+	private List<AppointmentDailySummary> findDailySummaries(LocalDate fromDate, LocalDate toDate) {
+		appointmentDailySummaryRefresher.refresh();
+		Map<LocalDate, AppointmentDailySummary> summaries = new TreeMap<>();
+		appointmentDailySummaryRepository.findBySummaryDateBetweenOrderBySummaryDate(fromDate, toDate)
+				.forEach(summary -> summaries.put(summary.getSummaryDate(), summary));
+		LocalDateTime fromDateTime = fromDate.atStartOfDay();
+		LocalDateTime toDateTime = toDate.atTime(LocalTime.MAX);
+		// the rows read are not changed, they may still be managed
+		Stream.concat(appointmentRecurrenceExpander.findOccurrences(fromDateTime, toDateTime).stream(),
+				appointmentRecurrenceExpander.findArchivedOccurrences(fromDateTime, toDateTime).stream())
+				.forEach(occurrence -> summaries.merge(occurrence.getAppointmentDateTime().toLocalDate(),
+						new AppointmentDailySummary(occurrence.getAppointmentDateTime().toLocalDate(), 1,
+								AppointmentDurationCodec.parse(occurrence.getAppointmentDuration())),
+						(first, second) -> new AppointmentDailySummary(first.getSummaryDate(),
+								first.getAppointmentCount() + second.getAppointmentCount(),
+								first.getTotalDuration() + second.getTotalDuration())));
+		return new ArrayList<>(summaries.values());
+	}
+
+	/**
+	 * This is a private method for fetching a recurring appointment which is not
+	 * deleted and whose rule gives the occurrence date time
+	 * 
+	 * @return This will return the appointment object if it is present
+	 */
+	private Appointment getRecurringAppointmentById(long appointmentId, LocalDateTime occurrenceDateTime) {
+		Appointment appointment = getAppointmentById(appointmentId);
+		if (occurrenceDateTime == null
+				|| !AppointmentRecurrenceExpander.isOccurrence(appointment, occurrenceDateTime)) {
+			throw new AppointmentNotFoundException(GET_FAIL_MESSAGE);
+		}
+		return appointment;
+	}
+
+	/**
+	 * This is a private method for fetching the stored occurrence of the
+	 * appointment at the occurrence date time, or a new one with the details of
+	 * the appointment when the occurrence was not changed before
+	 * 
+	 * @return This will return the occurrence object
+	 */
+	private AppointmentOccurrence getOccurrence(Appointment appointment, LocalDateTime occurrenceDateTime) {
+		AppointmentOccurrence occurrence = appointmentOccurrenceRepository
+				.findByAppointmentIdAndOccurrenceDateTime(appointment.getAppointmentId(), occurrenceDateTime);
+		return occurrence != null ? occurrence : appointmentMapper.toOccurrence(appointment, occurrenceDateTime);
+	}
+
 	/**
 	 * This is the implementation method of fetching all the appointments. This
 	 * method will filter the appointments based on the appointment date if the from
-	 * date and to date is passed
+	 * date and to date is passed. A date range which the calendar holds is served
+	 * from memory, any other range is read from the database. The occurrences of
+	 * the recurring appointments in the date range are computed from their rules
+	 * and merged in start order. Without a date range a recurring appointment is
+	 * listed once, along with its rule.
 	 * 
 	 * @return This will return the list of appointment objects
 	 */
+	@Timed(SERVICE_TIMER)
 	@Override
 	public List<AppointmentResponse> getAllAppointment(AppointmentFilterDto dto) {
 		try {
 			log.debug(DEBUG, dto);
-			List<Appointment> list;
+			List<AppointmentView> list;
 			if (dto.getFromDate() != null && dto.getToDate() != null) {
-				list = appointmentRepository.findByIsDeleteAndAppointmentDateTimeBetween(false, dto.getFromDate(),
-						dto.getToDate());
+				list = appointmentCalendar.findByDateRange(dto.getFromDate(), dto.getToDate());
+				if (list == null) {
+					list = appointmentRepository.findViewsByDateRange(dto.getFromDate(), dto.getToDate());
+				}
 			} else {
-				list = appointmentRepository.findByIsDelete(false);
+				list = appointmentRepository.findAllViews();
 			}
-			return list.stream()
-					.map(e -> new AppointmentResponse(e.getAppointmentId(), e.getAppointmentDateTime(),
-							e.getAppointmentName(),
-							DurationFormatUtils.formatDuration(e.getAppointmentDuration(), "HH:mm:ss", true),
-							e.isDelete()))
-					.collect(Collectors.toList());
+			if (dto.getFromDate() == null || dto.getToDate() == null) {
+				return list.stream().map(appointmentMapper::toResponse).collect(Collectors.toList());
+			}
+			List<AppointmentResponse> responses = new ArrayList<>();
+			appointmentRecurrenceExpander.withOccurrences(list.stream().map(appointmentMapper::toResponse).iterator(),
+					dto.getFromDate(), dto.getToDate()).forEachRemaining(responses::add);
+			return responses;
 		} catch (Exception e) {
 			log.error(ERROR, e);
 			throw new AppointmentException(SOMETHING_WENT_WRONG);
@@ -173,21 +523,19 @@ public class AppointmentServiceImplementation implements AppointmentService {
 
 	/**
 	 * This is a implementation method for fetching a particular appointment based
-	 * on the appointment id.
+	 * on the appointment id. The built response is cached, so repeated reads of
+	 * the same appointment are served without touching the database.
 	 * 
 	 * @return This will return the particular appointment object based on the
 	 *         appointment id
 	 */
+	@Cacheable(cacheNames = APPOINTMENT_CACHE, key = "#appointmentId")
+	@Timed(SERVICE_TIMER)
 	@Override
 	public AppointmentResponse findAppointmentById(long appointmentId) {
 		try {
 			log.debug(DEBUG, appointmentId);
-			Appointment appointment = getAppointmentById(appointmentId);
-			AppointmentResponse appointmentResponse = new AppointmentResponse();
-			BeanUtils.copyProperties(appointment, appointmentResponse);
-			appointmentResponse.setAppointmentDuration(
-					DurationFormatUtils.formatDuration(appointment.getAppointmentDuration(), "HH:mm:ss", true));
-			return appointmentResponse;
+			return appointmentMapper.toResponse(getAppointmentById(appointmentId));
 		} catch (AppointmentNotFoundException e) {
 			throw e;
 		} catch (Exception e) {
@@ -196,4 +544,668 @@ public class AppointmentServiceImplementation implements AppointmentService {
 		}
 	}
 
+	/**
+	 * This is the implementation method of fetching a page of appointments. The
+	 * appointments are ordered by the appointment date time and appointment id and
+	 * the page starts right after the position held by the cursor, so the database
+	 * only reads the rows of the requested page however deep the client pages.
+	 * When the to date is passed the occurrences of the recurring appointments
+	 * after the cursor are merged in, otherwise a recurring appointment is listed
+	 * once, along with its rule.
+	 * 
+	 * @return This will return the page of appointment objects along with the
+	 *         cursor of the next page
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentPageResponse getAppointmentPage(AppointmentFilterDto dto, String cursor, int limit) {
+		log.debug(DEBUG, dto + " " + cursor + " " + limit);
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new AppointmentException(INVALID_PAGE_SIZE);
+		}
+		LocalDateTime fromDate = dto.getFromDate() != null ? dto.getFromDate() : MIN_DATE_TIME;
+		LocalDateTime toDate = dto.getToDate() != null ? dto.getToDate() : MAX_DATE_TIME;
+		AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor)
+				: new AppointmentCursor(fromDate, 0);
+		boolean expand = dto.getToDate() != null;
+		try {
+			// one extra row is fetched to know whether there is a next page
+			Iterator<AppointmentResponse> page = appointmentRepository
+					.findViewPageAfter(fromDate, toDate, after.getAppointmentDateTime(), after.getAppointmentId(),
+							expand, PageRequest.of(0, limit + 1))
+					.stream().map(appointmentMapper::toResponse).iterator();
+			if (expand) {
+				LocalDateTime from = fromDate.isAfter(after.getAppointmentDateTime()) ? fromDate
+						: after.getAppointmentDateTime();
+				page = appointmentRecurrenceExpander.withOccurrences(page, from, toDate);
+			}
+			List<AppointmentResponse> list = new ArrayList<>();
+			while (page.hasNext() && list.size() <= limit) {
+				AppointmentResponse response = page.next();
+				if (after.isBefore(response.getAppointmentDateTime(), response.getAppointmentId())) {
+					list.add(response);
+				}
+			}
+			boolean hasNext = list.size() > limit;
+			if (hasNext) {
+				list = list.subList(0, limit);
+			}
+			AppointmentResponse last = list.isEmpty() ? null : list.get(list.size() - 1);
+			String nextCursor = hasNext ? AppointmentCursor.encode(last.getAppointmentDateTime(), last.getAppointmentId())
+					: null;
+			return new AppointmentPageResponse(list, nextCursor, hasNext);
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of streaming all the appointments. The
+	 * appointments are read from a database cursor as projections and handed to
+	 * the consumer one by one, so nothing is retained once it is written. When the
+	 * to date is passed the occurrences of the recurring appointments are merged
+	 * in as they are read, otherwise a recurring appointment is listed once, along
+	 * with its rule.
+	 */
+	@Transactional
+	@Timed(SERVICE_TIMER)
+	@Override
+	public void streamAllAppointment(AppointmentFilterDto dto, Consumer<AppointmentResponse> consumer) {
+		log.debug(DEBUG, dto);
+		LocalDateTime fromDate = dto.getFromDate() != null ? dto.getFromDate() : MIN_DATE_TIME;
+		LocalDateTime toDate = dto.getToDate() != null ? dto.getToDate() : MAX_DATE_TIME;
+		boolean expand = dto.getToDate() != null;
+		try (Stream<AppointmentView> stream = appointmentRepository.streamViewsByDateRange(fromDate, toDate,
+				expand)) {
+			Iterator<AppointmentResponse> responses = stream.map(appointmentMapper::toResponse).iterator();
+			if (expand) {
+				responses = appointmentRecurrenceExpander.withOccurrences(responses, fromDate, toDate);
+			}
+			responses.forEachRemaining(consumer);
+		}
+	}
+
+	/**
+	 * This is the implementation method of fetching the statistics of the
+	 * appointment cache
+	 * 
+	 * @return This will return the size, hit, miss and eviction counts of the
+	 *         appointment cache
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public CacheStatsResponse getCacheStats() {
+		CaffeineCache cache = (CaffeineCache) cacheManager.getCache(APPOINTMENT_CACHE);
+		CacheStats stats = cache.getNativeCache().stats();
+		return new CacheStatsResponse(cache.getNativeCache().estimatedSize(), stats.hitCount(), stats.missCount(),
+				stats.hitRate(), stats.evictionCount());
+	}
+
+	/**
+	 * This is the implementation method of finding the free slots between the from
+	 * date and the to date. The slots are read from the interval index, so only
+	 * the appointments within the range are visited.
+	 * 
+	 * @return This will return the free slots which are at least the minimum
+	 *         duration long
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public List<FreeSlotResponse> getFreeSlots(LocalDateTime fromDate, LocalDateTime toDate, String minDuration) {
+		log.debug(DEBUG, fromDate + " " + toDate + " " + minDuration);
+		if (!fromDate.isBefore(toDate)) {
+			throw new AppointmentException(INVALID_DATE_RANGE);
+		}
+		long minMilliSeconds = 0;
+		if (minDuration != null) {
+			minMilliSeconds = AppointmentDurationCodec.parse(minDuration);
+			if (minMilliSeconds == AppointmentDurationCodec.INVALID) {
+				throw new AppointmentException(INVALID_DURATION);
+			}
+		}
+		return appointmentIntervalIndex.findFreeSlots(fromDate, toDate, minMilliSeconds).stream()
+				.map(slot -> new FreeSlotResponse(slot[0], slot[1],
+						AppointmentDurationCodec.format(Duration.between(slot[0], slot[1]).toMillis())))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * This is the implementation method of fetching the appointment change events
+	 * after the given event id, in the order they happened
+	 * 
+	 * @return This will return the page of events along with the id of the last
+	 *         event, which is the after event id of the next page
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentEventPageResponse getAppointmentEvents(long afterEventId, int limit) {
+		log.debug(DEBUG, afterEventId + " " + limit);
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new AppointmentException(INVALID_PAGE_SIZE);
+		}
+		try {
+			// one extra event is fetched to know whether there is a next page
+			List<AppointmentEventResponse> events = appointmentEventPublisher.findEvents(afterEventId, limit + 1);
+			boolean hasNext = events.size() > limit;
+			if (hasNext) {
+				events = events.subList(0, limit);
+			}
+			long lastEventId = events.isEmpty() ? afterEventId : events.get(events.size() - 1).getEventId();
+			return new AppointmentEventPageResponse(events, lastEventId, hasNext);
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of the daily report. The counts and total
+	 * durations are read from the daily summary table, whose dirty days are
+	 * refreshed first, so the report reads one row per day. The occurrences of
+	 * the recurring appointments are added to the days they start on.
+	 * 
+	 * @return This will return the count and total duration of the appointments
+	 *         of every day between the from date and the to date which has any
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public List<AppointmentReportResponse> getDailyReport(LocalDate fromDate, LocalDate toDate) {
+		log.debug(DEBUG, fromDate + " " + toDate);
+		if (fromDate.isAfter(toDate)) {
+			throw new AppointmentException(INVALID_DATE_RANGE);
+		}
+		try {
+			return findDailySummaries(fromDate, toDate).stream()
+					.map(summary -> new AppointmentReportResponse(summary.getSummaryDate(), summary.getSummaryDate(),
+							summary.getAppointmentCount(), AppointmentDurationCodec.format(summary.getTotalDuration())))
+					.collect(Collectors.toList());
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of the weekly report. The days of the
+	 * daily report are added up into weeks which start on Monday.
+	 * 
+	 * @return This will return the count and total duration of the appointments
+	 *         of every week between the from date and the to date which has any
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public List<AppointmentReportResponse> getWeeklyReport(LocalDate fromDate, LocalDate toDate) {
+		log.debug(DEBUG, fromDate + " " + toDate);
+		if (fromDate.isAfter(toDate)) {
+			throw new AppointmentException(INVALID_DATE_RANGE);
+		}
+		try {
+			Map<LocalDate, long[]> weeks = new LinkedHashMap<>();
+			findDailySummaries(fromDate, toDate).forEach(summary -> {
+				long[] week = weeks.computeIfAbsent(summary.getSummaryDate().with(DayOfWeek.MONDAY),
+						monday -> new long[2]);
+				week[0] += summary.getAppointmentCount();
+				week[1] += summary.getTotalDuration();
+			});
+			return weeks.entrySet().stream()
+					.map(week -> new AppointmentReportResponse(week.getKey(), week.getKey().plusDays(6),
+							week.getValue()[0], AppointmentDurationCodec.format(week.getValue()[1])))
+					.collect(Collectors.toList());
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is a implementation method for fetching a particular archived
+	 * appointment based on the appointment id. The archived appointments are
+	 * the deleted and long past ones which were moved out of the appointment
+	 * table.
+	 * 
+	 * @return This will return the particular archived appointment object based
+	 *         on the appointment id
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentResponse findArchivedAppointmentById(long appointmentId) {
+		try {
+			log.debug(DEBUG, appointmentId);
+			return archivedAppointmentRepository.findById(appointmentId).map(appointmentMapper::toResponse)
+					.orElseThrow(() -> new AppointmentNotFoundException(GET_FAIL_MESSAGE));
+		} catch (AppointmentNotFoundException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of fetching a page of archived
+	 * appointments, deleted or not, ordered by the appointment date time and
+	 * appointment id like the page of appointments
+	 * 
+	 * @return This will return the page of archived appointment objects along
+	 *         with the cursor of the next page
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentPageResponse getArchivedAppointmentPage(AppointmentFilterDto dto, String cursor, int limit) {
+		log.debug(DEBUG, dto + " " + cursor + " " + limit);
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new AppointmentException(INVALID_PAGE_SIZE);
+		}
+		LocalDateTime fromDate = dto.getFromDate() != null ? dto.getFromDate() : MIN_DATE_TIME;
+		LocalDateTime toDate = dto.getToDate() != null ? dto.getToDate() : MAX_DATE_TIME;
+		AppointmentCursor after = cursor != null ? AppointmentCursor.decode(cursor)
+				: new AppointmentCursor(fromDate, 0);
+		try {
+			// one extra row is fetched to know whether there is a next page
+			List<ArchivedAppointment> list = archivedAppointmentRepository.findPageAfter(fromDate, toDate,
+					after.getAppointmentDateTime(), after.getAppointmentId(), PageRequest.of(0, limit + 1));
+			boolean hasNext = list.size() > limit;
+			if (hasNext) {
+				list = list.subList(0, limit);
+			}
+			ArchivedAppointment last = list.isEmpty() ? null : list.get(list.size() - 1);
+			String nextCursor = hasNext ? AppointmentCursor.encode(last.getAppointmentDateTime(), last.getAppointmentId())
+					: null;
+			return new AppointmentPageResponse(
+					list.stream().map(appointmentMapper::toResponse).collect(Collectors.toList()), nextCursor, hasNext);
+		} catch (Exception e) {
+			log.error(ERROR, e);
+			throw new AppointmentException(SOMETHING_WENT_WRONG);
+		}
+	}
+
+	/**
+	 * This is the implementation method of creating appointments in bulk. The
+	 * appointments are saved in chunks, each chunk in its own transaction, so the
+	 * inserts of a chunk are sent to the database as JDBC batches. An item which
+	 * is not valid fails alone, while a database failure fails its whole chunk.
+	 * 
+	 * @return This will return the result of each of the received appointments
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentBulkResponse createAppointments(List<AppointmentDto> appointmentDtos) {
+		log.debug(DEBUG, appointmentDtos);
+		validateBulkSize(appointmentDtos);
+		AppointmentBulkItemResponse[] items = new AppointmentBulkItemResponse[appointmentDtos.size()];
+		for (int start = 0; start < appointmentDtos.size(); start += BULK_CHUNK_SIZE) {
+			int end = Math.min(start + BULK_CHUNK_SIZE, appointmentDtos.size());
+			List<Integer> indexes = new ArrayList<>();
+			List<Appointment> appointments = new ArrayList<>();
+			List<Long> tokens = new ArrayList<>();
+			for (int index = start; index < end; index++) {
+				AppointmentDto appointmentDto = appointmentDtos.get(index);
+				String violation = validateAppointment(appointmentDto);
+				if (violation != null) {
+					items[index] = new AppointmentBulkItemResponse(index, 0, true, violation);
+					continue;
+				}
+				Appointment appointment = appointmentMapper.toEntity(appointmentDto);
+				try {
+					tokens.add(reserve(appointment, 0));
+				} catch (AppointmentException e) {
+					items[index] = new AppointmentBulkItemResponse(index, 0, true, e.getMessage());
+					continue;
+				}
+				indexes.add(index);
+				appointments.add(appointment);
+			}
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					appointmentRepository.saveAll(appointments);
+					for (Appointment appointment : appointments) {
+						appointmentEventPublisher.publish(AppointmentEventType.CREATED, appointment);
+						appointmentDailySummaryRefresher.markDirty(appointment.getAppointmentDateTime());
+						putAfterCommit(appointment);
+					}
+					entityManager.flush();
+					entityManager.clear();
+				});
+				for (int i = 0; i < indexes.size(); i++) {
+					appointmentIntervalIndex.confirm(tokens.get(i), appointments.get(i).getAppointmentId());
+					items[indexes.get(i)] = new AppointmentBulkItemResponse(indexes.get(i),
+							appointments.get(i).getAppointmentId(), false, SAVE_SUCCESS_MESSAGE);
+				}
+			} catch (Exception e) {
+				log.error(ERROR, e);
+				tokens.forEach(appointmentIntervalIndex::release);
+				indexes.forEach(index -> items[index] = new AppointmentBulkItemResponse(index, 0, true,
+						SOMETHING_WENT_WRONG));
+			}
+		}
+		return toBulkResponse(items);
+	}
+
+	/**
+	 * This is the implementation method of updating appointments in bulk. The
+	 * appointments of a chunk are fetched with a single query and updated in one
+	 * transaction, so the updates are sent to the database as JDBC batches.
+	 * 
+	 * @return This will return the result of each of the received appointments
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentBulkResponse updateAppointments(List<AppointmentBulkUpdateDto> appointmentDtos) {
+		log.debug(DEBUG, appointmentDtos);
+		validateBulkSize(appointmentDtos);
+		AppointmentBulkItemResponse[] items = new AppointmentBulkItemResponse[appointmentDtos.size()];
+		for (int start = 0; start < appointmentDtos.size(); start += BULK_CHUNK_SIZE) {
+			int end = Math.min(start + BULK_CHUNK_SIZE, appointmentDtos.size());
+			List<Integer> indexes = new ArrayList<>();
+			for (int index = start; index < end; index++) {
+				AppointmentBulkUpdateDto appointmentDto = appointmentDtos.get(index);
+				String violation = appointmentDto == null ? SOMETHING_WENT_WRONG
+						: validateAppointment(appointmentDto.getAppointment());
+				if (violation != null) {
+					items[index] = new AppointmentBulkItemResponse(index,
+							appointmentDto == null ? 0 : appointmentDto.getAppointmentId(), true, violation);
+				} else {
+					indexes.add(index);
+				}
+			}
+			List<Long> appointmentIds = indexes.stream().map(index -> appointmentDtos.get(index).getAppointmentId())
+					.collect(Collectors.toList());
+			Map<Integer, Long> tokens = new HashMap<>();
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					Map<Long, Appointment> appointments = findAppointmentsById(appointmentIds);
+					for (int index : indexes) {
+						AppointmentBulkUpdateDto appointmentDto = appointmentDtos.get(index);
+						Appointment appointment = appointments.get(appointmentDto.getAppointmentId());
+						if (appointment == null) {
+							items[index] = new AppointmentBulkItemResponse(index, appointmentDto.getAppointmentId(),
+									true, GET_FAIL_MESSAGE);
+							continue;
+						}
+						try {
+							tokens.put(index, reserve(appointmentMapper.toEntity(appointmentDto.getAppointment()),
+									appointmentDto.getAppointmentId()));
+						} catch (AppointmentException e) {
+							items[index] = new AppointmentBulkItemResponse(index, appointmentDto.getAppointmentId(),
+									true, e.getMessage());
+							continue;
+						}
+						LocalDateTime previousDateTime = appointment.getAppointmentDateTime();
+						appointmentMapper.updateEntity(appointmentDto.getAppointment(), appointment);
+						appointmentEventPublisher.publish(AppointmentEventType.UPDATED, appointment);
+						appointmentDailySummaryRefresher.markDirty(previousDateTime,
+								appointment.getAppointmentDateTime());
+						putAfterCommit(appointment);
+						items[index] = new AppointmentBulkItemResponse(index, appointmentDto.getAppointmentId(), false,
+								UPDATE_SUCCESS_MESSAGE);
+					}
+					entityManager.flush();
+					entityManager.clear();
+				});
+				tokens.forEach((index, token) -> appointmentIntervalIndex.confirm(token,
+						appointmentDtos.get(index).getAppointmentId()));
+			} catch (Exception e) {
+				log.error(ERROR, e);
+				tokens.values().forEach(appointmentIntervalIndex::release);
+				indexes.forEach(index -> items[index] = new AppointmentBulkItemResponse(index,
+						appointmentDtos.get(index).getAppointmentId(), true, SOMETHING_WENT_WRONG));
+			}
+			evictAppointments(appointmentIds);
+		}
+		return toBulkResponse(items);
+	}
+
+	/**
+	 * This is the implementation method of deleting appointments in bulk. This
+	 * method will do a soft delete operation on the appointments chunk by chunk,
+	 * each chunk in its own transaction.
+	 * 
+	 * @return This will return the result of each of the received appointment ids
+	 */
+	@Timed(SERVICE_TIMER)
+	@Override
+	public AppointmentBulkResponse deleteAppointments(List<Long> appointmentIds) {
+		log.debug(DEBUG, appointmentIds);
+		validateBulkSize(appointmentIds);
+		AppointmentBulkItemResponse[] items = new AppointmentBulkItemResponse[appointmentIds.size()];
+		for (int start = 0; start < appointmentIds.size(); start += BULK_CHUNK_SIZE) {
+			int first = start;
+			List<Long> chunk = appointmentIds.subList(start, Math.min(start + BULK_CHUNK_SIZE, appointmentIds.size()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					Map<Long, Appointment> appointments = findAppointmentsById(chunk);
+					for (int i = 0; i < chunk.size(); i++) {
+						// a repeated id is not found again, like a second delete
+						Appointment appointment = chunk.get(i) == null ? null : appointments.remove(chunk.get(i));
+						long appointmentId = chunk.get(i) == null ? 0 : chunk.get(i);
+						if (appointment == null) {
+							items[first + i] = new AppointmentBulkItemResponse(first + i, appointmentId, true,
+									GET_FAIL_MESSAGE);
+							continue;
+						}
+						appointment.setDelete(true);
+						appointmentEventPublisher.publish(AppointmentEventType.DELETED, appointment);
+						appointmentDailySummaryRefresher.markDirty(appointment.getAppointmentDateTime());
+						putAfterCommit(appointment);
+						items[first + i] = new AppointmentBulkItemResponse(first + i, appointmentId, false,
+								DELETE_SUCCESS_MESSAGE);
+					}
+					entityManager.flush();
+					entityManager.clear();
+				});
+				for (int i = 0; i < chunk.size(); i++) {
+					if (!items[first + i].isError()) {
+						appointmentIntervalIndex.removeAppointment(chunk.get(i));
+					}
+				}
+			} catch (Exception e) {
+				log.error(ERROR, e);
+				for (int i = 0; i < chunk.size(); i++) {
+					items[first + i] = new AppointmentBulkItemResponse(first + i,
+							chunk.get(i) == null ? 0 : chunk.get(i), true, SOMETHING_WENT_WRONG);
+				}
+			}
+			evictAppointments(chunk);
+		}
+		return toBulkResponse(items);
+	}
+
+	/**
+	 * This is a private method which is used to check the number of items of a
+	 * bulk request
+	 */
+	private void validateBulkSize(List<?> items) {
+		if (items == null || items.isEmpty() || items.size() > MAX_BULK_SIZE) {
+			throw new AppointmentException(INVALID_BULK_SIZE);
+		}
+	}
+
+	/**
+	 * This is a private method which is used to validate an appointment of a bulk
+	 * request, since the bean validation of the request body does not cascade to
+	 * the items of a list
+	 * 
+	 * @return This will return the validation message of the first violation or
+	 *         null when the appointment is valid
+	 */
+	private String validateAppointment(AppointmentDto appointmentDto) {
+		if (appointmentDto == null || appointmentDto.getAppointmentDuration() == null) {
+			return SOMETHING_WENT_WRONG;
+		}
+		Set<ConstraintViolation<AppointmentDto>> violations = validator.validate(appointmentDto);
+		return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+	}
+
+	/**
+	 * This is a private method for fetching the appointments which are not
+	 * deleted of the given ids with a single query
+	 * 
+	 * @return This will return the appointments by their appointment id
+	 */
+	private Map<Long, Appointment> findAppointmentsById(List<Long> appointmentIds) {
+		Set<Long> ids = appointmentIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+		if (ids.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return appointmentRepository.findByAppointmentIdInAndIsDelete(ids, false).stream()
+				.collect(Collectors.toMap(Appointment::getAppointmentId, Function.identity()));
+	}
+
+	/**
+	 * This is a private method which is used to check the version of the
+	 * appointment against the version expected by the client
+	 */
+	private void checkVersion(Appointment appointment, Long expectedVersion) {
+		if (expectedVersion != null && appointment.getVersion() != expectedVersion) {
+			throw new AppointmentVersionMismatchException(VERSION_MISMATCH);
+		}
+	}
+
+	/**
+	 * This is a private method for finding the current interval of an
+	 * appointment. The upcoming appointments which do not repeat are held by the
+	 * interval index, the others are read from the database along with their
+	 * recurrence. The appointment which is read is detached, so the update
+	 * statement is not hidden by it when the appointment is read again.
+	 * 
+	 * @return This will return a detached appointment holding the date time,
+	 *         the duration and the recurrence of the appointment
+	 */
+	private Appointment findInterval(long appointmentId) {
+		LocalDateTime[] interval = appointmentIntervalIndex.findInterval(appointmentId);
+		if (interval != null) {
+			Appointment appointment = new Appointment();
+			appointment.setAppointmentId(appointmentId);
+			appointment.setAppointmentDateTime(interval[0]);
+			appointment.setAppointmentDuration(Duration.between(interval[0], interval[1]).toMillis());
+			return appointment;
+		}
+		Appointment appointment = getAppointmentById(appointmentId);
+		entityManager.detach(appointment);
+		return appointment;
+	}
+
+	/**
+	 * This is a private method which is used to reserve the interval of the
+	 * appointment in the interval index, or the intervals of its occurrences
+	 * when it repeats. The stored occurrences of the appointment which is
+	 * updated replace the ones of its rule.
+	 * 
+	 * @param appointmentId This is the id of the appointment which is updated, or
+	 *                      0 when it is created
+	 * @return This will return the token of the reservation
+	 */
+	private long reserve(Appointment appointment, long appointmentId) {
+		List<AppointmentOccurrence> occurrences = appointment.getRecurrence() == null || appointmentId == 0
+				? Collections.emptyList()
+				: appointmentOccurrenceRepository.findByAppointmentId(appointmentId);
+		return appointmentIntervalIndex.reserve(appointment, occurrences, appointmentId);
+	}
+
+	/**
+	 * This is a private method which is used to find out why a partial update
+	 * did not update any row. It is only called on the failure path, so the
+	 * successful update stays a single statement.
+	 * 
+	 * @return This will return the exception to be thrown
+	 */
+	private RuntimeException patchFailure(long appointmentId, Long expectedVersion) {
+		AppointmentView appointment = appointmentRepository.findViewById(appointmentId);
+		if (appointment == null) {
+			return new AppointmentNotFoundException(GET_FAIL_MESSAGE);
+		}
+		if (expectedVersion != null && appointment.getVersion() != expectedVersion) {
+			return new AppointmentVersionMismatchException(VERSION_MISMATCH);
+		}
+		// the date time or duration the new interval was checked with has changed
+		return new ObjectOptimisticLockingFailureException(Appointment.class, appointmentId);
+	}
+
+	/**
+	 * This is a private method which is used to confirm a reservation of the
+	 * interval index once the current transaction commits, or to release it when
+	 * the transaction rolls back
+	 */
+	private void confirmAfterCommit(long token, long appointmentId) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					appointmentIntervalIndex.confirm(token, appointmentId);
+				} else {
+					appointmentIntervalIndex.release(token);
+				}
+			}
+		});
+	}
+
+	/**
+	 * This is a private method which is used to confirm a reservation of the
+	 * interval index for a changed occurrence once the current transaction
+	 * commits, or to release it when the transaction rolls back
+	 */
+	private void confirmAfterCommit(long token, AppointmentOccurrence occurrence) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					appointmentIntervalIndex.confirm(token, occurrence);
+				} else {
+					appointmentIntervalIndex.release(token);
+				}
+			}
+		});
+	}
+
+	/**
+	 * This is a private method which is used to run an action once the current
+	 * transaction commits
+	 */
+	private void runAfterCommit(Runnable action) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * This is a private method which is used to hand the state of the
+	 * appointment to the calendar once the current transaction commits, when the
+	 * version of the appointment is final. A recurring appointment is handed as
+	 * deleted, its occurrences are not held by the calendar.
+	 */
+	private void putAfterCommit(Appointment appointment) {
+		if (appointmentCalendar.isEnabled()) {
+			runAfterCommit(() -> {
+				AppointmentView view = appointmentMapper.toView(appointment);
+				view.setDelete(view.isDelete() || appointment.getRecurrence() != null);
+				appointmentCalendar.put(view);
+			});
+		}
+	}
+
+	/**
+	 * This is a private method which is used to evict the cached responses of
+	 * the given appointments
+	 */
+	private void evictAppointments(List<Long> appointmentIds) {
+		Cache cache = cacheManager.getCache(APPOINTMENT_CACHE);
+		appointmentIds.stream().filter(Objects::nonNull).forEach(cache::evict);
+	}
+
+	/**
+	 * This is a private method which is used to build the bulk response from the
+	 * result of each item
+	 * 
+	 * @return This will return the bulk response with the success and failure
+	 *         counts
+	 */
+	private AppointmentBulkResponse toBulkResponse(AppointmentBulkItemResponse[] items) {
+		int failed = (int) Arrays.stream(items).filter(AppointmentBulkItemResponse::isError).count();
+		return new AppointmentBulkResponse(items.length, items.length - failed, failed, Arrays.asList(items));
+	}
+
 }
@@ -0,0 +1,28 @@
+package com.eastvantage.appointment.validation;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+
+/**
+ * The annotated string must be a HH:mm:ss duration. A null value is valid.
+ */
+@Documented
+@Constraint(validatedBy = AppointmentDurationValidator.class)
+@Target({ FIELD, PARAMETER })
+@Retention(RUNTIME)
+public @interface AppointmentDuration {
+
+	String message();
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,14 @@
+package com.eastvantage.appointment.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+import com.eastvantage.appointment.common.AppointmentDurationCodec;
+
+public class AppointmentDurationValidator implements ConstraintValidator<AppointmentDuration, String> {
+
+	@Override
+	public boolean isValid(String value, ConstraintValidatorContext context) {
+		return value == null || AppointmentDurationCodec.isValid(value);
+	}
+}
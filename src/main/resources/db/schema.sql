@@ -0,0 +1,102 @@
+-- Schema of the appointment service, used instead of the hibernate schema update by the faststart profile.
+-- Keep it in sync with the entities; every statement can run again against an existing database.
+
+create sequence if not exists appointment_sequence start with 1 increment by 50;
+
+create table if not exists appointment (
+	appointment_id bigint not null,
+	appointment_date_time timestamp,
+	appointment_duration bigint not null,
+	appointment_name varchar(255),
+	is_delete boolean not null,
+	version bigint not null,
+	primary key (appointment_id)
+);
+create index if not exists idx_appointment_delete_date_time on appointment (is_delete, appointment_date_time, appointment_id);
+
+create table if not exists appointment_event (
+	event_id bigint not null,
+	appointment_date_time timestamp,
+	appointment_duration bigint not null,
+	appointment_id bigint not null,
+	appointment_name varchar(255),
+	created_at timestamp,
+	event_type varchar(255),
+	primary key (event_id)
+);
+
+create table if not exists appointment_event_counter (
+	counter_id integer not null,
+	last_event_id bigint not null,
+	primary key (counter_id)
+);
+
+create table if not exists appointment_daily_summary (
+	summary_date date not null,
+	appointment_count bigint not null,
+	total_duration bigint not null,
+	primary key (summary_date)
+);
+
+create table if not exists appointment_archive (
+	appointment_id bigint not null,
+	appointment_date_time timestamp,
+	appointment_duration bigint not null,
+	appointment_name varchar(255),
+	archived_at timestamp,
+	is_delete boolean not null,
+	version bigint not null,
+	primary key (appointment_id)
+);
+create index if not exists idx_appointment_archive_date_time on appointment_archive (appointment_date_time, appointment_id);
+
+alter table appointment add column if not exists recurrence_frequency varchar(255);
+alter table appointment add column if not exists recurrence_interval integer;
+alter table appointment add column if not exists recurrence_until timestamp;
+
+create sequence if not exists appointment_occurrence_sequence start with 1 increment by 50;
+
+create table if not exists appointment_occurrence (
+	occurrence_id bigint not null,
+	appointment_date_time timestamp,
+	appointment_duration bigint not null,
+	appointment_id bigint not null,
+	appointment_name varchar(255),
+	is_delete boolean not null,
+	occurrence_date_time timestamp,
+	version bigint not null,
+	primary key (occurrence_id)
+);
+create unique index if not exists uk_appointment_occurrence on appointment_occurrence (appointment_id, occurrence_date_time);
+create index if not exists idx_appointment_occurrence_date_time on appointment_occurrence (appointment_date_time);
+alter table appointment_event add column if not exists occurrence_date_time timestamp;
+
+alter table appointment_archive add column if not exists recurrence_frequency varchar(255);
+alter table appointment_archive add column if not exists recurrence_interval integer;
+alter table appointment_archive add column if not exists recurrence_until timestamp;
+
+create table if not exists appointment_occurrence_archive (
+	occurrence_id bigint not null,
+	appointment_date_time timestamp,
+	appointment_duration bigint not null,
+	appointment_id bigint not null,
+	appointment_name varchar(255),
+	archived_at timestamp,
+	is_delete boolean not null,
+	occurrence_date_time timestamp,
+	version bigint not null,
+	primary key (occurrence_id)
+);
+create index if not exists idx_appointment_occurrence_archive_appointment on appointment_occurrence_archive (appointment_id, occurrence_date_time);
+create index if not exists idx_appointment_occurrence_archive_date_time on appointment_occurrence_archive (appointment_date_time);
+
+create table if not exists appointment_idempotency_key (
+	idempotency_key varchar(255) not null,
+	created_at timestamp,
+	fingerprint varchar(64),
+	response_body clob,
+	response_etag varchar(255),
+	response_status integer,
+	primary key (idempotency_key)
+);
+create index if not exists idx_appointment_idempotency_created_at on appointment_idempotency_key (created_at);
@@ -0,0 +1,93 @@
+package com.eastvantage.appointment.calendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+
+class AppointmentCalendarTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2030, 1, 10);
+
+	private static final LocalDateTime NINE = TODAY.atTime(9, 0);
+
+	private final AppointmentCalendar calendar = new AppointmentCalendar();
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+
+	@BeforeEach
+	void setUp() {
+		AppointmentCalendarProperties properties = new AppointmentCalendarProperties();
+		properties.setEnabled(true);
+		properties.setHorizonDays(2);
+		ReflectionTestUtils.setField(calendar, "properties", properties);
+		ReflectionTestUtils.setField(calendar, "appointmentRepository", appointmentRepository);
+		when(appointmentRepository.findViewsByDateRange(any(), any()))
+				.thenReturn(Arrays.asList(view(1, NINE.plusHours(2), 0), view(2, NINE, 0)));
+		calendar.slide(TODAY);
+	}
+
+	@Test
+	void findsTheAppointmentsOfTheRangeInStartOrder() {
+		assertEquals(Arrays.asList(2L, 1L), ids(calendar.findByDateRange(NINE.minusDays(1), NINE.plusDays(1))));
+		assertEquals(Arrays.asList(2L), ids(calendar.findByDateRange(NINE, NINE.plusHours(1))));
+		assertNull(calendar.findByDateRange(NINE.minusDays(3), NINE));
+		assertNull(calendar.findByDateRange(NINE, NINE.plusDays(3)));
+	}
+
+	@Test
+	void movesUpdatedAndDropsDeletedAppointments() {
+		calendar.put(view(2, NINE.plusDays(1), 1));
+		AppointmentView deleted = view(1, NINE.plusHours(2), 1);
+		deleted.setDelete(true);
+		calendar.put(deleted);
+
+		assertEquals(Arrays.asList(), ids(calendar.findByDateRange(TODAY.atStartOfDay(), NINE.plusHours(12))));
+		assertEquals(Arrays.asList(2L), ids(calendar.findByDateRange(NINE.plusDays(1), NINE.plusDays(1))));
+		assertEquals(1, calendar.size());
+	}
+
+	@Test
+	void ignoresChangesOlderThanTheHeldOne() {
+		calendar.put(view(2, NINE.plusDays(1), 2));
+		calendar.put(view(2, NINE, 1));
+
+		assertEquals(Arrays.asList(2L), ids(calendar.findByDateRange(NINE.plusDays(1), NINE.plusDays(1))));
+		assertEquals(2, calendar.size());
+	}
+
+	@Test
+	void slidingDropsThePastDaysAndLoadsTheNewOnes() {
+		when(appointmentRepository.findViewsByDateRange(TODAY.plusDays(3).atStartOfDay(),
+				TODAY.plusDays(3).atTime(LocalTime.MAX))).thenReturn(Arrays.asList(view(3, NINE.plusDays(3), 0)));
+
+		calendar.slide(TODAY.plusDays(1));
+
+		assertEquals(Arrays.asList(2L, 1L, 3L), ids(calendar.findByDateRange(NINE.minusHours(9), NINE.plusDays(3))));
+		calendar.slide(TODAY.plusDays(3));
+		assertNull(calendar.findByDateRange(NINE, NINE.plusDays(1)));
+	}
+
+	private static AppointmentView view(long appointmentId, LocalDateTime dateTime, long version) {
+		return new AppointmentView(appointmentId, dateTime, "appointment " + appointmentId, 1800000L, false, version, null);
+	}
+
+	private static List<Long> ids(List<AppointmentView> appointments) {
+		return appointments.stream().map(AppointmentView::getAppointmentId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,140 @@
+package com.eastvantage.appointment.coalescing;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.service.AppointmentServiceImplementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CoalescingAppointmentServiceTests {
+
+	private final AppointmentServiceImplementation delegate = mock(AppointmentServiceImplementation.class);
+
+	private final AppointmentCoalescingProperties properties = new AppointmentCoalescingProperties();
+
+	private final CoalescingAppointmentService service = new CoalescingAppointmentService();
+
+	private final CacheManager cacheManager = mock(CacheManager.class);
+
+	private final Cache cache = mock(Cache.class);
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final CountDownLatch started = new CountDownLatch(1);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "appointmentService", delegate);
+		ReflectionTestUtils.setField(service, "properties", properties);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+		when(cacheManager.getCache("appointments")).thenReturn(cache);
+		ReflectionTestUtils.invokeMethod(service, "init");
+		when(delegate.findAppointmentById(1)).thenAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return new AppointmentResponse();
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentReadsOfTheSameAppointmentShareOneCall() throws Exception {
+		List<Future<AppointmentResponse>> reads = readConcurrently(8);
+		release.countDown();
+
+		for (Future<AppointmentResponse> read : reads) {
+			assertSame(reads.get(0).get(), read.get());
+		}
+		verify(delegate, times(1)).findAppointmentById(1);
+	}
+
+	@Test
+	void readAfterAWriteDoesNotJoinTheEarlierFlight() throws Exception {
+		Future<AppointmentResponse> before = executor.submit(() -> service.findAppointmentById(1));
+		started.await(5, TimeUnit.SECONDS);
+
+		service.deleteAppointment(1, null);
+		Future<AppointmentResponse> after = executor.submit(() -> service.findAppointmentById(1));
+		release.countDown();
+
+		before.get();
+		after.get();
+		verify(delegate, times(2)).findAppointmentById(1);
+	}
+
+	@Test
+	void readOverlappingAWriteEvictsItsResultAgain() throws Exception {
+		Future<AppointmentResponse> read = executor.submit(() -> service.findAppointmentById(1));
+		started.await(5, TimeUnit.SECONDS);
+
+		service.updateAppointment(null, 1, null);
+		release.countDown();
+
+		read.get();
+		verify(cache).evict(1L);
+	}
+
+	@Test
+	void readWithoutAWriteKeepsItsResult() throws Exception {
+		Future<AppointmentResponse> read = executor.submit(() -> service.findAppointmentById(1));
+		started.await(5, TimeUnit.SECONDS);
+
+		service.updateAppointment(null, 2, null);
+		release.countDown();
+
+		read.get();
+		verify(cache, never()).evict(1L);
+	}
+
+	@Test
+	void readsBeyondTheBoundRunOnTheirOwn() throws Exception {
+		properties.setMaxInFlight(0);
+
+		List<Future<AppointmentResponse>> reads = readConcurrently(3);
+		release.countDown();
+
+		for (Future<AppointmentResponse> read : reads) {
+			read.get();
+		}
+		verify(delegate, times(3)).findAppointmentById(1);
+	}
+
+	private List<Future<AppointmentResponse>> readConcurrently(int count) throws InterruptedException {
+		List<Future<AppointmentResponse>> reads = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			reads.add(executor.submit(() -> service.findAppointmentById(1)));
+		}
+		started.await(5, TimeUnit.SECONDS);
+		// leaves the other reads the time to reach the flight
+		Thread.sleep(200);
+		return reads;
+	}
+}
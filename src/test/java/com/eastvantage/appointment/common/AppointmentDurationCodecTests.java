@@ -0,0 +1,42 @@
+package com.eastvantage.appointment.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.junit.jupiter.api.Test;
+
+class AppointmentDurationCodecTests {
+
+	@Test
+	void parsesAndFormatsEveryDurationOfADay() {
+		for (int hours = 0; hours < 24; hours++) {
+			for (int minutes = 0; minutes < 60; minutes++) {
+				for (int seconds = 0; seconds < 60; seconds++) {
+					long millis = Duration.ofHours(hours).plusMinutes(minutes).plusSeconds(seconds).toMillis();
+					String text = DurationFormatUtils.formatDuration(millis, "HH:mm:ss", true);
+					assertEquals(millis, AppointmentDurationCodec.parse(text));
+					assertEquals(text, AppointmentDurationCodec.format(millis));
+				}
+			}
+		}
+	}
+
+	@Test
+	void formatsDurationsOfManyHours() {
+		long millis = Duration.ofHours(123).plusMinutes(4).plusSeconds(5).toMillis();
+		assertEquals(DurationFormatUtils.formatDuration(millis, "HH:mm:ss", true),
+				AppointmentDurationCodec.format(millis));
+	}
+
+	@Test
+	void rejectsInvalidDurations() {
+		String[] invalid = { null, "", "24:00:00", "00:60:00", "00:00:60", "1:00:00", "01:00:0", "01-00-00",
+				"0a:00:00", "01:00:00 " };
+		for (String text : invalid) {
+			assertFalse(AppointmentDurationCodec.isValid(text), String.valueOf(text));
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.eastvantage.appointment.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.eastvantage.appointment.exception.AppointmentVersionMismatchException;
+
+class AppointmentETagTests {
+
+	@Test
+	void readsTheVersionOfIfMatch() {
+		assertEquals(4L, AppointmentETag.parseIfMatch(AppointmentETag.format(4)));
+		assertNull(AppointmentETag.parseIfMatch(null));
+		assertNull(AppointmentETag.parseIfMatch("*"));
+	}
+
+	@Test
+	void rejectsWeakOrMalformedIfMatch() {
+		String[] invalid = { "W/\"4\"", "4", "\"\"", "\"four\"", "\"4\", \"5\"" };
+		for (String ifMatch : invalid) {
+			assertThrows(AppointmentVersionMismatchException.class, () -> AppointmentETag.parseIfMatch(ifMatch),
+					ifMatch);
+		}
+	}
+
+	@Test
+	void comparesIfNoneMatchWeakly() {
+		assertTrue(AppointmentETag.matchesIfNoneMatch("\"4\"", 4));
+		assertTrue(AppointmentETag.matchesIfNoneMatch("W/\"4\"", 4));
+		assertTrue(AppointmentETag.matchesIfNoneMatch("\"3\", \"4\"", 4));
+		assertTrue(AppointmentETag.matchesIfNoneMatch("*", 4));
+		assertFalse(AppointmentETag.matchesIfNoneMatch("\"3\"", 4));
+		assertFalse(AppointmentETag.matchesIfNoneMatch(null, 4));
+	}
+}
@@ -0,0 +1,86 @@
+package com.eastvantage.appointment.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+
+class AppointmentEventStreamTests {
+
+	private static final long LAST_EVENT_ID = 2000;
+
+	private final AppointmentEventStream stream = new AppointmentEventStream();
+
+	private final AppointmentEventPublisher publisher = mock(AppointmentEventPublisher.class);
+
+	@BeforeEach
+	void setUp() {
+		when(publisher.findEvents(anyLong(), anyInt())).thenAnswer(invocation -> {
+			long afterEventId = invocation.getArgument(0);
+			int limit = invocation.getArgument(1);
+			return LongStream.rangeClosed(afterEventId + 1, Math.min(afterEventId + limit, LAST_EVENT_ID))
+					.mapToObj(eventId -> new AppointmentEventResponse(eventId, AppointmentEventType.CREATED, eventId,
+							null, "checkup", "00:30:00", null, null))
+					.collect(Collectors.toList());
+		});
+		ReflectionTestUtils.setField(stream, "appointmentEventPublisher", publisher);
+		ReflectionTestUtils.setField(stream, "streamTimeout", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(stream, "heartbeatInterval", Duration.ofSeconds(15));
+	}
+
+	@AfterEach
+	void tearDown() {
+		stream.destroy();
+	}
+
+	@Test
+	void subscriberFarBehindCatchesUpWithoutHoldingBackTheHead() throws InterruptedException {
+		stream.subscribe(0);
+		stream.subscribe(LAST_EVENT_ID - 1);
+
+		stream.dispatch();
+
+		awaitCursors(LAST_EVENT_ID, LAST_EVENT_ID);
+	}
+
+	@Test
+	void subscribersAtTheHeadShareOneRead() throws InterruptedException {
+		stream.subscribe(LAST_EVENT_ID - 2);
+		stream.subscribe(LAST_EVENT_ID - 1);
+		stream.subscribe(LAST_EVENT_ID);
+
+		stream.dispatch();
+
+		awaitCursors(LAST_EVENT_ID, LAST_EVENT_ID, LAST_EVENT_ID);
+		verify(publisher).findEvents(anyLong(), anyInt());
+	}
+
+	private void awaitCursors(Long... expected) throws InterruptedException {
+		List<Long> cursors = List.of();
+		for (int attempt = 0; attempt < 100; attempt++) {
+			cursors = ((List<?>) ReflectionTestUtils.getField(stream, "subscribers")).stream()
+					.map(subscriber -> (Long) ReflectionTestUtils.getField(subscriber, "cursor"))
+					.collect(Collectors.toList());
+			if (cursors.equals(List.of(expected))) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+		assertEquals(List.of(expected), cursors);
+	}
+}
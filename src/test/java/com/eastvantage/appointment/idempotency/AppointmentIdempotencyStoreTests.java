@@ -0,0 +1,171 @@
+package com.eastvantage.appointment.idempotency;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.IDEMPOTENT_REPLAYED_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.entity.AppointmentIdempotencyKey;
+import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyInProgressException;
+import com.eastvantage.appointment.exception.AppointmentIdempotencyKeyReusedException;
+import com.eastvantage.appointment.repository.AppointmentIdempotencyKeyRepository;
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AppointmentIdempotencyStoreTests {
+
+	private static final AppointmentDto APPOINTMENT = new AppointmentDto(LocalDateTime.of(2030, 1, 1, 10, 0),
+			"checkup", "00:30:00", null);
+
+	private final AppointmentIdempotencyStore store = new AppointmentIdempotencyStore();
+
+	private final AtomicInteger creates = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(store, "properties", new AppointmentIdempotencyProperties());
+		ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(store, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+		store.init();
+	}
+
+	@Test
+	void retryWithTheSameKeyReplaysTheFirstResponse() {
+		ResponseEntity<SuccessResponse> first = store.execute("key-1", APPOINTMENT, this::create);
+		ResponseEntity<SuccessResponse> retry = store.execute("key-1", APPOINTMENT, this::create);
+
+		assertEquals(1, creates.get());
+		assertSame(first.getBody(), retry.getBody());
+		assertEquals(first.getHeaders().getETag(), retry.getHeaders().getETag());
+		assertNull(first.getHeaders().getFirst(IDEMPOTENT_REPLAYED_HEADER));
+		assertEquals("true", retry.getHeaders().getFirst(IDEMPOTENT_REPLAYED_HEADER));
+	}
+
+	@Test
+	void duplicateWaitsForTheRequestInProgress() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<ResponseEntity<SuccessResponse>> first = CompletableFuture
+				.supplyAsync(() -> store.execute("key-1", APPOINTMENT, () -> {
+					started.countDown();
+					await(release);
+					return create();
+				}));
+		started.await();
+		CompletableFuture<ResponseEntity<SuccessResponse>> duplicate = CompletableFuture
+				.supplyAsync(() -> store.execute("key-1", APPOINTMENT, this::create));
+		Thread.sleep(100);
+		assertFalse(duplicate.isDone());
+
+		release.countDown();
+
+		assertSame(first.join().getBody(), duplicate.join().getBody());
+		assertEquals(1, creates.get());
+	}
+
+	@Test
+	void keyReusedForAnotherAppointmentIsRejected() {
+		store.execute("key-1", APPOINTMENT, this::create);
+		AppointmentDto other = new AppointmentDto(APPOINTMENT.getAppointmentDateTime(), "other", "00:30:00", null);
+
+		assertThrows(AppointmentIdempotencyKeyReusedException.class,
+				() -> store.execute("key-1", other, this::create));
+		assertEquals(1, creates.get());
+	}
+
+	@Test
+	void failedRequestReleasesItsKey() {
+		assertThrows(IllegalStateException.class, () -> store.execute("key-1", APPOINTMENT, () -> {
+			creates.incrementAndGet();
+			throw new IllegalStateException();
+		}));
+		store.execute("key-1", APPOINTMENT, this::create);
+
+		assertEquals(2, creates.get());
+	}
+
+	@Test
+	void requestsWithoutAKeyAlwaysRun() {
+		store.execute(null, APPOINTMENT, this::create);
+		store.execute(null, APPOINTMENT, this::create);
+
+		assertEquals(2, creates.get());
+		assertThrows(AppointmentException.class, () -> store.execute("", APPOINTMENT, this::create));
+	}
+
+	@Test
+	void keyOfARequestWhichNeverCompletedIsClaimedAgain() {
+		AppointmentIdempotencyKeyRepository repository = inDatabase();
+		LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(5);
+		when(repository.insertKey(eq("key-1"), anyString(), any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key")).thenReturn(1);
+		when(repository.findById("key-1"))
+				.thenReturn(Optional.of(new AppointmentIdempotencyKey("key-1", "other", null, null, null, claimedAt)));
+		when(repository.updateResponse(eq("key-1"), any(), anyInt(), any(), anyString())).thenReturn(1);
+
+		store.execute("key-1", APPOINTMENT, this::create);
+
+		assertEquals(1, creates.get());
+		verify(repository).deleteKey("key-1", claimedAt);
+	}
+
+	@Test
+	void createWhoseKeyWasClaimedAgainIsNotCommitted() {
+		AppointmentIdempotencyKeyRepository repository = inDatabase();
+		when(repository.insertKey(eq("key-1"), anyString(), any())).thenReturn(1);
+		when(repository.updateResponse(eq("key-1"), any(), anyInt(), any(), anyString())).thenReturn(0);
+
+		assertThrows(AppointmentIdempotencyKeyInProgressException.class,
+				() -> store.execute("key-1", APPOINTMENT, this::create));
+		verify(repository).deleteKey(eq("key-1"), any());
+	}
+
+	private AppointmentIdempotencyKeyRepository inDatabase() {
+		AppointmentIdempotencyProperties properties = new AppointmentIdempotencyProperties();
+		properties.setStore(AppointmentIdempotencyStoreMode.DATABASE);
+		AppointmentIdempotencyKeyRepository repository = mock(AppointmentIdempotencyKeyRepository.class);
+		ReflectionTestUtils.setField(store, "properties", properties);
+		ReflectionTestUtils.setField(store, "appointmentIdempotencyKeyRepository", repository);
+		return repository;
+	}
+
+	private ResponseEntity<SuccessResponse> create() {
+		long appointmentId = creates.incrementAndGet();
+		return ResponseEntity.ok().eTag("\"0\"").body(new SuccessResponse(false, "saved", appointmentId));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.eastvantage.appointment.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentFrequency;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+import com.eastvantage.appointment.exception.AppointmentException;
+
+class AppointmentIntervalIndexTests {
+
+	private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+	private static final long HOUR = 3600000L;
+
+	private static final LocalDateTime TOMORROW = LocalDate.now().plusDays(1).atTime(9, 0);
+
+	private final AppointmentIntervalIndex index = new AppointmentIntervalIndex();
+
+	@Test
+	void rejectsOverlappingIntervalsButAllowsAdjacentOnes() {
+		index.confirm(index.reserve(NINE, HOUR, 0), 1);
+
+		assertThrows(AppointmentException.class, () -> index.reserve(NINE.plusMinutes(30), HOUR, 0));
+		assertThrows(AppointmentException.class, () -> index.reserve(NINE.minusMinutes(30), HOUR, 0));
+		index.confirm(index.reserve(NINE.plusHours(1), HOUR, 0), 2);
+		index.confirm(index.reserve(NINE.minusHours(1), HOUR, 0), 3);
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void pendingReservationsConflictUntilReleased() {
+		long token = index.reserve(NINE, HOUR, 0);
+
+		assertThrows(AppointmentException.class, () -> index.reserve(NINE, HOUR, 0));
+		index.release(token);
+		index.reserve(NINE, HOUR, 0);
+	}
+
+	@Test
+	void updateMovesTheIntervalOfTheAppointment() {
+		index.confirm(index.reserve(NINE, HOUR, 0), 1);
+
+		index.confirm(index.reserve(NINE.plusMinutes(30), HOUR, 1), 1);
+
+		assertEquals(1, index.size());
+		index.reserve(NINE, 30 * 60000L, 0);
+	}
+
+	@Test
+	void findsTheGapsBetweenAppointments() {
+		index.confirm(index.reserve(NINE, HOUR, 0), 1);
+		index.confirm(index.reserve(NINE.plusHours(2), 4 * HOUR, 0), 2);
+		index.confirm(index.reserve(NINE.plusMinutes(90), HOUR / 4, 0), 3);
+		index.removeAppointment(3);
+
+		List<LocalDateTime[]> slots = index.findFreeSlots(NINE.minusHours(1), NINE.plusHours(8), 0);
+
+		assertEquals(3, slots.size());
+		assertArrayEquals(new LocalDateTime[] { NINE.minusHours(1), NINE }, slots.get(0));
+		assertArrayEquals(new LocalDateTime[] { NINE.plusHours(1), NINE.plusHours(2) }, slots.get(1));
+		assertArrayEquals(new LocalDateTime[] { NINE.plusHours(6), NINE.plusHours(8) }, slots.get(2));
+		assertEquals(1, index.findFreeSlots(NINE.plusHours(3), NINE.plusHours(8), 2 * HOUR).size());
+	}
+
+	@Test
+	void theLongestLengthShrinksOnceItsIntervalIsRemoved() {
+		index.confirm(index.reserve(NINE, HOUR, 0), 1);
+		index.confirm(index.reserve(NINE.plusHours(2), 12 * HOUR, 0), 2);
+		index.confirm(index.reserve(NINE.plusDays(1), 12 * HOUR, 0), 3);
+
+		index.removeAppointment(2);
+		assertEquals(12 * HOUR, ((NavigableMap<?, ?>) ReflectionTestUtils.getField(index, "lengths")).lastKey());
+		index.confirm(index.reserve(NINE.plusDays(1), HOUR, 3), 3);
+		assertEquals(HOUR, ((NavigableMap<?, ?>) ReflectionTestUtils.getField(index, "lengths")).lastKey());
+	}
+
+	@Test
+	void everyOccurrenceOfASeriesIsChecked() {
+		index.confirm(index.reserve(daily(TOMORROW, null), List.of(), 0), 1);
+
+		assertThrows(AppointmentException.class, () -> index.reserve(TOMORROW.plusDays(3), HOUR, 0));
+		assertThrows(AppointmentException.class,
+				() -> index.reserve(daily(TOMORROW.plusDays(10).plusMinutes(30), null), List.of(), 0));
+		index.release(index.reserve(TOMORROW.plusDays(3).plusHours(1), HOUR, 0));
+		// the series may move over its own occurrences
+		index.confirm(index.reserve(daily(TOMORROW.plusMinutes(30), null), List.of(), 1), 1);
+		assertEquals(2, index.findFreeSlots(TOMORROW.plusDays(5), TOMORROW.plusDays(5).plusHours(3), 0).size());
+	}
+
+	@Test
+	void storedOccurrencesReplaceTheOnesOfTheRule() {
+		Appointment series = daily(TOMORROW, TOMORROW.plusDays(5));
+		AppointmentOccurrence cancelled = new AppointmentOccurrence(0, 1, TOMORROW.plusDays(1), TOMORROW.plusDays(1),
+				"cancelled", HOUR, true, 0);
+		index.confirm(index.reserve(series, List.of(cancelled), 0), 1);
+		index.reserve(TOMORROW.plusDays(1), HOUR, 0);
+
+		AppointmentOccurrence moved = new AppointmentOccurrence(0, 1, TOMORROW.plusDays(2),
+				TOMORROW.plusDays(2).plusHours(3), "moved", HOUR, false, 0);
+		index.confirm(index.reserve(moved), moved);
+		index.reserve(TOMORROW.plusDays(2), HOUR, 0);
+		assertThrows(AppointmentException.class, () -> index.reserve(TOMORROW.plusDays(2).plusHours(3), HOUR, 0));
+		// an occurrence may not be moved over another occurrence of its series
+		assertThrows(AppointmentException.class, () -> index.reserve(new AppointmentOccurrence(0, 1,
+				TOMORROW.plusDays(3), TOMORROW.plusDays(4), "moved", HOUR, false, 0)));
+
+		index.cancel(new AppointmentOccurrence(0, 1, TOMORROW.plusDays(4), TOMORROW.plusDays(4), "cancelled", HOUR,
+				true, 0));
+		index.reserve(TOMORROW.plusDays(4), HOUR, 0);
+	}
+
+	@Test
+	void seriesIsHeldByItsRuleAndItsStoredOccurrences() {
+		AppointmentOccurrence moved = new AppointmentOccurrence(0, 1, TOMORROW.plusDays(2),
+				TOMORROW.plusDays(2).plusHours(3), "moved", HOUR, false, 0);
+		index.confirm(index.reserve(daily(TOMORROW, null), List.of(moved), 0), 1);
+		index.prune();
+
+		assertEquals(1, index.size());
+		assertThrows(AppointmentException.class, () -> index.reserve(TOMORROW.plusYears(5), HOUR, 0));
+		assertEquals(0, index.findFreeSlots(TOMORROW.plusYears(5), TOMORROW.plusYears(5).plusHours(1), 0).size());
+		index.reserve(TOMORROW.plusDays(2), HOUR, 0);
+	}
+
+	@Test
+	void occurrencesAreComputedFromTheRulesAtAnyDate() {
+		index.confirm(index.reserve(series(AppointmentFrequency.WEEKLY, TOMORROW, null), List.of(), 0), 1);
+
+		assertThrows(AppointmentException.class, () -> index.reserve(TOMORROW.plusWeeks(10), HOUR, 0));
+		assertEquals(2, index.findFreeSlots(TOMORROW.plusWeeks(10).minusHours(1), TOMORROW.plusWeeks(10).plusHours(2),
+				0).size());
+		// a monthly rule falls on the day of the week of the weekly one within a few months
+		assertThrows(AppointmentException.class, () -> index
+				.reserve(series(AppointmentFrequency.MONTHLY, TOMORROW.plusDays(1).plusMinutes(30), null), List.of(), 0));
+		index.confirm(index.reserve(series(AppointmentFrequency.MONTHLY, TOMORROW.plusDays(1).plusHours(1), null),
+				List.of(), 0), 2);
+		assertThrows(AppointmentException.class, () -> index
+				.reserve(series(AppointmentFrequency.DAILY, TOMORROW.plusDays(20).plusHours(1), null), List.of(), 0));
+	}
+
+	@Test
+	void rulesMayOverlapWhereStoredOccurrencesReplaceThem() {
+		AppointmentOccurrence cancelled = new AppointmentOccurrence(0, 1, TOMORROW.plusDays(14), TOMORROW.plusDays(14),
+				"cancelled", HOUR, true, 0);
+		index.confirm(index.reserve(series(AppointmentFrequency.WEEKLY, TOMORROW, TOMORROW.plusDays(14)),
+				List.of(cancelled), 0), 1);
+
+		assertThrows(AppointmentException.class,
+				() -> index.reserve(daily(TOMORROW.plusDays(7), TOMORROW.plusDays(14)), List.of(), 0));
+		index.confirm(index.reserve(daily(TOMORROW.plusDays(8), TOMORROW.plusDays(14)), List.of(), 0), 2);
+	}
+
+	private static Appointment daily(LocalDateTime start, LocalDateTime until) {
+		return series(AppointmentFrequency.DAILY, start, until);
+	}
+
+	private static Appointment series(AppointmentFrequency frequency, LocalDateTime start, LocalDateTime until) {
+		return new Appointment(0, start, "series", HOUR, false, 0, new AppointmentRecurrence(frequency, 1, until));
+	}
+}
@@ -0,0 +1,109 @@
+package com.eastvantage.appointment.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.eastvantage.appointment.dto.AppointmentDto;
+import com.eastvantage.appointment.dto.AppointmentRecurrenceDto;
+import com.eastvantage.appointment.dto.AppointmentView;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentEventType;
+import com.eastvantage.appointment.entity.AppointmentFrequency;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+import com.eastvantage.appointment.exception.AppointmentException;
+import com.eastvantage.appointment.response.AppointmentEventResponse;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+class AppointmentMapperTests {
+
+	private static final LocalDateTime DATE_TIME = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+	private final AppointmentMapper appointmentMapper = new AppointmentMapper();
+
+	@Test
+	void mapsDtoToNewEntity() {
+		Appointment appointment = appointmentMapper.toEntity(new AppointmentDto(DATE_TIME, "checkup", "01:30:45", null));
+
+		assertEquals(0, appointment.getAppointmentId());
+		assertEquals(DATE_TIME, appointment.getAppointmentDateTime());
+		assertEquals("checkup", appointment.getAppointmentName());
+		assertEquals(5445000L, appointment.getAppointmentDuration());
+		assertFalse(appointment.isDelete());
+	}
+
+	@Test
+	void updatesEntityWithoutTouchingIdOrDeleteFlag() {
+		Appointment appointment = new Appointment(7, DATE_TIME, "checkup", 1000L, true, 3, null);
+
+		appointmentMapper.updateEntity(new AppointmentDto(DATE_TIME.plusDays(1), "follow up", "00:15:00", null),
+				appointment);
+
+		assertEquals(7, appointment.getAppointmentId());
+		assertEquals(DATE_TIME.plusDays(1), appointment.getAppointmentDateTime());
+		assertEquals("follow up", appointment.getAppointmentName());
+		assertEquals(900000L, appointment.getAppointmentDuration());
+		assertTrue(appointment.isDelete());
+		assertEquals(3, appointment.getVersion());
+	}
+
+	@Test
+	void rejectsInvalidDuration() {
+		AppointmentDto appointmentDto = new AppointmentDto(DATE_TIME, "checkup", "1:30", null);
+
+		assertThrows(AppointmentException.class, () -> appointmentMapper.toEntity(appointmentDto));
+	}
+
+	@Test
+	void copiesRecurrenceWithDefaultInterval() {
+		AppointmentRecurrenceDto recurrence = new AppointmentRecurrenceDto(AppointmentFrequency.WEEKLY, null, null);
+		Appointment appointment = appointmentMapper
+				.toEntity(new AppointmentDto(DATE_TIME, "checkup", "01:30:45", recurrence));
+
+		assertEquals(new AppointmentRecurrence(AppointmentFrequency.WEEKLY, 1, null), appointment.getRecurrence());
+	}
+
+	@Test
+	void rejectsInvalidRecurrence() {
+		AppointmentDto withoutFrequency = new AppointmentDto(DATE_TIME, "checkup", "01:30:45",
+				new AppointmentRecurrenceDto(null, 1, null));
+		AppointmentDto endingBeforeStart = new AppointmentDto(DATE_TIME, "checkup", "01:30:45",
+				new AppointmentRecurrenceDto(AppointmentFrequency.DAILY, 1, DATE_TIME.minusDays(1)));
+
+		assertThrows(AppointmentException.class, () -> appointmentMapper.toEntity(withoutFrequency));
+		assertThrows(AppointmentException.class, () -> appointmentMapper.toEntity(endingBeforeStart));
+	}
+
+	@Test
+	void mapsEntityAndProjectionToSameResponse() {
+		AppointmentResponse expected = new AppointmentResponse(7, DATE_TIME, "checkup", "01:30:45", false, 2, null,
+				null);
+
+		assertEquals(expected,
+				appointmentMapper.toResponse(new Appointment(7, DATE_TIME, "checkup", 5445000L, false, 2, null)));
+		assertEquals(expected,
+				appointmentMapper.toResponse(new AppointmentView(7, DATE_TIME, "checkup", 5445000L, false, 2, null)));
+	}
+
+	@Test
+	void mapsOccurrenceToEventOfTheOccurrence() {
+		AppointmentOccurrence occurrence = new AppointmentOccurrence(3, 7, DATE_TIME, DATE_TIME.plusHours(2),
+				"moved", 5445000L, false, 1);
+
+		AppointmentEventResponse event = appointmentMapper
+				.toResponse(appointmentMapper.toEvent(AppointmentEventType.UPDATED, occurrence));
+
+		assertEquals(AppointmentEventType.UPDATED, event.getEventType());
+		assertEquals(7, event.getAppointmentId());
+		assertEquals(DATE_TIME.plusHours(2), event.getAppointmentDateTime());
+		assertEquals("moved", event.getAppointmentName());
+		assertEquals("01:30:45", event.getAppointmentDuration());
+		assertEquals(DATE_TIME, event.getOccurrenceDateTime());
+	}
+}
@@ -0,0 +1,116 @@
+package com.eastvantage.appointment.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.exception.AppointmentOverloadException;
+import com.eastvantage.appointment.exception.AppointmentRateLimitException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AppointmentRateLimitInterceptorTests {
+
+	private final AppointmentRateLimitProperties properties = new AppointmentRateLimitProperties();
+
+	private final AppointmentRateLimitInterceptor interceptor = new AppointmentRateLimitInterceptor();
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	@BeforeEach
+	void setUp() {
+		properties.setClientHeader("X-Client-Id");
+		properties.setRead(new AppointmentRateLimitProperties.Budget(1000, 1000, 0.001, 2, 100, 1, Duration.ofSeconds(1)));
+		properties.setWrite(new AppointmentRateLimitProperties.Budget(0, 0, 0, 0, 1, 1, Duration.ofSeconds(1)));
+		ReflectionTestUtils.setField(interceptor, "properties", properties);
+		ReflectionTestUtils.setField(interceptor, "meterRegistry", new SimpleMeterRegistry());
+		interceptor.init();
+	}
+
+	@Test
+	void clientBeyondItsBurstIsRateLimited() {
+		assertTrue(interceptor.preHandle(request("GET", "/api/v1/appointment", "10.0.0.1"), response, null));
+		assertTrue(interceptor.preHandle(request("GET", "/api/v1/appointment", "10.0.0.1"), response, null));
+
+		AppointmentRateLimitException exception = assertThrows(AppointmentRateLimitException.class,
+				() -> interceptor.preHandle(request("GET", "/api/v1/appointment", "10.0.0.1"), response, null));
+		assertTrue(exception.getRetryAfterSeconds() >= 1);
+		// another client has a bucket of its own
+		assertTrue(interceptor.preHandle(request("GET", "/api/v1/appointment", "10.0.0.2"), response, null));
+	}
+
+	@Test
+	void requestsWithoutAClientHeaderShareOnlyTheBucketOfAllTheClients() {
+		for (int i = 0; i < 10; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/appointment");
+			request.setRemoteAddr("10.0.0.1");
+			assertTrue(interceptor.preHandle(request, response, null));
+		}
+	}
+
+	@Test
+	void writesBeyondTheConcurrencyLimitAreShedUntilOneCompletes() {
+		MockHttpServletRequest first = request("POST", "/api/v1/appointment", "10.0.0.1");
+		assertTrue(interceptor.preHandle(first, response, null));
+		assertThrows(AppointmentOverloadException.class,
+				() -> interceptor.preHandle(request("DELETE", "/api/v1/appointment", "10.0.0.1"), response, null));
+
+		interceptor.afterCompletion(first, response, null, null);
+		assertTrue(interceptor.preHandle(request("PUT", "/api/v1/appointment", "10.0.0.1"), response, null));
+	}
+
+	@Test
+	void requestsShedByTheConcurrencyLimitGiveTheirTokensBack() {
+		properties.setWrite(new AppointmentRateLimitProperties.Budget(0, 0, 0.001, 2, 1, 1, Duration.ofSeconds(1)));
+		interceptor.init();
+		MockHttpServletRequest first = request("POST", "/api/v1/appointment", "10.0.0.1");
+		assertTrue(interceptor.preHandle(first, response, null));
+		for (int i = 0; i < 3; i++) {
+			assertThrows(AppointmentOverloadException.class,
+					() -> interceptor.preHandle(request("POST", "/api/v1/appointment", "10.0.0.1"), response, null));
+		}
+
+		interceptor.afterCompletion(first, response, null, null);
+		assertTrue(interceptor.preHandle(request("POST", "/api/v1/appointment", "10.0.0.1"), response, null));
+	}
+
+	@Test
+	void tokenBucketRefillsAtItsRate() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(100_000_000, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(100_000_000));
+		bucket.refund();
+		assertEquals(0, bucket.tryAcquire(100_000_000));
+	}
+
+	@Test
+	void concurrencyLimitShrinksWhileSlowAndGrowsBackWhenFast() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10, 100);
+		for (int i = 0; i < 50; i++) {
+			assertTrue(limit.tryAcquire());
+			limit.release(1000);
+		}
+		assertEquals(2, limit.getLimit());
+		for (int i = 0; i < 500; i++) {
+			assertTrue(limit.tryAcquire());
+			limit.release(10);
+		}
+		assertEquals(10, limit.getLimit());
+		assertEquals(0, limit.getInFlight());
+	}
+
+	private static MockHttpServletRequest request(String method, String uri, String client) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.addHeader("X-Client-Id", client);
+		return request;
+	}
+}
@@ -0,0 +1,169 @@
+package com.eastvantage.appointment.recurrence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentFrequency;
+import com.eastvantage.appointment.entity.AppointmentOccurrence;
+import com.eastvantage.appointment.entity.AppointmentRecurrence;
+import com.eastvantage.appointment.entity.ArchivedAppointment;
+import com.eastvantage.appointment.entity.ArchivedAppointmentOccurrence;
+import com.eastvantage.appointment.mapper.AppointmentMapper;
+import com.eastvantage.appointment.repository.AppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.AppointmentRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentOccurrenceRepository;
+import com.eastvantage.appointment.repository.ArchivedAppointmentRepository;
+import com.eastvantage.appointment.response.AppointmentResponse;
+
+class AppointmentRecurrenceExpanderTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+
+	private final AppointmentOccurrenceRepository appointmentOccurrenceRepository = mock(
+			AppointmentOccurrenceRepository.class);
+
+	private final ArchivedAppointmentRepository archivedAppointmentRepository = mock(
+			ArchivedAppointmentRepository.class);
+
+	private final ArchivedAppointmentOccurrenceRepository archivedAppointmentOccurrenceRepository = mock(
+			ArchivedAppointmentOccurrenceRepository.class);
+
+	private final AppointmentRecurrenceExpander expander = new AppointmentRecurrenceExpander();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(expander, "appointmentRepository", appointmentRepository);
+		ReflectionTestUtils.setField(expander, "appointmentOccurrenceRepository", appointmentOccurrenceRepository);
+		ReflectionTestUtils.setField(expander, "archivedAppointmentRepository", archivedAppointmentRepository);
+		ReflectionTestUtils.setField(expander, "archivedAppointmentOccurrenceRepository",
+				archivedAppointmentOccurrenceRepository);
+		ReflectionTestUtils.setField(expander, "appointmentMapper", new AppointmentMapper());
+	}
+
+	@Test
+	void expandsOnlyTheOccurrencesOfTheRange() {
+		Appointment weekly = recurring(1, AppointmentFrequency.WEEKLY, 2, START.plusWeeks(8));
+
+		assertEquals(List.of(START.plusWeeks(4), START.plusWeeks(6), START.plusWeeks(8)),
+				AppointmentRecurrenceExpander.occurrencesBetween(weekly, START.plusWeeks(3), START.plusYears(1)));
+		assertEquals(List.of(START), AppointmentRecurrenceExpander.occurrencesBetween(weekly, START.minusDays(1),
+				START.plusDays(13)));
+	}
+
+	@Test
+	void monthlyOccurrencesKeepTheDayOfTheStart() {
+		Appointment monthly = recurring(1, AppointmentFrequency.MONTHLY, 1, null);
+		monthly.setAppointmentDateTime(LocalDateTime.of(2030, 1, 31, 9, 0));
+
+		assertEquals(List.of(LocalDateTime.of(2030, 2, 28, 9, 0), LocalDateTime.of(2030, 3, 31, 9, 0)),
+				AppointmentRecurrenceExpander.occurrencesBetween(monthly, LocalDateTime.of(2030, 2, 1, 0, 0),
+						LocalDateTime.of(2030, 4, 1, 0, 0)));
+		assertTrue(AppointmentRecurrenceExpander.isOccurrence(monthly, LocalDateTime.of(2030, 2, 28, 9, 0)));
+		assertFalse(AppointmentRecurrenceExpander.isOccurrence(monthly, LocalDateTime.of(2030, 3, 28, 9, 0)));
+	}
+
+	@Test
+	void checksTheIntervalAndTheEndOfTheRule() {
+		Appointment daily = recurring(1, AppointmentFrequency.DAILY, 3, START.plusDays(9));
+
+		assertTrue(AppointmentRecurrenceExpander.isOccurrence(daily, START));
+		assertTrue(AppointmentRecurrenceExpander.isOccurrence(daily, START.plusDays(9)));
+		assertFalse(AppointmentRecurrenceExpander.isOccurrence(daily, START.plusDays(4)));
+		assertFalse(AppointmentRecurrenceExpander.isOccurrence(daily, START.plusDays(12)));
+		assertFalse(AppointmentRecurrenceExpander.isOccurrence(daily, START.minusDays(3)));
+		assertFalse(AppointmentRecurrenceExpander.isOccurrence(daily, START.plusDays(3).plusMinutes(1)));
+	}
+
+	@Test
+	void storedOccurrencesReplaceTheComputedOnes() {
+		LocalDateTime fromDate = START;
+		LocalDateTime toDate = START.plusDays(6).withHour(23);
+		Appointment daily = recurring(1, AppointmentFrequency.DAILY, 1, null);
+		Appointment weekly = recurring(2, AppointmentFrequency.WEEKLY, 1, null);
+		weekly.setAppointmentDateTime(START.minusDays(2));
+		AppointmentOccurrence cancelled = new AppointmentOccurrence(10, 1, START.plusDays(1), START.plusDays(1),
+				"daily", 1000L, true, 0);
+		AppointmentOccurrence movedOut = new AppointmentOccurrence(11, 1, START.plusDays(2), START.plusDays(30),
+				"daily", 1000L, false, 0);
+		AppointmentOccurrence movedIn = new AppointmentOccurrence(12, 2, START.minusDays(2), START.plusDays(3),
+				"moved", 1000L, false, 0);
+		when(appointmentRepository.findRecurringByDateRange(fromDate, toDate)).thenReturn(List.of(daily));
+		when(appointmentOccurrenceRepository.findByAppointmentIdInAndOccurrenceDateTimeBetween(anyCollection(),
+				any(), any())).thenReturn(List.of(cancelled, movedOut));
+		when(appointmentOccurrenceRepository.findByIsDeleteAndAppointmentDateTimeBetween(false, fromDate, toDate))
+				.thenReturn(List.of(movedIn));
+		when(appointmentRepository.findByAppointmentIdInAndIsDelete(List.of(2L), false)).thenReturn(List.of(weekly));
+
+		List<AppointmentResponse> occurrences = expander.findOccurrences(fromDate, toDate).stream()
+				.sorted(Comparator.comparing(AppointmentResponse::getAppointmentDateTime))
+				.collect(Collectors.toList());
+
+		assertEquals(List.of(START, START.plusDays(3), START.plusDays(3), START.plusDays(4), START.plusDays(5),
+				START.plusDays(6)), occurrences.stream().map(AppointmentResponse::getAppointmentDateTime)
+						.collect(Collectors.toList()));
+		AppointmentResponse moved = occurrences.stream().filter(occurrence -> occurrence.getAppointmentId() == 2)
+				.findFirst().get();
+		assertEquals("moved", moved.getAppointmentName());
+		assertEquals(START.minusDays(2), moved.getOccurrenceDateTime());
+	}
+
+	@Test
+	void mergesTheOccurrencesIntoTheAppointmentsInStartOrder() {
+		LocalDateTime fromDate = START;
+		LocalDateTime toDate = START.plusDays(2).withHour(23);
+		Appointment daily = recurring(5, AppointmentFrequency.DAILY, 1, null);
+		AppointmentMapper mapper = new AppointmentMapper();
+		List<AppointmentResponse> appointments = List.of(
+				mapper.toResponse(new Appointment(3, START, "single", 1000L, false, 0, null)),
+				mapper.toResponse(new Appointment(7, START, "single", 1000L, false, 0, null)),
+				mapper.toResponse(new Appointment(1, START.plusDays(1).withHour(8), "single", 1000L, false, 0, null)));
+		when(appointmentRepository.findRecurringByDateRange(fromDate, toDate)).thenReturn(List.of(daily));
+
+		List<AppointmentResponse> merged = new ArrayList<>();
+		expander.withOccurrences(appointments.iterator(), fromDate, toDate).forEachRemaining(merged::add);
+
+		assertEquals(List.of(3L, 5L, 7L, 1L, 5L, 5L),
+				merged.stream().map(AppointmentResponse::getAppointmentId).collect(Collectors.toList()));
+		assertEquals(START.plusDays(2), merged.get(5).getOccurrenceDateTime());
+	}
+
+	@Test
+	void archivedOccurrencesKeepTheRuleAndTheStoredOccurrences() {
+		LocalDateTime fromDate = START;
+		LocalDateTime toDate = START.plusDays(3).withHour(23);
+		ArchivedAppointment daily = new ArchivedAppointment(1, START, "daily", 1000L, false, 0, START.plusDays(40),
+				new AppointmentRecurrence(AppointmentFrequency.DAILY, 1, START.plusDays(2)));
+		ArchivedAppointmentOccurrence cancelled = new ArchivedAppointmentOccurrence(10, 1, START.plusDays(1),
+				START.plusDays(1), "daily", 1000L, true, 0, START.plusDays(40));
+		when(archivedAppointmentRepository.findRecurringByDateRange(fromDate, toDate)).thenReturn(List.of(daily));
+		when(archivedAppointmentOccurrenceRepository.findByAppointmentIdInAndOccurrenceDateTimeBetween(anyCollection(),
+				any(), any())).thenReturn(List.of(cancelled));
+
+		assertEquals(List.of(START, START.plusDays(2)), expander.findArchivedOccurrences(fromDate, toDate).stream()
+				.map(AppointmentResponse::getAppointmentDateTime).collect(Collectors.toList()));
+	}
+
+	private static Appointment recurring(long appointmentId, AppointmentFrequency frequency, int interval,
+			LocalDateTime until) {
+		return new Appointment(appointmentId, START, "daily", 1000L, false, 0,
+				new AppointmentRecurrence(frequency, interval, until));
+	}
+}
@@ -0,0 +1,125 @@
+package com.eastvantage.appointment.serializer;
+
+import static com.eastvantage.appointment.common.AppointmentCommon.GET_SUCCESS_MESSAGE;
+import static com.eastvantage.appointment.common.AppointmentCommon.SAVE_SUCCESS_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.eastvantage.appointment.dto.AppointmentRecurrenceDto;
+import com.eastvantage.appointment.entity.Appointment;
+import com.eastvantage.appointment.entity.AppointmentFrequency;
+import com.eastvantage.appointment.response.AppointmentPageResponse;
+import com.eastvantage.appointment.response.AppointmentResponse;
+import com.eastvantage.appointment.response.SuccessResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class AppointmentSerializerTests {
+
+	private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+			.serializers(new SuccessResponseSerializer(), new AppointmentResponseSerializer()).build();
+
+	private final List<AppointmentResponse> appointments = Arrays.asList(
+			new AppointmentResponse(1, LocalDateTime.of(2030, 1, 2, 3, 4, 5), "checkup", "01:30:45", false, 3, null,
+					null),
+			new AppointmentResponse(2, LocalDateTime.of(2030, 12, 31, 23, 59, 59, 999999999),
+					"\"quoted\" \\ name é中\n", "00:00:00", true, 0, null, null),
+			new AppointmentResponse(3, LocalDateTime.of(1, 1, 1, 0, 0), null, null, false, 0, null, null),
+			new AppointmentResponse(4, LocalDateTime.of(9999, 12, 31, 23, 59, 59), "", "99:59:59", false, 0, null,
+					null),
+			new AppointmentResponse(5, LocalDateTime.of(-5, 6, 7, 8, 9, 10), "x", "00:00:01", false, 0, null, null),
+			new AppointmentResponse(6, LocalDateTime.of(0, 6, 7, 8, 9, 10), "x", "00:00:01", false, 0, null, null),
+			new AppointmentResponse(7, LocalDateTime.of(10000, 6, 7, 8, 9, 10), "x", "00:00:01", false, 0, null, null),
+			new AppointmentResponse(Long.MAX_VALUE, null, "x", "00:00:01", false, 0, null, null),
+			new AppointmentResponse(8, LocalDateTime.of(2030, 1, 9, 10, 0), "weekly", "00:30:00", false, 1,
+					new AppointmentRecurrenceDto(AppointmentFrequency.WEEKLY, 1, LocalDateTime.of(2030, 6, 1, 0, 0)),
+					LocalDateTime.of(2030, 1, 8, 10, 0)),
+			new AppointmentResponse(9, LocalDateTime.of(2030, 1, 9, 10, 0), "daily", "00:30:00", false, 1,
+					new AppointmentRecurrenceDto(AppointmentFrequency.DAILY, 2, null), null));
+
+	@Test
+	void writesTheSameAppointmentsAsTheBeanSerializer() throws Exception {
+		for (AppointmentResponse appointment : appointments) {
+			assertEquals(beanMapper.writeValueAsString(appointment), mapper.writeValueAsString(appointment));
+		}
+		assertEquals(beanMapper.writeValueAsString(appointments), mapper.writeValueAsString(appointments));
+	}
+
+	@Test
+	void writesEveryFieldLikeTheBeanSerializer() throws Exception {
+		AppointmentResponse full = new AppointmentResponse();
+		for (Field field : AppointmentResponse.class.getDeclaredFields()) {
+			ReflectionTestUtils.setField(full, field.getName(), sample(field));
+		}
+		AppointmentRecurrenceDto recurrence = new AppointmentRecurrenceDto();
+		for (Field field : AppointmentRecurrenceDto.class.getDeclaredFields()) {
+			ReflectionTestUtils.setField(recurrence, field.getName(), sample(field));
+		}
+		full.setRecurrence(recurrence);
+		assertEquals(beanMapper.writeValueAsString(full), mapper.writeValueAsString(full));
+
+		for (Field field : AppointmentResponse.class.getDeclaredFields()) {
+			if (!field.getType().isPrimitive()) {
+				AppointmentResponse withoutField = copy(full);
+				ReflectionTestUtils.setField(withoutField, field.getName(), null);
+				assertEquals(beanMapper.writeValueAsString(withoutField), mapper.writeValueAsString(withoutField),
+						field.getName());
+			}
+		}
+		for (Field field : AppointmentRecurrenceDto.class.getDeclaredFields()) {
+			AppointmentResponse withoutField = copy(full);
+			ReflectionTestUtils.setField(withoutField.getRecurrence(), field.getName(), null);
+			assertEquals(beanMapper.writeValueAsString(withoutField), mapper.writeValueAsString(withoutField),
+					field.getName());
+		}
+	}
+
+	@Test
+	void writesTheSameEnvelopesAsTheBeanSerializer() throws Exception {
+		Object[] responses = { new SuccessResponse(false, GET_SUCCESS_MESSAGE, appointments),
+				new SuccessResponse(false, GET_SUCCESS_MESSAGE, new AppointmentPageResponse(appointments, "abc", true)),
+				new SuccessResponse(false, SAVE_SUCCESS_MESSAGE,
+						new Appointment(1, LocalDateTime.of(2030, 1, 2, 3, 4, 5), "checkup", 1000L, false, 2, null)),
+				new SuccessResponse(true, "Not \"a\" constant", null), new SuccessResponse(false, null, 5) };
+		for (Object response : responses) {
+			assertEquals(beanMapper.writeValueAsString(response), mapper.writeValueAsString(response));
+		}
+	}
+
+	private AppointmentResponse copy(AppointmentResponse response) throws Exception {
+		return beanMapper.readValue(beanMapper.writeValueAsString(response), AppointmentResponse.class);
+	}
+
+	/**
+	 * This is a private method which gives a value of the type of the field,
+	 * which the bean serializer writes
+	 */
+	private static Object sample(Field field) {
+		Class<?> type = field.getType();
+		if (type == long.class || type == Long.class) {
+			return 12L;
+		} else if (type == Integer.class || type == int.class) {
+			return 3;
+		} else if (type == boolean.class) {
+			return true;
+		} else if (type == String.class) {
+			return "\"sample\" é中";
+		} else if (type == LocalDateTime.class) {
+			return LocalDateTime.of(2030, 11, 5, 7, 8, 9);
+		} else if (type == AppointmentFrequency.class) {
+			return AppointmentFrequency.MONTHLY;
+		} else if (type == AppointmentRecurrenceDto.class) {
+			return null;
+		}
+		throw new IllegalStateException("Give a sample value of the field " + field.getName());
+	}
+}